@@ -0,0 +1,49 @@
+package cn.qaiu.benchmark;
+
+import cn.qaiu.lz.common.util.AuthParamCodec;
+import cn.qaiu.lz.web.model.AuthParam;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证参数 AES 编解码基准测试
+ * <p>
+ * 使用显式密钥，避免依赖服务配置。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthParamCodecBenchmark {
+
+    private static final String KEY = "nfd_bench_key016";
+
+    private AuthParam authParam;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        authParam = AuthParam.builder()
+                .authType("cookie")
+                .cookie("SESSION=0123456789abcdef0123456789abcdef; uid=10086; token=abcdefghijklmnopqrstuvwxyz")
+                .ext1("bench")
+                .build();
+        encoded = AuthParamCodec.encode(authParam, KEY);
+    }
+
+    @Benchmark
+    public String encode() {
+        return AuthParamCodec.encode(authParam, KEY);
+    }
+
+    @Benchmark
+    public AuthParam decode() {
+        return AuthParamCodec.decode(encoded, KEY);
+    }
+}
@@ -0,0 +1,105 @@
+package cn.qaiu.benchmark;
+
+import cn.qaiu.WebClientVertxInit;
+import cn.qaiu.parser.PanBase;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.impl.HttpResponseImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * PanBase.asJson 响应体解析基准测试，对比 gzip 与未压缩的 JSON 响应
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PanBaseAsJsonBenchmark {
+
+    /** 响应中文件条目数，模拟单文件与目录列表两种大小 */
+    @Param({"1", "200"})
+    public int entries;
+
+    private Vertx vertx;
+    private JsonTool tool;
+    private HttpResponse<Buffer> gzipResponse;
+    private HttpResponse<Buffer> plainResponse;
+
+    @Setup
+    public void setup() throws IOException {
+        vertx = Vertx.vertx();
+        WebClientVertxInit.init(vertx);
+        tool = new JsonTool();
+
+        JsonArray files = new JsonArray();
+        for (int i = 0; i < entries; i++) {
+            files.add(JsonObject.of(
+                    "fileId", "id-" + i,
+                    "fileName", "文件-" + i + ".zip",
+                    "size", 1024L * 1024 * i,
+                    "downloadUrl", "https://download.example.com/file/" + i + "?sign=0123456789abcdef"));
+        }
+        Buffer body = JsonObject.of("code", 0, "data", JsonObject.of("list", files)).toBuffer();
+        plainResponse = response(MultiMap.caseInsensitiveMultiMap(), body);
+        gzipResponse = response(MultiMap.caseInsensitiveMultiMap().add("Content-Encoding", "gzip"), gzip(body));
+    }
+
+    @TearDown
+    public void tearDown() {
+        // 共享 WebClient 关闭后不可再创建，同一进程内后续参数组合仍需使用，这里只关闭 Vertx
+        vertx.close();
+    }
+
+    @Benchmark
+    public JsonObject gzip() {
+        return tool.json(gzipResponse);
+    }
+
+    @Benchmark
+    public JsonObject plain() {
+        return tool.json(plainResponse);
+    }
+
+    private static HttpResponse<Buffer> response(MultiMap headers, Buffer body) {
+        return new HttpResponseImpl<>(HttpVersion.HTTP_1_1, 200, "OK", headers,
+                MultiMap.caseInsensitiveMultiMap(), Collections.emptyList(), body, Collections.emptyList());
+    }
+
+    private static Buffer gzip(Buffer body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes());
+        }
+        return Buffer.buffer(out.toByteArray());
+    }
+
+    /**
+     * 暴露 asJson 的最小解析器
+     */
+    static final class JsonTool extends PanBase {
+        JsonObject json(HttpResponse<?> res) {
+            return asJson(res);
+        }
+
+        @Override
+        public Future<String> parse() {
+            return Future.succeededFuture();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package cn.qaiu.benchmark;
+
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.ParserCreate;
+import cn.qaiu.parser.clientlink.ClientLinkGeneratorFactory;
+import cn.qaiu.parser.clientlink.ClientLinkType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分享链接识别、缓存key、客户端链接生成的基准测试
+ * <p>
+ * shareUrl 覆盖全部内置网盘的链接形式，包括正则较大的蓝奏云/123网盘和兜底的 Cloudreve/其他网盘。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParserCreateBenchmark {
+
+    @Param({
+            "https://www.ilanzou.com/s/abcDEF12",
+            "https://wwn.lanzouy.com/ihLkw1gezutg",
+            "https://share.feijipan.com/s/abcDEF12",
+            "https://lecloud.lenovo.com/share/abcDEF12",
+            "https://v2.fangcloud.com/s/abcDEF12",
+            "https://iwx.mail.qq.com/ftn/download?func=3&k=abcDEF12",
+            "https://wx.mail.qq.com/s?k=uAG9JR42Rqgt010mFp",
+            "https://qfile.qq.com/q/abcDEF12",
+            "https://f.ws59.cn/f/f25625rv6p6",
+            "https://www.123pan.com/s/iaKtVv-abcd",
+            "https://www.ecpan.cn/web/#/yunpanProxy?path=%2F%23%2Fdrive%2Foutside&data=abc&isShare=1",
+            "https://cowtransfer.com/s/9a644fe3e3a748",
+            "https://url94.ctfile.com/f/64115194-164803691-48508c?p=7609",
+            "https://url94.ctfile.com/d/64115194-164803691-48508c?p=7609",
+            "https://www.vyuyun.com/s/QMa6ie?password=I4KG7H",
+            "https://1drv.ms/w/s!Alg0feQmCv2rnRFd60DQOmMa-Oh_?e=buaRtp",
+            "https://drive.google.com/file/d/abcDEF12/view?usp=sharing",
+            "https://www.icloud.com.cn/iclouddrive/abcDEF12#fonts",
+            "https://www.dropbox.com/scl/fi/cwnbms1yn8u6/a.tar.gz?rlkey=3uoi4bxz5mv&dl=0",
+            "https://115.com/s/abcDEF12?password=1234",
+            "https://pan-yz.cldisk.com/external/m/file/953658049102462976",
+            "https://www.kdocs.cn/l/ck0azivLlDi3",
+            "https://drive.uc.cn/s/e623b6da278e4?public=1#/list/share",
+            "https://pan.quark.cn/s/6a325cdaec58",
+            "https://xxx.feishu.cn/file/VnCxbt35KoowKoxldO3c3C7VnMc",
+            "http://163cn.tv/abcDEF12",
+            "https://music.163.com/#/song?id=123456",
+            "https://c6.y.qq.com/base/fcgi-bin/u?__=abcDEF12",
+            "https://y.qq.com/n/ryqq/songDetail/000XjcLg0fbRjv?songtype=0",
+            "https://t1.kugou.com/song.html?id=abcDEF12",
+            "https://www.kugou.com/share/2bi8Fe9CSV3.html?id=2bi8Fe9CSV3",
+            "https://www.kugou.com/mixsong/2bi8Fe9CSV3.html",
+            "https://kuwo.cn/play_detail/395500809",
+            "https://music.migu.cn/v3/music/song/6326951FKBJ?channelId=001002H",
+            "https://qaiu.ysepan.com/",
+            "https://pan.huang1111.cn/s/g31PcQ"
+    })
+    public String shareUrl;
+
+    private ShareLinkInfo shareLinkInfo;
+
+    @Setup
+    public void setup() {
+        shareLinkInfo = ParserCreate.fromShareUrl(shareUrl).getShareLinkInfo();
+        shareLinkInfo.getOtherParam().put("downloadUrl", "https://download.example.com/file/abc.zip?sign=xyz");
+    }
+
+    @Benchmark
+    public ParserCreate fromShareUrl() {
+        return ParserCreate.fromShareUrl(shareUrl);
+    }
+
+    @Benchmark
+    public String cacheKey() {
+        return shareLinkInfo.getCacheKey();
+    }
+
+    @Benchmark
+    public Map<ClientLinkType, String> generateAllClientLinks() {
+        return ClientLinkGeneratorFactory.generateAll(shareLinkInfo);
+    }
+}
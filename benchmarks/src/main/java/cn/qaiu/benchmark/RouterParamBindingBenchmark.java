@@ -0,0 +1,96 @@
+package cn.qaiu.benchmark;
+
+import cn.qaiu.vx.core.annotaions.DateFormat;
+import cn.qaiu.vx.core.handlerfactory.RouteBindingPlan;
+import cn.qaiu.vx.core.util.ReflectionUtil;
+import io.vertx.core.MultiMap;
+import javassist.CtClass;
+import org.apache.commons.lang3.tuple.Pair;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RouterHandlerFactory 请求参数绑定基准测试
+ * <p>
+ * 复现每次请求的绑定流程：读取处理方法的参数名/类型，再把 query 参数按类型转换；
+ * 并对比每次反射调用与注册时生成的 {@link RouteBindingPlan} 调用处理方法的开销。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouterParamBindingBenchmark {
+
+    private final SampleHandler handler = new SampleHandler();
+    private final Object[] arguments = {"https://wwn.lanzouy.com/ihLkw1gezutg", "1234", 2, true, new Date(0)};
+    private Method method;
+    private MultiMap queryParams;
+    private RouteBindingPlan plan;
+
+    @Setup
+    public void setup() throws NoSuchMethodException, IllegalAccessException {
+        method = SampleHandler.class.getMethod("parse", String.class, String.class, int.class, boolean.class, Date.class);
+        plan = RouteBindingPlan.of(handler, method, null);
+        queryParams = MultiMap.caseInsensitiveMultiMap()
+                .add("url", "https://wwn.lanzouy.com/ihLkw1gezutg")
+                .add("pwd", "1234")
+                .add("page", "2")
+                .add("raw", "true")
+                .add("since", "2024-01-01");
+    }
+
+    @Benchmark
+    public Map<String, Pair<Annotation[], CtClass>> methodParameters() {
+        return ReflectionUtil.getMethodParameter(method);
+    }
+
+    @Benchmark
+    public Map<String, Object> bindQueryParams() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        ReflectionUtil.getMethodParameter(method).forEach((name, param) -> {
+            if (ReflectionUtil.isBasicType(param.getRight())) {
+                values.put(name, ReflectionUtil.conversion(param.getRight(), queryParams.get(name), fmt(param)));
+            }
+        });
+        return values;
+    }
+
+    @Benchmark
+    public Object invokeReflective() throws Throwable {
+        return ReflectionUtil.invokeWithArguments(method, handler, arguments);
+    }
+
+    @Benchmark
+    public Object invokePlan() throws Throwable {
+        return plan.invoke(arguments);
+    }
+
+    private static String fmt(Pair<Annotation[], CtClass> param) {
+        for (Annotation annotation : param.getLeft()) {
+            if (annotation instanceof DateFormat dateFormat) {
+                return dateFormat.value();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 模拟的路由处理类
+     */
+    public static class SampleHandler {
+        public String parse(String url, String pwd, int page, boolean raw, @DateFormat("yyyy-MM-dd") Date since) {
+            return url + pwd + page + raw + since;
+        }
+    }
+}
@@ -164,6 +164,9 @@ public class CreateTable {
                 Length length = field.getAnnotation(Length.class);
                 decimalSize = length.decimalSize();
                 varcharSize = length.varcharSize();
+                if (length.largeText() && "VARCHAR".equals(sqlType)) {
+                    sqlType = largeTextType(tableInfo.dbType);
+                }
             }
 
             // 构建列定义
@@ -198,6 +201,15 @@ public class CreateTable {
         return column;
     }
 
+    // 大文本类型
+    private static String largeTextType(JDBCType type) {
+        return switch (type) {
+            case MySQL -> "MEDIUMTEXT";
+            case PostgreSQL -> "TEXT";
+            default -> "CLOB";
+        };
+    }
+
     // 添加类型长度
     private static void appendTypeLength(String sqlType, StringBuilder sb, int[] decimalSize, int varcharSize) {
         if ("DECIMAL".equals(sqlType)) {
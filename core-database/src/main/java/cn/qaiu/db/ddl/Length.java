@@ -13,4 +13,5 @@ import java.lang.annotation.*;
 public @interface Length {
     int[] decimalSize() default {22,2}; //bigDecimal精度
     int varcharSize() default 255; //varchar大小
+    boolean largeText() default false; //大文本: MySQL为MEDIUMTEXT, H2为CLOB, PostgreSQL为TEXT, 忽略varcharSize
 }
@@ -2,6 +2,7 @@ package cn.qaiu.vx.core;
 
 import cn.qaiu.vx.core.util.CommonUtil;
 import cn.qaiu.vx.core.util.ConfigUtil;
+import cn.qaiu.vx.core.util.MetricsUtil;
 import cn.qaiu.vx.core.util.VertxHolder;
 import cn.qaiu.vx.core.verticle.HttpProxyVerticle;
 import cn.qaiu.vx.core.verticle.PostExecVerticle;
@@ -45,6 +46,11 @@ public final class Deploy {
     private JsonObject customConfig;
     private JsonObject globalConfig;
     private Handler<JsonObject> handle;
+    /**
+     * event loop 部署模式: 路由、异步服务、反向代理直接在 event loop 上处理，实例数与 event loop 数相同
+     */
+    private boolean eventLoopMode;
+    private int eventLoopInstances;
 
     private Thread mainThread;
     private final List<Runnable> preShutdownTasks = new CopyOnWriteArrayList<>();
@@ -166,11 +172,22 @@ public final class Deploy {
 //                        addServer("114.114.115.115").
 //                        addServer("8.8.8.8").
 //                        addServer("8.8.4.4"));
+        // 指标采集需在创建 Vertx 时开启
+        var metricsOptions = MetricsUtil.init(globalConfig.getJsonObject(METRICS));
+        if (metricsOptions != null) {
+            vertxOptions.setMetricsOptions(metricsOptions);
+        }
         LOGGER.info("vertxConfigEventLoopPoolSize: {}, eventLoopPoolSize: {}, workerPoolSize: {}", vertxConfigELPS,
                 vertxOptions.getEventLoopPoolSize(),
                 vertxOptions.getWorkerPoolSize());
+        eventLoopMode = DEPLOY_MODE_EVENT_LOOP.equalsIgnoreCase(customConfig.getString(DEPLOY_MODE));
+        int instances = customConfig.getInteger(EVENT_LOOP_INSTANCES, 0);
+        eventLoopInstances = instances > 0 ? instances : vertxOptions.getEventLoopPoolSize();
+        LOGGER.info("deployMode: {}", eventLoopMode ? DEPLOY_MODE_EVENT_LOOP + ", instances: " + eventLoopInstances
+                : "worker");
         var vertx = Vertx.vertx(vertxOptions);
         VertxHolder.init(vertx);
+        MetricsUtil.startEventLoopLagProbe(vertx, vertxOptions.getEventLoopPoolSize());
 
         // 注册 ShutdownHook，确保进程退出时优雅关闭资源
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
@@ -202,9 +219,9 @@ public final class Deploy {
             otherHandleExecutor.close();
             LOGGER.info(res);
             // 部署 路由、异步service、反向代理 服务
-            var future1 = vertx.deployVerticle(RouterVerticle.class, getWorkDeploymentOptions("Router"));
-            var future2 = vertx.deployVerticle(ServiceVerticle.class, getWorkDeploymentOptions("Service"));
-            var future3 = vertx.deployVerticle(ReverseProxyVerticle.class, getWorkDeploymentOptions("proxy", 1));
+            var future1 = vertx.deployVerticle(RouterVerticle.class, getDeploymentOptions("Router"));
+            var future2 = vertx.deployVerticle(ServiceVerticle.class, getDeploymentOptions("Service"));
+            var future3 = vertx.deployVerticle(ReverseProxyVerticle.class, getDeploymentOptions("proxy", 1));
 
 
             JsonObject jsonObject = ((JsonObject) localMap.get(GLOBAL_CONFIG)).getJsonObject("proxy-server");
@@ -309,21 +326,41 @@ public final class Deploy {
      */
     public void redeployServices() {
         var vertx = VertxHolder.getVertxInstance();
-        vertx.deployVerticle(ServiceVerticle.class, getWorkDeploymentOptions("Service"))
+        vertx.deployVerticle(ServiceVerticle.class, getDeploymentOptions("Service"))
                 .onSuccess(id -> LOGGER.info("ServiceVerticle 重新部署成功，DB 相关服务已注册"))
                 .onFailure(e -> LOGGER.error("ServiceVerticle 重新部署失败", e));
     }
 
     /**
-     * deploy Verticle Options
+     * 按部署模式生成 Verticle 部署参数
      *
      * @param name the worker pool name
      * @return Deployment Options
      */
-    private DeploymentOptions getWorkDeploymentOptions(String name) {
-        return getWorkDeploymentOptions(name, customConfig.getInteger(ASYNC_SERVICE_INSTANCES));
+    private DeploymentOptions getDeploymentOptions(String name) {
+        return getDeploymentOptions(name, customConfig.getInteger(ASYNC_SERVICE_INSTANCES));
     }
 
+    /**
+     * @param name           the worker pool name
+     * @param workerInstances worker 模式下的实例数
+     */
+    private DeploymentOptions getDeploymentOptions(String name, int workerInstances) {
+        if (eventLoopMode) {
+            return new DeploymentOptions()
+                    .setThreadingModel(ThreadingModel.EVENT_LOOP)
+                    .setInstances(eventLoopInstances);
+        }
+        return getWorkDeploymentOptions(name, workerInstances);
+    }
+
+    /**
+     * deploy Verticle Options
+     *
+     * @param name the worker pool name
+     * @param ins  instances
+     * @return Deployment Options
+     */
     private DeploymentOptions getWorkDeploymentOptions(String name, int ins) {
         return new DeploymentOptions()
                 .setWorkerPoolName(name)
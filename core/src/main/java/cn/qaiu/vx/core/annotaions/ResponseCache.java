@@ -0,0 +1,34 @@
+package cn.qaiu.vx.core.annotaions;
+
+import java.lang.annotation.*;
+
+/**
+ * 路由响应缓存, 与 {@link RouteMapping} 一起使用
+ * <p>
+ * 成功响应(状态码200)的 JSON 序列化结果按 请求路径 + vary 参数 + varyHeaders 请求头 缓存 ttl 秒，
+ * 期间不再调用处理方法。响应带 ETag 和 Cache-Control, If-None-Match 匹配时返回 304。
+ * 命中缓存时不执行后置拦截器；处理方法内的权限校验等逻辑也会被跳过，需要区分用户时把相关请求头加入 varyHeaders。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ResponseCache {
+
+    /**
+     * 缓存时间(秒)
+     */
+    int ttl() default 60;
+
+    /**
+     * 参与缓存key的请求参数名
+     */
+    String[] vary() default {};
+
+    /**
+     * 参与缓存key的请求头, 同时写入响应头 Vary, 设置后 Cache-Control 为 private
+     */
+    String[] varyHeaders() default {};
+}
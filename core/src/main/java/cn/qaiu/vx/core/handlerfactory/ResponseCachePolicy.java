@@ -0,0 +1,122 @@
+package cn.qaiu.vx.core.handlerfactory;
+
+import cn.qaiu.vx.core.annotaions.ResponseCache;
+import cn.qaiu.vx.core.util.ResponseUtil;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个路由的响应缓存, 由 {@link ResponseCache} 注解生成
+ * <p>
+ * 缓存已序列化的响应体和 ETag。ETag 按去掉 timestamp 字段后的内容计算，
+ * 缓存过期重新计算后数据未变化时 ETag 不变，客户端仍可得到 304。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class ResponseCachePolicy {
+
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+
+    /**
+     * 单个路由最多缓存的key数量, 超出时整体清空
+     */
+    private static final int MAX_ENTRIES = 1024;
+
+    private final long ttlMillis;
+    private final String[] vary;
+    private final String[] varyHeaders;
+    private final String cacheScope;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private ResponseCachePolicy(ResponseCache cache) {
+        this.ttlMillis = Math.max(1, cache.ttl()) * 1000L;
+        this.vary = cache.vary();
+        this.varyHeaders = cache.varyHeaders();
+        this.cacheScope = varyHeaders.length == 0 ? "public" : "private";
+    }
+
+    /**
+     * @param cache 注解, 为空时返回 null
+     */
+    public static ResponseCachePolicy of(ResponseCache cache) {
+        return cache == null ? null : new ResponseCachePolicy(cache);
+    }
+
+    /**
+     * 缓存未过期时直接响应
+     *
+     * @return 是否已响应
+     */
+    public boolean tryServe(RoutingContext ctx) {
+        String key = key(ctx);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expireAt <= now) {
+            entries.remove(key, entry);
+            return false;
+        }
+        send(ctx, entry, now);
+        return true;
+    }
+
+    /**
+     * 缓存处理方法的成功结果并响应
+     */
+    public void respond(RoutingContext ctx, JsonObject json) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(json.encode(), etag(json), now + ttlMillis);
+        entries.put(key(ctx), entry);
+        if (entries.size() > MAX_ENTRIES) {
+            entries.clear();
+        }
+        send(ctx, entry, now);
+    }
+
+    private void send(RoutingContext ctx, Entry entry, long now) {
+        if (varyHeaders.length > 0) {
+            ctx.response().putHeader("Vary", String.join(", ", varyHeaders));
+        }
+        long maxAge = Math.max(0, (entry.expireAt - now) / 1000);
+        ResponseUtil.fireCacheableResponse(ctx, CONTENT_TYPE, entry.body, entry.etag,
+                cacheScope + ", max-age=" + maxAge);
+    }
+
+    private String key(RoutingContext ctx) {
+        StringBuilder key = new StringBuilder(ctx.request().path());
+        for (String name : vary) {
+            key.append('\n').append(name).append('=').append(nullToEmpty(ctx.request().getParam(name)));
+        }
+        for (String name : varyHeaders) {
+            key.append('\n').append(name).append(':').append(nullToEmpty(ctx.request().getHeader(name)));
+        }
+        return key.toString();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String etag(JsonObject json) {
+        return ResponseUtil.strongEtag(json.containsKey("timestamp")
+                ? json.copy().put("timestamp", 0).encode() : json.encode());
+    }
+
+    private static final class Entry {
+        final String body;
+        final String etag;
+        final long expireAt;
+
+        Entry(String body, String etag, long expireAt) {
+            this.body = body;
+            this.etag = etag;
+            this.expireAt = expireAt;
+        }
+    }
+}
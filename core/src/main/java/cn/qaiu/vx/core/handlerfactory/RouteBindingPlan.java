@@ -0,0 +1,263 @@
+package cn.qaiu.vx.core.handlerfactory;
+
+import cn.qaiu.vx.core.annotaions.DateFormat;
+import cn.qaiu.vx.core.util.CommonUtil;
+import cn.qaiu.vx.core.util.ParamUtil;
+import cn.qaiu.vx.core.util.ReflectionUtil;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import javassist.CtClass;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路由处理方法的参数绑定计划
+ * <p>
+ * 注册路由时一次性读取处理方法的参数名、类型和注解(Javassist)，确定每个参数的绑定方式，
+ * 匹配实体类包名并预先生成 MethodHandle。请求时只按计划取值、转换和调用，
+ * 不再访问 ClassPool、共享配置，也不再重复正则匹配实体类包名。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class RouteBindingPlan {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RouteBindingPlan.class);
+
+    private static final String APPLICATION_JSON = HttpHeaderValues.APPLICATION_JSON.toString();
+
+    /**
+     * 参数绑定方式
+     */
+    enum Kind {
+        BASIC, BASIC_ARRAY, ROUTING_CONTEXT, REQUEST, RESPONSE, JSON_OBJECT, JSON_ARRAY, ENTITY, OTHER
+    }
+
+    private final Param[] params;
+    private final MethodHandle invoker;
+
+    private RouteBindingPlan(Param[] params, MethodHandle invoker) {
+        this.params = params;
+        this.invoker = invoker;
+    }
+
+    /**
+     * 生成绑定计划
+     *
+     * @param instance          处理类实例
+     * @param method            处理方法
+     * @param entityPackagesReg 实体类包名正则列表, 可为空
+     */
+    public static RouteBindingPlan of(Object instance, Method method, List<?> entityPackagesReg) throws IllegalAccessException {
+        Map<String, Pair<Annotation[], CtClass>> methodParameters = ReflectionUtil.getMethodParameter(method);
+        Param[] params = new Param[methodParameters.size()];
+        int i = 0;
+        for (Map.Entry<String, Pair<Annotation[], CtClass>> entry : methodParameters.entrySet()) {
+            params[i++] = Param.of(entry.getKey(), entry.getValue().getLeft(), entry.getValue().getRight(),
+                    entityPackagesReg);
+        }
+        MethodHandle invoker = MethodHandles.lookup().unreflect(method).bindTo(instance)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new RouteBindingPlan(params, invoker);
+    }
+
+    public int parameterCount() {
+        return params.length;
+    }
+
+    /**
+     * 按计划从请求中取出处理方法的参数值
+     */
+    public Object[] bindArguments(RoutingContext ctx) {
+        Object[] values = new Object[params.length];
+        boolean[] pathBound = new boolean[params.length];
+
+        // 绑定rest路径变量
+        Map<String, String> pathParamValues = ctx.pathParams();
+        if (!pathParamValues.isEmpty()) {
+            for (int i = 0; i < params.length; i++) {
+                Param param = params[i];
+                if (!pathParamValues.containsKey(param.name)) {
+                    continue;
+                }
+                pathBound[i] = true;
+                if (param.kind == Kind.BASIC) {
+                    values[i] = ReflectionUtil.conversion(param.type, pathParamValues.get(param.name), param.fmt);
+                } else if (param.kind == Kind.BASIC_ARRAY) {
+                    values[i] = ReflectionUtil.conversionArray(param.type, pathParamValues.get(param.name));
+                } else {
+                    throw new RuntimeException("参数绑定异常: 类型不匹配");
+                }
+            }
+        }
+
+        final MultiMap queryParams = ctx.queryParams();
+        // 解析body-json参数
+        if (APPLICATION_JSON.equals(ctx.parsedHeaders().contentType().value())) {
+            JsonObject body = ctx.body().asJsonObject();
+            if (body != null) {
+                for (int i = 0; i < params.length; i++) {
+                    Param param = params[i];
+                    if (pathBound[i]) {
+                        continue;
+                    }
+                    if (param.kind == Kind.JSON_OBJECT) {
+                        // 直接绑定 JsonObject 类型参数
+                        values[i] = body;
+                    } else if (param.kind == Kind.ENTITY) {
+                        // 只解析已配置包名前缀的实体类
+                        JsonObject data = CommonUtil.getSubJsonForEntity(body, param.entityClass);
+                        if (!data.isEmpty()) {
+                            values[i] = data.mapTo(param.entityClass);
+                        }
+                    }
+                }
+            } else {
+                // body 可能是 JsonArray
+                JsonArray bodyArray = ctx.body().asJsonArray();
+                if (bodyArray != null) {
+                    for (int i = 0; i < params.length; i++) {
+                        if (!pathBound[i] && params[i].kind == Kind.JSON_ARRAY) {
+                            values[i] = bodyArray;
+                        }
+                    }
+                }
+            }
+        } else if (ctx.body() != null) {
+            queryParams.addAll(ParamUtil.paramsToMap(ctx.body().asString()));
+        }
+
+        // 解析其他参数
+        if ("POST".equals(ctx.request().method().name())) {
+            queryParams.addAll(ctx.request().params());
+        }
+        // 绑定get或post请求头的请求参数
+        for (int i = 0; i < params.length; i++) {
+            if (pathBound[i]) {
+                continue;
+            }
+            Param param = params[i];
+            switch (param.kind) {
+                case BASIC -> values[i] = ReflectionUtil.conversion(param.type, queryParams.get(param.name), param.fmt);
+                case ROUTING_CONTEXT -> values[i] = ctx;
+                case REQUEST -> values[i] = ctx.request();
+                case RESPONSE -> values[i] = ctx.response();
+                case ENTITY -> {
+                    if (values[i] == null) {
+                        // 绑定实体类
+                        try {
+                            values[i] = ParamUtil.multiMapToEntity(queryParams, param.entityClass);
+                        } catch (Exception e) {
+                            LOGGER.error("参数绑定异常: {}", param.type.getName(), e);
+                        }
+                    }
+                }
+                case JSON_OBJECT -> {
+                    // 兜底: content-type 非 application/json 时尝试从 body 解析 JsonObject
+                    if (values[i] == null && ctx.body() != null) {
+                        values[i] = ctx.body().asJsonObject();
+                    }
+                }
+                case JSON_ARRAY -> {
+                    // 兜底: content-type 非 application/json 时尝试从 body 解析 JsonArray
+                    if (values[i] == null && ctx.body() != null) {
+                        values[i] = ctx.body().asJsonArray();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 调用处理方法
+     */
+    public Object invoke(Object[] arguments) throws Throwable {
+        return (Object) invoker.invokeExact(arguments);
+    }
+
+    /**
+     * 单个参数的绑定信息
+     */
+    private static final class Param {
+        final String name;
+        final CtClass type;
+        final String fmt;
+        final Kind kind;
+        final Class<?> entityClass;
+
+        private Param(String name, CtClass type, String fmt, Kind kind, Class<?> entityClass) {
+            this.name = name;
+            this.type = type;
+            this.fmt = fmt;
+            this.kind = kind;
+            this.entityClass = entityClass;
+        }
+
+        static Param of(String name, Annotation[] annotations, CtClass type, List<?> entityPackagesReg) {
+            String typeName = type.getName();
+            if (ReflectionUtil.isBasicType(type)) {
+                return new Param(name, type, getFmt(annotations, type), Kind.BASIC, null);
+            }
+            if (ReflectionUtil.isBasicTypeArray(type)) {
+                return new Param(name, type, "", Kind.BASIC_ARRAY, null);
+            }
+            if (RoutingContext.class.getName().equals(typeName)) {
+                return new Param(name, type, "", Kind.ROUTING_CONTEXT, null);
+            }
+            if (HttpServerRequest.class.getName().equals(typeName)) {
+                return new Param(name, type, "", Kind.REQUEST, null);
+            }
+            if (HttpServerResponse.class.getName().equals(typeName)) {
+                return new Param(name, type, "", Kind.RESPONSE, null);
+            }
+            if (JsonObject.class.getName().equals(typeName)) {
+                return new Param(name, type, "", Kind.JSON_OBJECT, null);
+            }
+            if (JsonArray.class.getName().equals(typeName)) {
+                return new Param(name, type, "", Kind.JSON_ARRAY, null);
+            }
+            if (entityPackagesReg != null && CommonUtil.matchRegList(entityPackagesReg, typeName)) {
+                try {
+                    return new Param(name, type, "", Kind.ENTITY, Class.forName(typeName));
+                } catch (ClassNotFoundException e) {
+                    LOGGER.error("实体类绑定异常: {}", typeName, e);
+                }
+            }
+            return new Param(name, type, "", Kind.OTHER, null);
+        }
+
+        /**
+         * 获取DateFormat注解值
+         */
+        private static String getFmt(Annotation[] parameterAnnotations, CtClass type) {
+            String fmt = "";
+            if (Date.class.getName().equals(type.getName())) {
+                for (Annotation annotation : parameterAnnotations) {
+                    if (annotation instanceof DateFormat) {
+                        fmt = ((DateFormat) annotation).value();
+                    }
+                }
+            }
+            return fmt;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package cn.qaiu.vx.core.handlerfactory;
 
-import cn.qaiu.vx.core.annotaions.DateFormat;
+import cn.qaiu.vx.core.annotaions.ResponseCache;
 import cn.qaiu.vx.core.annotaions.RouteHandler;
 import cn.qaiu.vx.core.annotaions.RouteMapping;
 import cn.qaiu.vx.core.annotaions.SockRouteMapper;
@@ -8,13 +8,9 @@ import cn.qaiu.vx.core.base.BaseHttpApi;
 import cn.qaiu.vx.core.interceptor.BeforeInterceptor;
 import cn.qaiu.vx.core.model.JsonResult;
 import cn.qaiu.vx.core.util.*;
-import io.netty.handler.codec.http.HttpHeaderValues;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
-import io.vertx.core.MultiMap;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.http.HttpServerRequest;
-import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Route;
@@ -23,14 +19,10 @@ import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.*;
 import io.vertx.ext.web.handler.sockjs.SockJSHandler;
 import io.vertx.ext.web.handler.sockjs.SockJSHandlerOptions;
-import javassist.CtClass;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -143,6 +135,7 @@ public class RouterHandlerFactory implements BaseHttpApi {
     private void registerNewHandler(Router router, Class<?> handler) throws Throwable {
         String root = getRootPath(handler);
         Object instance = ReflectionUtil.newWithNoParam(handler);
+        JsonArray entityPackagesReg = SharedDataUtil.getJsonArrayForCustomConfig("entityPackagesReg");
         Method[] methods = handler.getMethods();
         // 注册处理方法排序
         Comparator<Method> comparator = (m1, m2) -> {
@@ -177,7 +170,20 @@ public class RouterHandlerFactory implements BaseHttpApi {
                 // 设置默认超时
                 route.handler(TimeoutHandler.create(SharedDataUtil.getCustomConfig().getInteger(ROUTE_TIME_OUT)));
                 route.handler(ResponseTimeHandler.create());
-                route.handler(ctx -> handlerMethod(instance, method, ctx)).failureHandler(ctx -> {
+                RouteBindingPlan plan = RouteBindingPlan.of(instance, method,
+                        entityPackagesReg == null ? null : entityPackagesReg.getList());
+                // 响应缓存
+                ResponseCache responseCache = method.getAnnotation(ResponseCache.class);
+                ResponseCachePolicy cache = ResponseCachePolicy.of(responseCache);
+                if (responseCache != null) {
+                    LOGGER.info("route -> {} response cache ttl {}s", url, responseCache.ttl());
+                }
+                route.handler(ctx -> {
+                    if (cache != null && cache.tryServe(ctx)) {
+                        return;
+                    }
+                    handlerMethod(plan, cache, ctx);
+                }).failureHandler(ctx -> {
                     if (isResponseDone(ctx)) return;
                     // 超时处理器状态码503
                     if (ctx.statusCode() == 503 || ctx.failure() == null) {
@@ -271,134 +277,23 @@ public class RouterHandlerFactory implements BaseHttpApi {
     }
 
     /**
-     * 处理请求-参数绑定
+     * 处理请求-按绑定计划绑定参数并调用处理方法
      *
-     * @param instance 类实例
-     * @param method   处理方法
-     * @param ctx      路由上下文
+     * @param plan  注册时生成的参数绑定计划
+     * @param cache 响应缓存, 未配置时为空
+     * @param ctx   路由上下文
      */
-    private void handlerMethod(Object instance, Method method, RoutingContext ctx) {
-        // 方法参数名列表
-        Map<String, Pair<Annotation[], CtClass>> methodParameters = ReflectionUtil.getMethodParameter(method);
-        Map<String, Pair<Annotation[], CtClass>> methodParametersTemp = new LinkedHashMap<>(methodParameters);
-        Map<String, String> pathParamValues = ctx.pathParams();
-
-        // 参数名-参数值
-        Map<String, Object> parameterValueList = new LinkedHashMap<>();
-        methodParameters.forEach((k, v) -> parameterValueList.put(k, null));
-
-        //绑定rest路径变量
-        if (!pathParamValues.isEmpty()) {
-            methodParameters.forEach((k, v) -> {
-                if (pathParamValues.containsKey(k)) {
-                    methodParametersTemp.remove(k);
-                    if (ReflectionUtil.isBasicType(v.getRight())) {
-                        String fmt = getFmt(v.getLeft(), v.getRight());
-                        parameterValueList.put(k, ReflectionUtil.conversion(v.getRight(), pathParamValues.get(k), fmt));
-                    } else if (ReflectionUtil.isBasicTypeArray(v.getRight())) {
-                        parameterValueList.put(k, ReflectionUtil.conversionArray(v.getRight(), pathParamValues.get(k)));
-                    } else {
-                        throw new RuntimeException("参数绑定异常: 类型不匹配");
-                    }
-                }
-            });
-        }
-
-        JsonArray entityPackagesReg = SharedDataUtil.getJsonArrayForCustomConfig("entityPackagesReg");
-
-        final MultiMap queryParams = ctx.queryParams();
-        // 解析body-json参数
-        if (HttpHeaderValues.APPLICATION_JSON.toString().equals(ctx.parsedHeaders().contentType().value())) {
-            JsonObject body = ctx.body().asJsonObject();
-            if (body != null) {
-                methodParametersTemp.forEach((k, v) -> {
-                    String typeName = v.getRight().getName();
-                    // 直接绑定 JsonObject 类型参数
-                    if (JsonObject.class.getName().equals(typeName)) {
-                        parameterValueList.put(k, body);
-                    }
-                    // 只解析已配置包名前缀的实体类
-                    else if (CommonUtil.matchRegList(entityPackagesReg.getList(), typeName)) {
-                        try {
-                            Class<?> aClass = Class.forName(typeName);
-                            JsonObject data = CommonUtil.getSubJsonForEntity(body, aClass);
-                            if (!data.isEmpty()) {
-                                Object entity = data.mapTo(aClass);
-                                parameterValueList.put(k, entity);
-                            }
-                        } catch (ClassNotFoundException e) {
-                            LOGGER.error("实体类绑定异常: {}", typeName, e);
-                        }
-                    }
-                });
-            } else {
-                // body 可能是 JsonArray
-                JsonArray bodyArray = ctx.body().asJsonArray();
-                if (bodyArray != null) {
-                    methodParametersTemp.forEach((k, v) -> {
-                        if (JsonArray.class.getName().equals(v.getRight().getName())) {
-                            parameterValueList.put(k, bodyArray);
-                        }
-                    });
-                }
-            }
-        } else if (ctx.body() != null) {
-            queryParams.addAll(ParamUtil.paramsToMap(ctx.body().asString()));
-        }
-
-        // 解析其他参数
-        if ("POST".equals(ctx.request().method().name())) {
-            queryParams.addAll(ctx.request().params());
-        }
-        // 绑定get或post请求头的请求参数
-        methodParametersTemp.forEach((k, v) -> {
-            if (ReflectionUtil.isBasicType(v.getRight())) {
-                String fmt = getFmt(v.getLeft(), v.getRight());
-                String value = queryParams.get(k);
-                parameterValueList.put(k, ReflectionUtil.conversion(v.getRight(), value, fmt));
-            } else if (RoutingContext.class.getName().equals(v.getRight().getName())) {
-                parameterValueList.put(k, ctx);
-            } else if (HttpServerRequest.class.getName().equals(v.getRight().getName())) {
-                parameterValueList.put(k, ctx.request());
-            } else if (HttpServerResponse.class.getName().equals(v.getRight().getName())) {
-                parameterValueList.put(k, ctx.response());
-            } else if (parameterValueList.get(k) == null
-                    && CommonUtil.matchRegList(entityPackagesReg.getList(), v.getRight().getName())) {
-                // 绑定实体类
-                try {
-                    Class<?> aClass = Class.forName(v.getRight().getName());
-                    Object entity = ParamUtil.multiMapToEntity(queryParams, aClass);
-                    parameterValueList.put(k, entity);
-                } catch (Exception e) {
-                    LOGGER.error("参数绑定异常: {}", v.getRight().getName(), e);
-                }
-            } else if (parameterValueList.get(k) == null
-                    && JsonObject.class.getName().equals(v.getRight().getName())) {
-                // 兜底: content-type 非 application/json 时尝试从 body 解析 JsonObject
-                if (ctx.body() != null) {
-                    JsonObject jo = ctx.body().asJsonObject();
-                    if (jo != null) parameterValueList.put(k, jo);
-                }
-            } else if (parameterValueList.get(k) == null
-                    && JsonArray.class.getName().equals(v.getRight().getName())) {
-                // 兜底: content-type 非 application/json 时尝试从 body 解析 JsonArray
-                if (ctx.body() != null) {
-                    JsonArray ja = ctx.body().asJsonArray();
-                    if (ja != null) parameterValueList.put(k, ja);
-                }
-            }
-        });
-        // 调用handle 获取响应对象
-        Object[] parameterValueArray = parameterValueList.values().toArray(new Object[0]);
+    private void handlerMethod(RouteBindingPlan plan, ResponseCachePolicy cache, RoutingContext ctx) {
+        Object[] parameterValueArray = plan.bindArguments(ctx);
         try {
-            // 反射调用
-            Object data = ReflectionUtil.invokeWithArguments(method, instance, parameterValueArray);
+            // 调用handle 获取响应对象
+            Object data = plan.invoke(parameterValueArray);
             if (data != null) {
 
                 if (data instanceof JsonResult jsonResult) {
-                    doFireJsonResultResponse(ctx, (JsonResult<?>) data, jsonResult.getCode());
+                    fireResponse(ctx, cache, jsonResult.toJsonObject(), jsonResult.getCode());
                 } else if (data instanceof JsonObject) {
-                    doFireJsonObjectResponse(ctx, ((JsonObject) data));
+                    fireResponse(ctx, cache, (JsonObject) data, 200);
                 } else if (data instanceof Future) { // 处理异步响应
                     Future<?> responseFuture = (Future<?>) data;
                     AtomicReference<RoutingContext> ctxRef = new AtomicReference<>(ctx);
@@ -411,11 +306,11 @@ public class RouterHandlerFactory implements BaseHttpApi {
                         if (ar.succeeded()) {
                             Object res = ar.result();
                             if (res instanceof JsonResult jsonResult) {
-                                doFireJsonResultResponse(responseCtx, jsonResult, jsonResult.getCode());
+                                fireResponse(responseCtx, cache, jsonResult.toJsonObject(), jsonResult.getCode());
                             } else if (res instanceof JsonObject) {
-                                doFireJsonObjectResponse(responseCtx, ((JsonObject) res));
+                                fireResponse(responseCtx, cache, (JsonObject) res, 200);
                             } else if (res != null) {
-                                doFireJsonResultResponse(responseCtx, JsonResult.data(res));
+                                fireResponse(responseCtx, cache, JsonResult.data(res).toJsonObject(), 200);
                             } else {
                                 doFireJsonResultResponse(responseCtx, JsonResult.data(null));
                             }
@@ -427,7 +322,7 @@ public class RouterHandlerFactory implements BaseHttpApi {
                         }
                     });
                 } else {
-                    doFireJsonResultResponse(ctx, JsonResult.data(data));
+                    fireResponse(ctx, cache, JsonResult.data(data).toJsonObject(), 200);
                 }
             }
         } catch (Throwable e) {
@@ -438,18 +333,17 @@ public class RouterHandlerFactory implements BaseHttpApi {
     }
 
     /**
-     * 获取DateFormat注解值
+     * 响应处理结果, 配置了响应缓存的路由缓存成功结果
      */
-    private String getFmt(Annotation[] parameterAnnotations, CtClass v) {
-        String fmt = "";
-        if (Date.class.getName().equals(v.getName())) {
-            for (Annotation annotation : parameterAnnotations) {
-                if (annotation instanceof DateFormat) {
-                    fmt = ((DateFormat) annotation).value();
-                }
-            }
+    private void fireResponse(RoutingContext ctx, ResponseCachePolicy cache, JsonObject json, int statusCode) {
+        if (cache == null || statusCode != 200 || Boolean.FALSE.equals(json.getValue("success"))) {
+            doFireJsonObjectResponse(ctx, json, statusCode);
+            return;
+        }
+        if (!isResponseDone(ctx)) {
+            cache.respond(ctx, json);
         }
-        return fmt;
+        handleAfterInterceptor(ctx, json);
     }
 
     private Set<BeforeInterceptor> getBeforeInterceptor() {
@@ -1,20 +1,125 @@
 package cn.qaiu.vx.core.util;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
 import io.vertx.serviceproxy.ServiceProxyBuilder;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.qaiu.vx.core.util.ConfigConstant.*;
+
 /**
+ * 异步服务获取
+ * <p>
+ * 默认返回 EventBus 服务代理。单机部署开启 custom.localServiceBinding 后，返回的代理优先直接调用
+ * ServiceVerticle 注册的本地服务实现，省去参数和结果经 EventBus 编解码的开销；本地实现尚未注册时仍走 EventBus。
+ * 直接调用时参数和结果不再复制，调用方不要在调用后修改传入的 JsonObject。集群模式下始终使用 EventBus。
+ * </p>
+ *
  * @author Xu Haidong
  * @date 2018/8/15
  */
 public final class AsyncServiceUtil {
 
+    /**
+     * 本地服务实现: 服务接口 -> 实现实例
+     */
+    private static final Map<Class<?>, Object> LOCAL_SERVICES = new ConcurrentHashMap<>();
+
     public static <T> T getAsyncServiceInstance(Class<T> asClazz, Vertx vertx) {
-        String address = asClazz.getName();
-        return new ServiceProxyBuilder(vertx).setAddress(address).build(asClazz);
+        if (isLocalBindingEnabled(vertx)) {
+            return CastUtil.cast(Proxy.newProxyInstance(asClazz.getClassLoader(), new Class<?>[]{asClazz},
+                    new LocalFirstHandler<>(asClazz, vertx)));
+        }
+        return buildEventBusProxy(asClazz, vertx);
     }
 
     public static <T> T getAsyncServiceInstance(Class<T> asClazz) {
         return getAsyncServiceInstance(asClazz, VertxHolder.getVertxInstance());
     }
+
+    /**
+     * 是否开启本地直接调用: 非集群且 custom.localServiceBinding 为 true
+     */
+    public static boolean isLocalBindingEnabled(Vertx vertx) {
+        if (vertx == null || vertx.isClustered()) {
+            return false;
+        }
+        Object customConfig = vertx.sharedData().getLocalMap(LOCAL).get(CUSTOM_CONFIG);
+        return customConfig instanceof JsonObject
+                && ((JsonObject) customConfig).getBoolean(LOCAL_SERVICE_BINDING, false);
+    }
+
+    /**
+     * 注册本地服务实现，后注册的覆盖先注册的
+     *
+     * @param asClazz  服务接口
+     * @param instance 服务实现
+     */
+    public static void bindLocal(Class<?> asClazz, Object instance) {
+        LOCAL_SERVICES.put(asClazz, instance);
+    }
+
+    /**
+     * 移除本地服务实现，只移除仍指向该实例的注册
+     */
+    public static void unbindLocal(Class<?> asClazz, Object instance) {
+        LOCAL_SERVICES.remove(asClazz, instance);
+    }
+
+    private static <T> T buildEventBusProxy(Class<T> asClazz, Vertx vertx) {
+        String address = asClazz.getName();
+        return new ServiceProxyBuilder(vertx).setAddress(address).build(asClazz);
+    }
+
+    /**
+     * 优先调用本地实现，未注册时回退到 EventBus 代理(首次使用时创建)
+     */
+    private static final class LocalFirstHandler<T> implements InvocationHandler {
+        private final Class<T> asClazz;
+        private final Vertx vertx;
+        private volatile T eventBusProxy;
+
+        LocalFirstHandler(Class<T> asClazz, Vertx vertx) {
+            this.asClazz = asClazz;
+            this.vertx = vertx;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object target = LOCAL_SERVICES.get(asClazz);
+            if (target == null) {
+                target = eventBusProxy();
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                // 与事件总线代理一致, 返回 Future 的方法以失败的 Future 返回异常
+                if (Future.class.isAssignableFrom(method.getReturnType())) {
+                    return Future.failedFuture(e.getCause());
+                }
+                throw e.getCause();
+            }
+        }
+
+        private T eventBusProxy() {
+            T p = eventBusProxy;
+            if (p == null) {
+                synchronized (this) {
+                    p = eventBusProxy;
+                    if (p == null) {
+                        p = buildEventBusProxy(asClazz, vertx);
+                        eventBusProxy = p;
+                    }
+                }
+            }
+            return p;
+        }
+    }
 }
@@ -16,8 +16,14 @@ public interface ConfigConstant {
     String GLOBAL_CONFIG = "globalConfig";
     String CUSTOM_CONFIG = "customConfig";
     String ASYNC_SERVICE_INSTANCES = "asyncServiceInstances";
+    String DEPLOY_MODE = "deployMode";
+    String DEPLOY_MODE_EVENT_LOOP = "eventLoop";
+    String EVENT_LOOP_INSTANCES = "eventLoopInstances";
+    String LOCAL_SERVICE_BINDING = "localServiceBinding";
     String IGNORES_REG="ignoresReg";
     String BASE_LOCATIONS="baseLocations";
 
     String ROUTE_TIME_OUT="routeTimeOut";
+
+    String METRICS = "metrics";
 }
@@ -0,0 +1,134 @@
+package cn.qaiu.vx.core.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.micrometer.Label;
+import io.vertx.micrometer.MicrometerMetricsOptions;
+import io.vertx.micrometer.PrometheusScrapingHandler;
+import io.vertx.micrometer.VertxPrometheusOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 指标(Micrometer + Prometheus)
+ * <p>
+ * 开启后 Vert.x 自动采集 HTTP 服务端/客户端(按上游 host)、工作线程池、数据源连接池等指标，
+ * 业务指标通过 {@link #registry()} 注册，Prometheus 从 RouterVerticle 暴露的 path 拉取。
+ * 未开启时 {@link #registry()} 返回空的组合注册表，注册的指标不做任何记录。
+ * </p>
+ * 配置示例:
+ * <pre>
+ * metrics:
+ *   enabled: true
+ *   path: /metrics
+ *   jvm: true
+ *   eventLoopLagInterval: 1000
+ * </pre>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class MetricsUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsUtil.class);
+
+    private static final MeterRegistry NOOP_REGISTRY = new CompositeMeterRegistry();
+
+    private static volatile JsonObject config = new JsonObject();
+
+    private MetricsUtil() {}
+
+    /**
+     * 读取 metrics 配置，需在创建 Vertx 之前调用
+     *
+     * @param metricsConfig metrics 配置, 可为空
+     * @return 开启时返回 Vert.x 指标参数，否则返回null
+     */
+    public static MicrometerMetricsOptions init(JsonObject metricsConfig) {
+        config = metricsConfig == null ? new JsonObject() : metricsConfig.copy();
+        if (!isEnabled()) {
+            return null;
+        }
+        LOGGER.info("指标采集已开启, Prometheus 拉取路径: {}", getPath());
+        return new MicrometerMetricsOptions()
+                .setEnabled(true)
+                .setJvmMetricsEnabled(config.getBoolean("jvm", true))
+                .setPrometheusOptions(new VertxPrometheusOptions()
+                        .setEnabled(true)
+                        .setPublishQuantiles(true))
+                // 不启用 HTTP_PATH，避免分享链接等路径参数导致标签基数失控
+                .setLabels(EnumSet.of(Label.HTTP_METHOD, Label.HTTP_CODE, Label.HTTP_ROUTE, Label.REMOTE,
+                        Label.POOL_TYPE, Label.POOL_NAME));
+    }
+
+    public static boolean isEnabled() {
+        return config.getBoolean("enabled", false);
+    }
+
+    public static String getPath() {
+        return config.getString("path", "/metrics");
+    }
+
+    /**
+     * 指标注册表
+     */
+    public static MeterRegistry registry() {
+        if (!isEnabled()) {
+            return NOOP_REGISTRY;
+        }
+        MeterRegistry registry = BackendRegistries.getDefaultNow();
+        return registry == null ? NOOP_REGISTRY : registry;
+    }
+
+    /**
+     * 注册 Prometheus 拉取路由
+     */
+    public static void mountScrapeRoute(Router router) {
+        if (isEnabled()) {
+            router.get(getPath()).order(-1).handler(PrometheusScrapingHandler.create());
+        }
+    }
+
+    /**
+     * 启动 event loop 延迟探测：每个 event loop 上周期性定时，记录实际触发时间与预期的差值
+     *
+     * @param vertx             vertx
+     * @param eventLoopPoolSize event loop 线程数
+     */
+    public static void startEventLoopLagProbe(Vertx vertx, int eventLoopPoolSize) {
+        long interval = config.getLong("eventLoopLagInterval", 1000L);
+        if (!isEnabled() || interval <= 0) {
+            return;
+        }
+        MeterRegistry registry = registry();
+        for (int i = 0; i < eventLoopPoolSize; i++) {
+            // getOrCreateContext 在同一线程上总是返回同一个上下文, 这里每次新建, 依次绑定到 event loop 组中的下一个线程
+            Context context = ((VertxInternal) vertx).createEventLoopContext();
+            Timer timer = Timer.builder("nfd.event.loop.lag")
+                    .description("event loop 定时任务的触发延迟")
+                    .tag("loop", String.valueOf(i))
+                    .publishPercentiles(0.5, 0.99)
+                    .distributionStatisticExpiry(Duration.ofMinutes(1))
+                    .register(registry);
+            context.runOnContext(v -> scheduleLagProbe(vertx, timer, interval));
+        }
+    }
+
+    private static void scheduleLagProbe(Vertx vertx, Timer timer, long interval) {
+        long expected = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(interval);
+        vertx.setTimer(interval, id -> {
+            timer.record(Math.max(0, System.nanoTime() - expected), TimeUnit.NANOSECONDS);
+            scheduleLagProbe(vertx, timer, interval);
+        });
+    }
+}
@@ -7,6 +7,10 @@ import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
 import static io.vertx.core.http.HttpHeaders.CONTENT_TYPE;
 
 public class ResponseUtil {
@@ -74,6 +78,60 @@ public class ResponseUtil {
         ctx.response().putHeader(CONTENT_TYPE, "text/html; charset=utf-8").end(text);
     }
 
+    /**
+     * 发送带 ETag 的响应, 请求头 If-None-Match 匹配时返回 304
+     *
+     * @param contentType  响应类型
+     * @param body         响应内容
+     * @param etag         强 ETag(带引号)
+     * @param cacheControl Cache-Control, 可为空
+     */
+    public static void fireCacheableResponse(RoutingContext ctx, String contentType, String body, String etag,
+                                             String cacheControl) {
+        HttpServerResponse response = ctx.response();
+        if (response.ended() || response.closed()) {
+            return;
+        }
+        response.putHeader(HttpHeaders.ETAG, etag);
+        if (cacheControl != null) {
+            response.putHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        if (etagMatches(ctx.request().getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatusCode(304).end();
+            return;
+        }
+        response.putHeader(CONTENT_TYPE, contentType).setStatusCode(200).end(body);
+    }
+
+    /**
+     * 按内容 SHA-256 生成强 ETag
+     */
+    public static String strongEtag(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder("\"");
+            for (int i = 0; i < 12; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.equals("*") || t.equals(etag) || t.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static void sendError(RoutingContext ctx, int statusCode) {
         if (ctx.response().ended() || ctx.response().closed()) {
             return;
@@ -453,6 +453,10 @@ public class ReverseProxyVerticle extends AbstractVerticle {
         } else if (staticConf.containsKey("index")) {
             staticHandler.setIndexPage(staticConf.getString("index"));
         }
+        // 预压缩、强缓存的静态资源, 处理不了的交给 StaticHandler
+        if (staticConf.getBoolean("asset-cache", true) && !staticConf.getBoolean("directory-listing", false)) {
+            proxyRouter.route(path + "*").handler(new StaticAssetHandler(vertx, staticConf));
+        }
         proxyRouter.route(path + "*").handler(staticHandler);
     }
 
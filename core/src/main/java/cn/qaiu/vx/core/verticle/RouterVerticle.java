@@ -3,16 +3,24 @@ package cn.qaiu.vx.core.verticle;
 import cn.qaiu.vx.core.handlerfactory.RouterHandlerFactory;
 import cn.qaiu.vx.core.util.CommonUtil;
 import cn.qaiu.vx.core.util.JacksonConfig;
+import cn.qaiu.vx.core.util.MetricsUtil;
 import cn.qaiu.vx.core.util.SharedDataUtil;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
+import io.vertx.core.http.Http2Settings;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.PemKeyCertOptions;
 import io.vertx.ext.web.Router;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
+import static cn.qaiu.vx.core.util.ConfigConstant.SERVER;
+
 /**
  * Http服务 注册路由
  *
@@ -21,6 +29,11 @@ import org.slf4j.LoggerFactory;
 public class RouterVerticle extends AbstractVerticle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RouterVerticle.class);
+    /**
+     * 多实例共享同一端口，同一次部署只在第一个实例启动时检查端口占用。
+     * 按部署ID记录在本地共享数据中，停止后移除，重新部署时会再次检查
+     */
+    private static final String PORT_CHECKED_MAP = "routerPortChecked";
 
     private HttpServer server;
     private Router router;
@@ -39,30 +52,19 @@ public class RouterVerticle extends AbstractVerticle {
         LOGGER.info("To start listening to port {} ......", port);
 
         // 端口是否占用
-        if (CommonUtil.isPortUsing(port)) {
+        if (SharedDataUtil.getLocalMap(PORT_CHECKED_MAP).putIfAbsent(deploymentID(), true) == null
+                && CommonUtil.isPortUsing(port)) {
             throw new RuntimeException("Start fail: the '" + port + "' port is already in use...");
         }
-        HttpServerOptions options;
-        if (globalConfig.containsKey("http") && globalConfig.getValue("http") != null) {
-            options = new HttpServerOptions(globalConfig.getJsonObject("http"));
-        } else {
-            options = new HttpServerOptions();
-        }
+        JsonObject httpConfig = globalConfig.getValue("http") instanceof JsonObject
+                ? globalConfig.getJsonObject("http") : null;
+        HttpServerOptions options = createServerOptions(httpConfig, SharedDataUtil.getJsonConfig(SERVER));
         options.setPort(port);
-        
-        // 【优化】高并发服务器配置
-        options.setTcpKeepAlive(true)                     // TCP Keep-Alive
-               .setTcpNoDelay(true)                       // 禁用Nagle算法，降低延迟
-               .setCompressionSupported(true)             // 启用压缩
-               .setAcceptBacklog(50000)                   // 增加积压队列到50000，防止高并发时连接被拒绝
-               .setIdleTimeout(120)                       // 空闲超时120秒
-               .setTcpFastOpen(true)                      // 启用TCP Fast Open
-               .setTcpQuickAck(true)                      // 启用TCP Quick ACK
-               .setReuseAddress(true)                     // 允许地址重用
-               .setReusePort(true);                       // 允许端口重用
-        
+
         router = new RouterHandlerFactory(
                 SharedDataUtil.getJsonStringForServerConfig("contextPath")).createRouter();
+        // Prometheus 拉取路由
+        MetricsUtil.mountScrapeRoute(router);
         server = vertx.createHttpServer(options);
 
         server.requestHandler(router).listen()
@@ -70,8 +72,70 @@ public class RouterVerticle extends AbstractVerticle {
                 .onFailure(e -> startPromise.fail(e.getCause()));
     }
 
+    /**
+     * 生成HTTP服务参数, server 段中的配置覆盖全局 http 配置
+     * <pre>
+     * server:
+     *   http2: true              # HTTPS 时通过 ALPN 协商 HTTP/2
+     *   h2c: true                # 明文 HTTP/2(prior knowledge / Upgrade), 供负载均衡使用 HTTP/2 转发
+     *   http2MaxConcurrentStreams: 256
+     *   compressionLevel: 6      # 1-9, 0 关闭压缩
+     *   tcpNoDelay: true
+     *   tcpQuickAck: true
+     *   tcpFastOpen: true
+     *   acceptBacklog: 50000
+     *   idleTimeout: 120         # 秒
+     *   ssl:
+     *     enable: false
+     *     certPath: ssl/server.pem
+     *     keyPath: ssl/privkey.key
+     * </pre>
+     *
+     * @param httpConfig   全局 http 配置(HttpServerOptions), 可为空
+     * @param serverConfig server 配置
+     */
+    public static HttpServerOptions createServerOptions(JsonObject httpConfig, JsonObject serverConfig) {
+        HttpServerOptions options = httpConfig == null ? new HttpServerOptions() : new HttpServerOptions(httpConfig);
+        JsonObject conf = serverConfig == null ? new JsonObject() : serverConfig;
+
+        int compressionLevel = conf.getInteger("compressionLevel", HttpServerOptions.DEFAULT_COMPRESSION_LEVEL);
+        options.setTcpKeepAlive(true)
+               .setTcpNoDelay(conf.getBoolean("tcpNoDelay", true))
+               .setTcpQuickAck(conf.getBoolean("tcpQuickAck", true))
+               .setTcpFastOpen(conf.getBoolean("tcpFastOpen", true))
+               .setAcceptBacklog(conf.getInteger("acceptBacklog", 50000))
+               .setIdleTimeout(conf.getInteger("idleTimeout", 120))
+               .setCompressionSupported(compressionLevel > 0)
+               .setReuseAddress(true)
+               .setReusePort(true);
+        if (compressionLevel > 0) {
+            options.setCompressionLevel(Math.min(9, compressionLevel));
+        }
+
+        boolean http2 = conf.getBoolean("http2", true);
+        options.setHttp2ClearTextEnabled(http2 && conf.getBoolean("h2c", true))
+               .setInitialSettings(new Http2Settings()
+                       .setMaxConcurrentStreams(conf.getLong("http2MaxConcurrentStreams", 256L)));
+
+        JsonObject ssl = conf.getJsonObject("ssl");
+        if (ssl != null && ssl.getBoolean("enable", false)) {
+            options.setSsl(true)
+                   .setKeyCertOptions(new PemKeyCertOptions()
+                           .setCertPath(ssl.getString("certPath"))
+                           .setKeyPath(ssl.getString("keyPath")))
+                   .setUseAlpn(http2)
+                   .setAlpnVersions(http2 ? List.of(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1)
+                           : List.of(HttpVersion.HTTP_1_1));
+        }
+        LOGGER.info("HTTP server: ssl={}, http2={}, h2c={}, compressionLevel={}, acceptBacklog={}, idleTimeout={}s",
+                options.isSsl(), http2, options.isHttp2ClearTextEnabled(), compressionLevel,
+                options.getAcceptBacklog(), options.getIdleTimeout());
+        return options;
+    }
+
     @Override
     public void stop(Promise<Void> stopPromise) {
+        SharedDataUtil.getLocalMap(PORT_CHECKED_MAP).remove(deploymentID());
         if (server == null) {
             stopPromise.complete();
             return;
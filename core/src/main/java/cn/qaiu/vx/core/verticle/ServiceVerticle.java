@@ -2,6 +2,7 @@ package cn.qaiu.vx.core.verticle;
 
 import cn.qaiu.vx.core.annotaions.Service;
 import cn.qaiu.vx.core.base.BaseAsyncService;
+import cn.qaiu.vx.core.util.AsyncServiceUtil;
 import cn.qaiu.vx.core.util.ReflectionUtil;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
@@ -13,7 +14,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -29,6 +32,7 @@ public class ServiceVerticle extends AbstractVerticle {
     private static final AtomicInteger ID = new AtomicInteger(1);
     private static final Set<Class<?>> handlers;
     private final List<MessageConsumer<JsonObject>> consumers = new ArrayList<>();
+    private final Map<Class<?>, Object> localServices = new HashMap<>();
 
     static {
         Reflections reflections = ReflectionUtil.getReflections();
@@ -37,6 +41,7 @@ public class ServiceVerticle extends AbstractVerticle {
     @Override
     public void start(Promise<Void> startPromise) {
         ServiceBinder binder = new ServiceBinder(vertx);
+        boolean localBinding = AsyncServiceUtil.isLocalBindingEnabled(vertx);
         if (null != handlers && handlers.size() > 0) {
             // handlers转为拼接类列表，xxx,yyy,zzz
             StringBuilder serviceNames = new StringBuilder();
@@ -48,6 +53,11 @@ public class ServiceVerticle extends AbstractVerticle {
                     MessageConsumer<JsonObject> consumer = binder.setAddress(address)
                             .register(asInstance.getAsyncInterfaceClass(), asInstance);
                     consumers.add(consumer);
+                    if (localBinding) {
+                        // 单机部署: 同时注册为本地实现，调用方直接调用，不经过 EventBus
+                        AsyncServiceUtil.bindLocal(asInstance.getAsyncInterfaceClass(), asInstance);
+                        localServices.put(asInstance.getAsyncInterfaceClass(), asInstance);
+                    }
                 } catch (Exception e) {
                     LOGGER.error("Failed to register service: {}", asyncService.getName(), e);
                 }
@@ -69,6 +79,8 @@ public class ServiceVerticle extends AbstractVerticle {
             }
         });
         consumers.clear();
+        localServices.forEach(AsyncServiceUtil::unbindLocal);
+        localServices.clear();
         LOGGER.info("ServiceVerticle stopped, unregistered {} services", count);
         stopPromise.complete();
     }
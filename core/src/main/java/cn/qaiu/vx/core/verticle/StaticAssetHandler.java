@@ -0,0 +1,426 @@
+package cn.qaiu.vx.core.verticle;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.FileProps;
+import io.vertx.core.file.FileSystem;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.http.impl.MimeMapping;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 前端静态资源处理器，挂在 StaticHandler 之前
+ * <ul>
+ *   <li>按 Accept-Encoding 优先返回构建时生成的 .br / .gz 同名文件，不再实时压缩</li>
+ *   <li>文件名带内容 hash 的资源(如 app.3f2a1b9c.js)返回一年的 immutable 缓存，其余(index.html 等)每次协商</li>
+ *   <li>强 ETag / Last-Modified，条件请求返回 304</li>
+ *   <li>文件元数据和小文件内容缓存在内存，cache-entry-timeout 内不再读取磁盘</li>
+ * </ul>
+ * 文件不存在、Range 请求、目录列表等情况交给后面的 StaticHandler 处理。
+ * 配置项(proxy.static 下):
+ * <pre>
+ * precompressed: true
+ * immutable-pattern: '.*[.-][0-9a-f]{8,}\.[a-z0-9]+$'
+ * max-age: 31536000
+ * cache-entry-timeout: 30000
+ * memory-cache-max-file-size: 262144
+ * memory-cache-size: 33554432
+ * </pre>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public class StaticAssetHandler implements Handler<RoutingContext> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StaticAssetHandler.class);
+
+    private static final String DEFAULT_IMMUTABLE_PATTERN = ".*[.-][0-9a-f]{8,}\\.[a-z0-9]+$";
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    private static final int MAX_ENTRIES = 4096;
+
+    /**
+     * 预压缩文件允许比原文件早的时间。构建复制文件时不保留修改时间，同一次构建的文件先后顺序不定
+     */
+    private static final long VARIANT_MTIME_TOLERANCE = 10 * 60 * 1000L;
+
+    private final FileSystem fs;
+    private final String root;
+    private final String prefix;
+    private final String indexPage;
+    private final boolean precompressed;
+    private final Pattern immutablePattern;
+    private final long maxAge;
+    private final long entryTimeout;
+    private final long maxFileSize;
+    private final long memoryCacheSize;
+
+    /**
+     * 相对路径 -> 资源
+     */
+    private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+
+    public StaticAssetHandler(Vertx vertx, JsonObject staticConf) {
+        this.fs = vertx.fileSystem();
+        String r = staticConf.getString("root", "webroot");
+        this.root = r.endsWith("/") ? r : r + "/";
+        String p = staticConf.getString("path", "/");
+        this.prefix = p.endsWith("/") ? p : p + "/";
+        this.indexPage = staticConf.getString("index", "index.html").replaceFirst("^/", "");
+        this.precompressed = staticConf.getBoolean("precompressed", true);
+        this.immutablePattern = Pattern.compile(staticConf.getString("immutable-pattern", DEFAULT_IMMUTABLE_PATTERN));
+        this.maxAge = staticConf.getLong("max-age", 31536000L);
+        this.entryTimeout = staticConf.getLong("cache-entry-timeout", 30000L);
+        this.maxFileSize = staticConf.getLong("memory-cache-max-file-size", 256 * 1024L);
+        this.memoryCacheSize = staticConf.getLong("memory-cache-size", 32 * 1024 * 1024L);
+        LOGGER.info("静态资源: root={}, precompressed={}, max-age={}s, memory-cache-size={}KB",
+                root, precompressed, maxAge, memoryCacheSize / 1024);
+    }
+
+    @Override
+    public void handle(RoutingContext ctx) {
+        HttpServerRequest request = ctx.request();
+        if ((request.method() != HttpMethod.GET && request.method() != HttpMethod.HEAD)
+                || request.headers().contains("Range")) {
+            ctx.next();
+            return;
+        }
+        String rel = relativePath(ctx.normalizedPath());
+        if (rel == null) {
+            ctx.next();
+            return;
+        }
+        Asset asset = assets.get(rel);
+        long now = System.currentTimeMillis();
+        if (asset != null && now - asset.checkedAt < entryTimeout) {
+            send(ctx, asset);
+            return;
+        }
+        load(rel, asset, now).onComplete(ar -> {
+            if (ar.succeeded() && ar.result() != null) {
+                send(ctx, ar.result());
+            } else {
+                if (ar.failed()) {
+                    LOGGER.debug("读取静态资源失败: {}", rel, ar.cause());
+                }
+                ctx.next();
+            }
+        });
+    }
+
+    /**
+     * 请求路径转为 root 下的相对路径，目录指向 index 页，不安全或需要解码的路径返回 null
+     */
+    String relativePath(String path) {
+        if (path == null || !path.startsWith(prefix) && !path.equals(prefix.substring(0, prefix.length() - 1))) {
+            return null;
+        }
+        String rel = path.length() > prefix.length() ? path.substring(prefix.length()) : "";
+        if (rel.isEmpty() || rel.endsWith("/")) {
+            rel = rel + indexPage;
+        }
+        if (rel.contains("..") || rel.contains("\\") || rel.contains("%") || rel.contains(":")
+                || rel.startsWith("/")) {
+            return null;
+        }
+        return rel;
+    }
+
+    private Future<Asset> load(String rel, Asset previous, long now) {
+        String file = root + rel;
+        return fs.props(file).compose(props -> {
+            if (!props.isRegularFile()) {
+                return Future.succeededFuture(null);
+            }
+            if (previous != null && previous.size == props.size() && previous.lastModified == props.lastModifiedTime()) {
+                // 未修改，只刷新检查时间
+                previous.checkedAt = now;
+                return Future.succeededFuture(previous);
+            }
+            Future<Variant> br = precompressed ? variant(file + ".br", "br", props) : Future.succeededFuture();
+            Future<Variant> gz = precompressed ? variant(file + ".gz", "gzip", props) : Future.succeededFuture();
+            Future<Buffer> content = readIfSmall(file, props.size());
+            return Future.all(br, gz, content).map(v -> {
+                Asset asset = new Asset(rel, file, props, br.result(), gz.result(), content.result(),
+                        immutablePattern.matcher(rel).matches(), now);
+                put(rel, asset);
+                return asset;
+            });
+        }, e -> Future.succeededFuture(null));
+    }
+
+    /**
+     * 预压缩文件，明显比原文件旧(构建后又修改了原文件)时忽略
+     */
+    private Future<Variant> variant(String file, String encoding, FileProps origin) {
+        return fs.props(file).compose(props -> {
+            if (!props.isRegularFile()
+                    || props.lastModifiedTime() < origin.lastModifiedTime() - VARIANT_MTIME_TOLERANCE) {
+                return Future.succeededFuture((Variant) null);
+            }
+            return readIfSmall(file, props.size()).map(buf -> new Variant(file, encoding, props.size(), buf));
+        }, e -> Future.succeededFuture(null));
+    }
+
+    /**
+     * 小文件先占用内存缓存额度再读取，额度不足或读取失败时返回 null(发送时直接读文件)
+     */
+    private Future<Buffer> readIfSmall(String file, long size) {
+        if (size > maxFileSize || !reserve(size)) {
+            return Future.succeededFuture();
+        }
+        return fs.readFile(file).map(buf -> {
+            // 读取期间文件可能被替换，按实际长度修正额度
+            cachedBytes.addAndGet(buf.length() - size);
+            return buf;
+        }).otherwise(e -> {
+            cachedBytes.addAndGet(-size);
+            return null;
+        });
+    }
+
+    private boolean reserve(long size) {
+        while (true) {
+            long current = cachedBytes.get();
+            if (current + size > memoryCacheSize) {
+                return false;
+            }
+            if (cachedBytes.compareAndSet(current, current + size)) {
+                return true;
+            }
+        }
+    }
+
+    private void put(String rel, Asset asset) {
+        Asset old = assets.put(rel, asset);
+        if (old != null) {
+            cachedBytes.addAndGet(-old.memoryBytes());
+        }
+        if (assets.size() > MAX_ENTRIES) {
+            evictOne();
+        }
+    }
+
+    /**
+     * 条目数超出上限时淘汰最久未检查的一个
+     */
+    private void evictOne() {
+        Asset oldest = null;
+        for (Asset a : assets.values()) {
+            if (oldest == null || a.checkedAt < oldest.checkedAt) {
+                oldest = a;
+            }
+        }
+        if (oldest != null) {
+            remove(oldest);
+        }
+    }
+
+    private void remove(Asset asset) {
+        if (assets.remove(asset.rel, asset)) {
+            cachedBytes.addAndGet(-asset.memoryBytes());
+        }
+    }
+
+    private void send(RoutingContext ctx, Asset asset) {
+        HttpServerRequest request = ctx.request();
+        HttpServerResponse response = ctx.response();
+        if (response.ended() || response.closed()) {
+            return;
+        }
+        Variant variant = asset.select(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        String etag = variant == null ? asset.etag : asset.etag(variant.encoding);
+        response.putHeader(HttpHeaders.ETAG, etag)
+                .putHeader(HttpHeaders.LAST_MODIFIED, asset.lastModifiedHeader)
+                .putHeader(HttpHeaders.CACHE_CONTROL, asset.immutable
+                        ? "public, max-age=" + maxAge + ", immutable" : "no-cache");
+        if (asset.hasVariants()) {
+            response.putHeader(HttpHeaders.VARY, "Accept-Encoding");
+        }
+        if (notModified(request, etag, asset.lastModified)) {
+            response.setStatusCode(304).end();
+            return;
+        }
+
+        response.putHeader(HttpHeaders.CONTENT_TYPE, asset.contentType);
+        String path = asset.file;
+        long size = asset.size;
+        Buffer content = asset.content;
+        if (variant != null) {
+            // 已设置 Content-Encoding 的响应不会被服务器再次压缩
+            response.putHeader(HttpHeaders.CONTENT_ENCODING, variant.encoding);
+            path = variant.file;
+            size = variant.size;
+            content = variant.content;
+        }
+        if (request.method() == HttpMethod.HEAD) {
+            response.putHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(size)).end();
+        } else if (content != null) {
+            response.end(content);
+        } else {
+            String file = path;
+            response.sendFile(file).onFailure(e -> {
+                LOGGER.warn("发送静态资源失败: {}", file, e);
+                remove(asset);
+            });
+        }
+    }
+
+    private static boolean notModified(HttpServerRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String t = tag.trim();
+                if (t.equals("*") || t.equals(etag) || t.equals("W/" + etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return lastModified / 1000 <= since / 1000;
+            } catch (Exception ignored) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Accept-Encoding 中是否接受该编码(q=0 表示拒绝)
+     */
+    static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim();
+            if (!name.equalsIgnoreCase(encoding) && !name.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static final class Variant {
+        final String file;
+        final String encoding;
+        final long size;
+        final Buffer content;
+
+        Variant(String file, String encoding, long size, Buffer content) {
+            this.file = file;
+            this.encoding = encoding;
+            this.size = size;
+            this.content = content;
+        }
+    }
+
+    private static final class Asset {
+        final String rel;
+        final String file;
+        final long size;
+        final long lastModified;
+        final String lastModifiedHeader;
+        final String etag;
+        final String contentType;
+        final boolean immutable;
+        final Variant br;
+        final Variant gzip;
+        final Buffer content;
+        volatile long checkedAt;
+
+        Asset(String rel, String file, FileProps props, Variant br, Variant gzip, Buffer content, boolean immutable,
+              long now) {
+            this.rel = rel;
+            this.file = file;
+            this.size = props.size();
+            this.lastModified = props.lastModifiedTime();
+            this.lastModifiedHeader = HTTP_DATE.format(Instant.ofEpochMilli(lastModified));
+            this.etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            this.contentType = contentType(file);
+            this.immutable = immutable;
+            this.br = br;
+            this.gzip = gzip;
+            this.content = content;
+            this.checkedAt = now;
+        }
+
+        Variant select(String acceptEncoding) {
+            if (br != null && accepts(acceptEncoding, "br")) {
+                return br;
+            }
+            if (gzip != null && accepts(acceptEncoding, "gzip")) {
+                return gzip;
+            }
+            return null;
+        }
+
+        boolean hasVariants() {
+            return br != null || gzip != null;
+        }
+
+        /**
+         * 不同编码的表示使用不同的强 ETag
+         */
+        String etag(String encoding) {
+            return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+        }
+
+        long memoryBytes() {
+            return length(content) + (br == null ? 0 : length(br.content)) + (gzip == null ? 0 : length(gzip.content));
+        }
+
+        private static long length(Buffer buffer) {
+            return buffer == null ? 0 : buffer.length();
+        }
+
+        private static String contentType(String file) {
+            String type = MimeMapping.getMimeTypeForFilename(file);
+            if (type == null) {
+                return "application/octet-stream";
+            }
+            if (type.startsWith("text/") || type.equals("application/javascript") || type.equals("application/json")) {
+                return type + ";charset=UTF-8";
+            }
+            return type;
+        }
+    }
+}
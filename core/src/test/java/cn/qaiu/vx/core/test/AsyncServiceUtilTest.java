@@ -0,0 +1,76 @@
+package cn.qaiu.vx.core.test;
+
+import cn.qaiu.vx.core.util.AsyncServiceUtil;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static cn.qaiu.vx.core.util.ConfigConstant.*;
+
+/**
+ * 单元测试：验证开启 localServiceBinding 后服务代理直接调用本地实现
+ */
+public class AsyncServiceUtilTest {
+
+    public interface EchoService {
+        Future<String> echo(String value);
+    }
+
+    private static final class EchoServiceImpl implements EchoService {
+        @Override
+        public Future<String> echo(String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("value is null");
+            }
+            return Future.succeededFuture("echo:" + value);
+        }
+    }
+
+    private Vertx vertx;
+
+    @Before
+    public void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Test
+    public void testLocalBindingDisabledByDefault() {
+        Assert.assertFalse(AsyncServiceUtil.isLocalBindingEnabled(vertx));
+        vertx.sharedData().getLocalMap(LOCAL).put(CUSTOM_CONFIG, new JsonObject());
+        Assert.assertFalse(AsyncServiceUtil.isLocalBindingEnabled(vertx));
+    }
+
+    @Test
+    public void testDirectInvocation() {
+        vertx.sharedData().getLocalMap(LOCAL).put(CUSTOM_CONFIG,
+                new JsonObject().put(LOCAL_SERVICE_BINDING, true));
+        Assert.assertTrue(AsyncServiceUtil.isLocalBindingEnabled(vertx));
+
+        // 先获取代理，后注册实现(与路由、服务并行部署时一致)
+        EchoService service = AsyncServiceUtil.getAsyncServiceInstance(EchoService.class, vertx);
+        EchoServiceImpl impl = new EchoServiceImpl();
+        AsyncServiceUtil.bindLocal(EchoService.class, impl);
+        try {
+            Future<String> result = service.echo("a");
+            Assert.assertTrue(result.succeeded());
+            Assert.assertEquals("echo:a", result.result());
+
+            // 实现抛出的异常以失败的 Future 返回, 与事件总线代理一致
+            Future<String> failed = service.echo(null);
+            Assert.assertTrue(failed.failed());
+            Assert.assertTrue(failed.cause() instanceof IllegalArgumentException);
+            Assert.assertEquals("value is null", failed.cause().getMessage());
+        } finally {
+            AsyncServiceUtil.unbindLocal(EchoService.class, impl);
+        }
+    }
+}
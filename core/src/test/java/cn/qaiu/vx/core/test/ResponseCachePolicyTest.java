@@ -0,0 +1,101 @@
+package cn.qaiu.vx.core.test;
+
+import cn.qaiu.vx.core.annotaions.ResponseCache;
+import cn.qaiu.vx.core.handlerfactory.ResponseCachePolicy;
+import cn.qaiu.vx.core.model.JsonResult;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单元测试：路由响应缓存、ETag 和 304
+ */
+public class ResponseCachePolicyTest {
+
+    private Vertx vertx;
+    private HttpServer server;
+    private HttpClient client;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @ResponseCache(ttl = 60, vary = "type")
+    public void cachedRoute() {
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        ResponseCachePolicy cache = ResponseCachePolicy.of(
+                getClass().getMethod("cachedRoute").getAnnotation(ResponseCache.class));
+
+        vertx = Vertx.vertx();
+        Router router = Router.router(vertx);
+        router.get("/info").handler(ctx -> {
+            if (cache.tryServe(ctx)) {
+                return;
+            }
+            JsonObject data = new JsonObject().put("type", ctx.request().getParam("type"))
+                    .put("calls", calls.incrementAndGet());
+            cache.respond(ctx, JsonResult.data(data).toJsonObject());
+        });
+        server = vertx.createHttpServer().requestHandler(router).listen(0)
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        client = vertx.createHttpClient();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private HttpClientResponse get(String uri, String ifNoneMatch) throws Exception {
+        RequestOptions options = new RequestOptions().setMethod(HttpMethod.GET)
+                .setPort(server.actualPort()).setHost("127.0.0.1").setURI(uri);
+        if (ifNoneMatch != null) {
+            options.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return client.request(options)
+                .compose(req -> req.send().compose(resp -> resp.body().map(body -> resp)))
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCachedWithinTtl() throws Exception {
+        HttpClientResponse first = get("/info?type=a", null);
+        Assert.assertEquals(200, first.statusCode());
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        Assert.assertNotNull(etag);
+        Assert.assertTrue(first.getHeader(HttpHeaders.CACHE_CONTROL).startsWith("public, max-age="));
+
+        HttpClientResponse second = get("/info?type=a", null);
+        Assert.assertEquals(200, second.statusCode());
+        Assert.assertEquals(etag, second.getHeader(HttpHeaders.ETAG));
+        Assert.assertEquals(1, calls.get());
+
+        // vary 参数不同单独缓存
+        HttpClientResponse other = get("/info?type=b", null);
+        Assert.assertNotEquals(etag, other.getHeader(HttpHeaders.ETAG));
+        Assert.assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testNotModified() throws Exception {
+        String etag = get("/info?type=a", null).getHeader(HttpHeaders.ETAG);
+        HttpClientResponse resp = get("/info?type=a", etag);
+        Assert.assertEquals(304, resp.statusCode());
+        Assert.assertEquals(etag, resp.getHeader(HttpHeaders.ETAG));
+        Assert.assertEquals(200, get("/info?type=a", "\"other\"").statusCode());
+        Assert.assertEquals(1, calls.get());
+    }
+}
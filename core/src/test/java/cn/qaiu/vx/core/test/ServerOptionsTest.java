@@ -0,0 +1,68 @@
+package cn.qaiu.vx.core.test;
+
+import cn.qaiu.vx.core.verticle.RouterVerticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单元测试：server 段 HTTP 服务参数与 h2c
+ */
+public class ServerOptionsTest {
+
+    @Test
+    public void testServerConfigOverridesHttpConfig() {
+        HttpServerOptions options = RouterVerticle.createServerOptions(
+                new JsonObject().put("maxHeaderSize", 16384).put("idleTimeout", 10),
+                new JsonObject()
+                        .put("compressionLevel", 3)
+                        .put("acceptBacklog", 1024)
+                        .put("idleTimeout", 60)
+                        .put("tcpQuickAck", false)
+                        .put("h2c", false));
+        Assert.assertEquals(16384, options.getMaxHeaderSize());
+        Assert.assertEquals(60, options.getIdleTimeout());
+        Assert.assertEquals(1024, options.getAcceptBacklog());
+        Assert.assertTrue(options.isCompressionSupported());
+        Assert.assertEquals(3, options.getCompressionLevel());
+        Assert.assertFalse(options.isTcpQuickAck());
+        Assert.assertTrue(options.isTcpNoDelay());
+        Assert.assertFalse(options.isHttp2ClearTextEnabled());
+        Assert.assertFalse(options.isSsl());
+
+        HttpServerOptions noCompression = RouterVerticle.createServerOptions(null,
+                new JsonObject().put("compressionLevel", 0).put("http2", false));
+        Assert.assertFalse(noCompression.isCompressionSupported());
+        Assert.assertFalse(noCompression.isHttp2ClearTextEnabled());
+    }
+
+    @Test
+    public void testH2cPriorKnowledge() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        try {
+            HttpServer server = vertx.createHttpServer(RouterVerticle.createServerOptions(null, new JsonObject()))
+                    .requestHandler(req -> req.response().end(req.version().name()))
+                    .listen(0, "127.0.0.1")
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            HttpClient client = vertx.createHttpClient(new HttpClientOptions()
+                    .setProtocolVersion(HttpVersion.HTTP_2)
+                    .setHttp2ClearTextUpgrade(false));
+            String body = client.request(HttpMethod.GET, server.actualPort(), "127.0.0.1", "/")
+                    .compose(req -> req.send().compose(resp -> resp.body()))
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS)
+                    .toString();
+            Assert.assertEquals("HTTP_2", body);
+        } finally {
+            vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        }
+    }
+}
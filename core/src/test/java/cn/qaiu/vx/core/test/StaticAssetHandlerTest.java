@@ -0,0 +1,143 @@
+package cn.qaiu.vx.core.test;
+
+import cn.qaiu.vx.core.verticle.StaticAssetHandler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 单元测试：静态资源预压缩、缓存头和 304
+ */
+public class StaticAssetHandlerTest {
+
+    private Vertx vertx;
+    private HttpServer server;
+    private HttpClient client;
+    private Path root;
+
+    @Before
+    public void setUp() throws Exception {
+        root = Files.createTempDirectory("static-asset");
+        Files.createDirectories(root.resolve("js"));
+        Files.writeString(root.resolve("index.html"), "<html></html>");
+        Files.writeString(root.resolve("js/app.3f2a1b9c.js"), "console.log('app')");
+        Files.writeString(root.resolve("js/app.3f2a1b9c.js.gz"), "gz");
+        Files.writeString(root.resolve("js/app.3f2a1b9c.js.br"), "br");
+
+        vertx = Vertx.vertx();
+        Router router = Router.router(vertx);
+        router.route("/*").handler(new StaticAssetHandler(vertx, new JsonObject()
+                .put("path", "/")
+                .put("root", root.toString())));
+        router.route("/*").handler(ctx -> ctx.response().setStatusCode(404).end("fallback"));
+        server = vertx.createHttpServer().requestHandler(router).listen(0)
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        client = vertx.createHttpClient();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private Result get(String uri, String... headers) throws Exception {
+        RequestOptions options = new RequestOptions().setMethod(HttpMethod.GET)
+                .setPort(server.actualPort()).setHost("127.0.0.1").setURI(uri);
+        for (int i = 0; i < headers.length; i += 2) {
+            options.addHeader(headers[i], headers[i + 1]);
+        }
+        return client.request(options)
+                .compose(req -> req.send().compose(resp -> resp.body().map(body -> new Result(resp, body))))
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPrecompressedVariant() throws Exception {
+        Result br = get("/js/app.3f2a1b9c.js", "Accept-Encoding", "gzip, deflate, br");
+        Assert.assertEquals(200, br.status);
+        Assert.assertEquals("br", br.response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals("br", br.body);
+        Assert.assertEquals("Accept-Encoding", br.response.getHeader(HttpHeaders.VARY));
+        Assert.assertEquals("public, max-age=31536000, immutable",
+                br.response.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        Result gzip = get("/js/app.3f2a1b9c.js", "Accept-Encoding", "gzip, br;q=0");
+        Assert.assertEquals("gzip", gzip.response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals("gz", gzip.body);
+        Assert.assertNotEquals(br.response.getHeader(HttpHeaders.ETAG), gzip.response.getHeader(HttpHeaders.ETAG));
+
+        Result identity = get("/js/app.3f2a1b9c.js");
+        Assert.assertNull(identity.response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals("console.log('app')", identity.body);
+    }
+
+    @Test
+    public void testPrecompressedVariantCopiedBeforeOrigin() throws Exception {
+        // 构建复制时不保留修改时间，预压缩文件可能比原文件早几秒
+        Path origin = root.resolve("js/app.3f2a1b9c.js");
+        Files.setLastModifiedTime(root.resolve("js/app.3f2a1b9c.js.br"),
+                FileTime.fromMillis(Files.getLastModifiedTime(origin).toMillis() - 5000));
+        Result br = get("/js/app.3f2a1b9c.js", "Accept-Encoding", "br");
+        Assert.assertEquals("br", br.response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals("br", br.body);
+    }
+
+    @Test
+    public void testConditionalRequest() throws Exception {
+        Result first = get("/");
+        Assert.assertEquals(200, first.status);
+        Assert.assertEquals("<html></html>", first.body);
+        Assert.assertEquals("no-cache", first.response.getHeader(HttpHeaders.CACHE_CONTROL));
+        String etag = first.response.getHeader(HttpHeaders.ETAG);
+        Assert.assertNotNull(etag);
+
+        Result byEtag = get("/index.html", "If-None-Match", etag);
+        Assert.assertEquals(304, byEtag.status);
+        Assert.assertEquals("", byEtag.body);
+
+        Result byDate = get("/index.html", "If-Modified-Since",
+                first.response.getHeader(HttpHeaders.LAST_MODIFIED));
+        Assert.assertEquals(304, byDate.status);
+    }
+
+    @Test
+    public void testFallsThrough() throws Exception {
+        Assert.assertEquals("fallback", get("/missing.js").body);
+        Assert.assertEquals("fallback", get("/js/").body);
+    }
+
+    private static final class Result {
+        final HttpClientResponse response;
+        final int status;
+        final String body;
+
+        Result(HttpClientResponse response, Buffer body) {
+            this.response = response;
+            this.status = response.statusCode();
+            this.body = body.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
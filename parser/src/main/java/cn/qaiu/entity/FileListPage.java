@@ -0,0 +1,97 @@
+package cn.qaiu.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件列表分页结果
+ */
+public class FileListPage {
+
+    /**
+     * 本页文件
+     */
+    private List<FileInfo> items;
+
+    /**
+     * 下一页游标, 为空表示没有更多
+     */
+    private String nextCursor;
+
+    /**
+     * 文件总数(可能获取不到)
+     */
+    private Integer total;
+
+    public List<FileInfo> getItems() {
+        return items;
+    }
+
+    public FileListPage setItems(List<FileInfo> items) {
+        this.items = items;
+        return this;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public FileListPage setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+        return this;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public FileListPage setTotal(Integer total) {
+        this.total = total;
+        return this;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * 按偏移量游标切分完整列表
+     *
+     * @param fileList 完整列表
+     * @param cursor   起始偏移, 为空表示从头开始; 解析器分页游标以 offset:附加状态 形式出现时只取偏移
+     * @param limit    每页条数
+     * @return 分页结果
+     * @throws IllegalArgumentException 游标不是非负整数时
+     */
+    public static FileListPage slice(List<FileInfo> fileList, String cursor, int limit) {
+        int offset = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String offsetPart = cursor.trim();
+                int sep = offsetPart.indexOf(':');
+                offset = Integer.parseInt(sep < 0 ? offsetPart : offsetPart.substring(0, sep));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor);
+            }
+            if (offset < 0) {
+                throw new IllegalArgumentException("无效的分页游标: " + cursor);
+            }
+        }
+        int size = fileList.size();
+        int from = Math.min(offset, size);
+        int to = (int) Math.min((long) from + Math.max(1, limit), size);
+        return new FileListPage()
+                .setItems(new ArrayList<>(fileList.subList(from, to)))
+                .setNextCursor(to < size ? String.valueOf(to) : null)
+                .setTotal(size);
+    }
+
+    @Override
+    public String toString() {
+        return "FileListPage{" +
+                "items=" + (items == null ? 0 : items.size()) +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -2,6 +2,7 @@ package cn.qaiu.parser;//package cn.qaiu.lz.common.parser;
 
 import cn.qaiu.WebClientVertxInit;
 import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.FileListPage;
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.clientlink.ClientLinkGeneratorFactory;
 import cn.qaiu.parser.clientlink.ClientLinkType;
@@ -49,7 +50,7 @@ public interface IPanTool extends AutoCloseable {
             cleanupTask = CLOSE_AFTER_SCHEDULER.schedule(() -> {
                 if (cleanupDone.compareAndSet(false, true)) {
                     closeQuietly(tool);
-                    failOnVertxContext(promise, "解析超时（" + SYNC_TIMEOUT_SECONDS + "秒）");
+                    failOnVertxContext(promise, new UpstreamException("解析超时（" + SYNC_TIMEOUT_SECONDS + "秒）"));
                 }
             }, SYNC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
 
@@ -76,11 +77,11 @@ public interface IPanTool extends AutoCloseable {
         }
     }
 
-    private static <T> void failOnVertxContext(Promise<T> promise, String message) {
+    private static <T> void failOnVertxContext(Promise<T> promise, Throwable cause) {
         try {
-            WebClientVertxInit.get().runOnContext(ignored -> promise.tryFail(message));
+            WebClientVertxInit.get().runOnContext(ignored -> promise.tryFail(cause));
         } catch (Exception ignored) {
-            promise.tryFail(message);
+            promise.tryFail(cause);
         }
     }
 
@@ -117,6 +118,26 @@ public interface IPanTool extends AutoCloseable {
         return timedJoin(parseFileList());
     }
 
+    /**
+     * 是否按上游分页实现了 {@link #parseFileListPage(String, int)}
+     * @return 默认false, 此时分页由完整列表切分得到
+     */
+    default boolean supportsFileListPage() {
+        return false;
+    }
+
+    /**
+     * 分页解析文件列表
+     * 默认实现先解析完整列表再按偏移量切分, 游标为起始偏移; 上游接口支持分页的解析器应覆盖此方法
+     * 并同时覆盖 {@link #supportsFileListPage()}, 每次只请求一页上游数据
+     * @param cursor 游标, 首页传null
+     * @param limit 每页条数
+     * @return 分页结果
+     */
+    default Future<FileListPage> parseFileListPage(String cursor, int limit) {
+        return parseFileList().map(list -> FileListPage.slice(list, cursor, limit));
+    }
+
     /**
      * 根据文件ID获取下载链接
      * @return url
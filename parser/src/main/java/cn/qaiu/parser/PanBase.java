@@ -8,12 +8,11 @@ import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.impl.NoStackTraceThrowable;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.ProxyOptions;
-import io.vertx.core.net.ProxyType;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
-import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.client.WebClientSession;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -28,6 +27,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -46,28 +47,10 @@ public abstract class PanBase implements IPanTool, Closeable {
     private static final int MAX_DECOMPRESSED_RESPONSE_CHARS = 16 * 1024 * 1024;
     private static final int MAX_ERROR_BODY_CHARS = 4096;
 
-    /**
-     * 共享的 WebClient 配置（设置超时避免连接无限期占用）
-     */
-    private static final WebClientOptions SHARED_OPTIONS = new WebClientOptions()
-            .setConnectTimeout(10000)      // 连接超时 10 秒
-            .setIdleTimeout(30)            // 空闲超时 30 秒
-            .setIdleTimeoutUnit(java.util.concurrent.TimeUnit.SECONDS);
-
-    private static final Object SHARED_CLIENT_LOCK = new Object();
-
-    /**
-     * 共享的 WebClient 实例（线程安全，避免每请求创建导致资源泄漏）
-     */
-    private static volatile WebClient sharedClient;
-    private static volatile WebClient sharedClientNoRedirects;
-    private static volatile WebClient sharedClientDisableUA;
-    private static volatile boolean sharedClientsShutdown = false;
-
     /**
      * Http client (默认使用共享实例，代理模式下使用独立实例)
      */
-    protected WebClient client = sharedClient();
+    protected WebClient client = UpstreamClients.get(UpstreamClients.Profile.DEFAULT);
 
     /**
      * Http client session (会话管理, 带cookie请求, 每实例独立)
@@ -77,26 +60,21 @@ public abstract class PanBase implements IPanTool, Closeable {
     /**
      * Http client 不自动跳转
      */
-    protected WebClient clientNoRedirects = sharedClientNoRedirects();
+    protected WebClient clientNoRedirects = UpstreamClients.get(UpstreamClients.Profile.NO_REDIRECTS);
 
     /**
      * Http client disable UserAgent
      */
-    protected WebClient clientDisableUA = sharedClientDisableUA();
+    protected WebClient clientDisableUA = UpstreamClients.get(UpstreamClients.Profile.DISABLE_UA);
 
     protected ShareLinkInfo shareLinkInfo;
 
     /**
-     * 标记是否为代理模式（代理模式创建的 WebClient 需要手动关闭）
-     */
-    private boolean isProxyMode = false;
-
-    /**
-     * 代理模式下创建的独立 WebClient 实例（需要在 close 时释放）
+     * 代理模式下租用的共享 WebClient（需要在 close 时归还）
      */
-    private WebClient proxyClient = null;
-    private WebClient proxyClientNoRedirects = null;
-    
+    private UpstreamClients.Lease proxyLease = null;
+    private UpstreamClients.Lease proxyLeaseNoRedirects = null;
+    private final AtomicBoolean leasesReleased = new AtomicBoolean(false);
 
     /**
      * 子类重写此构造方法不需要添加额外逻辑
@@ -111,97 +89,29 @@ public abstract class PanBase implements IPanTool, Closeable {
      */
     public PanBase(ShareLinkInfo shareLinkInfo) {
         this.shareLinkInfo = shareLinkInfo;
-        if (shareLinkInfo.getOtherParam().containsKey("proxy")) {
-            this.isProxyMode = true;
-            JsonObject proxy = (JsonObject) shareLinkInfo.getOtherParam().get("proxy");
-            ProxyOptions proxyOptions = new ProxyOptions()
-                    .setType(ProxyType.valueOf(proxy.getString("type").toUpperCase()))
-                    .setHost(proxy.getString("host"))
-                    .setPort(proxy.getInteger("port"));
-            if (StringUtils.isNotEmpty(proxy.getString("username"))) {
-                proxyOptions.setUsername(proxy.getString("username"));
-            }
-            if (StringUtils.isNotEmpty(proxy.getString("password"))) {
-                proxyOptions.setPassword(proxy.getString("password"));
-            }
-            // 代理模式下创建独立的 WebClient 实例（应用超时配置）
-            this.proxyClient = WebClient.create(WebClientVertxInit.get(),
-                    new WebClientOptions(SHARED_OPTIONS)
-                            .setUserAgentEnabled(false)
-                            .setProxyOptions(proxyOptions));
-            this.proxyClientNoRedirects = WebClient.create(WebClientVertxInit.get(),
-                    new WebClientOptions(SHARED_OPTIONS).setFollowRedirects(false)
-                            .setUserAgentEnabled(false)
-                            .setProxyOptions(proxyOptions));
-
-            this.client = proxyClient;
+        ProxyOptions proxyOptions = shareLinkInfo.getOtherParam().containsKey("proxy")
+                ? UpstreamClients.proxyOptions((JsonObject) shareLinkInfo.getOtherParam().get("proxy"))
+                : null;
+        if (proxyOptions != null) {
+            // 代理模式下租用按代理配置共享的 WebClient，复用经代理建立的连接
+            this.proxyLease = UpstreamClients.acquire(UpstreamClients.Profile.PROXY, proxyOptions);
+            this.proxyLeaseNoRedirects = UpstreamClients.acquire(UpstreamClients.Profile.PROXY_NO_REDIRECTS,
+                    proxyOptions);
+
+            this.client = proxyLease.client();
             this.clientSession = WebClientSession.create(client);
-            this.clientNoRedirects = proxyClientNoRedirects;
+            this.clientNoRedirects = proxyLeaseNoRedirects.client();
         }
     }
 
     protected PanBase() {
     }
 
-    private static WebClient sharedClient() {
-        synchronized (SHARED_CLIENT_LOCK) {
-            if (sharedClientsShutdown) {
-                throw new IllegalStateException("共享 WebClient 已关闭");
-            }
-            if (sharedClient == null) {
-                sharedClient = WebClient.create(WebClientVertxInit.get(), new WebClientOptions(SHARED_OPTIONS));
-            }
-            return sharedClient;
-        }
-    }
-
-    private static WebClient sharedClientNoRedirects() {
-        synchronized (SHARED_CLIENT_LOCK) {
-            if (sharedClientsShutdown) {
-                throw new IllegalStateException("共享 WebClient 已关闭");
-            }
-            if (sharedClientNoRedirects == null) {
-                sharedClientNoRedirects = WebClient.create(WebClientVertxInit.get(),
-                        new WebClientOptions(SHARED_OPTIONS).setFollowRedirects(false));
-            }
-            return sharedClientNoRedirects;
-        }
-    }
-
-    private static WebClient sharedClientDisableUA() {
-        synchronized (SHARED_CLIENT_LOCK) {
-            if (sharedClientsShutdown) {
-                throw new IllegalStateException("共享 WebClient 已关闭");
-            }
-            if (sharedClientDisableUA == null) {
-                sharedClientDisableUA = WebClient.create(WebClientVertxInit.get(),
-                        new WebClientOptions(SHARED_OPTIONS).setUserAgentEnabled(false));
-            }
-            return sharedClientDisableUA;
-        }
-    }
-
+    /**
+     * 关闭共享的 WebClient（应用关闭时调用）
+     */
     public static void shutdownSharedClients() {
-        synchronized (SHARED_CLIENT_LOCK) {
-            sharedClientsShutdown = true;
-            closeSharedClient(sharedClient, "shared WebClient");
-            closeSharedClient(sharedClientNoRedirects, "shared WebClientNoRedirects");
-            closeSharedClient(sharedClientDisableUA, "shared WebClientDisableUA");
-            sharedClient = null;
-            sharedClientNoRedirects = null;
-            sharedClientDisableUA = null;
-        }
-    }
-
-    private static void closeSharedClient(WebClient client, String name) {
-        if (client == null) {
-            return;
-        }
-        try {
-            client.close();
-        } catch (Exception e) {
-            LoggerFactory.getLogger(PanBase.class).warn("关闭 {} 失败: {}", name, e.getMessage());
-        }
+        UpstreamClients.shutdown();
     }
 
     /**
@@ -233,6 +143,28 @@ public abstract class PanBase implements IPanTool, Closeable {
         }
     }
 
+    /**
+     * {@link #assertPublicHost(URL)} 的异步版本，DNS 解析在工作线程上执行，不阻塞 event loop
+     *
+     * @param url 从 shareLinkInfo.getShareUrl() 解析出的 URL
+     */
+    protected static Future<Void> assertPublicHostAsync(URL url) {
+        return executeBlocking(() -> {
+            assertPublicHost(url);
+            return null;
+        });
+    }
+
+    /**
+     * 在工作线程上执行阻塞代码(同步 DNS 解析、Nashorn 脚本等)。
+     * 解析器的回调运行在发起请求的上下文上，以 event loop 模式部署时不能直接执行阻塞代码。
+     *
+     * @param blockingCode 阻塞代码
+     */
+    protected static <T> Future<T> executeBlocking(Callable<T> blockingCode) {
+        return WebClientVertxInit.get().executeBlocking(blockingCode, false);
+    }
+
     /**
      * 判断地址是否落入禁止访问的范围: 0.0.0.0/8, 10/8, 127/8, 169.254/16(含云元数据
      * 169.254.169.254), 172.16/12, 192.168/16, 100.64/10(CGNAT), 224/4~255/4(组播/保留),
@@ -302,7 +234,7 @@ public abstract class PanBase implements IPanTool, Closeable {
             log.error("解析异常: {} - {}: {}", s, t.getClass().getSimpleName(), t.getMessage());
             // 只传递异常消息，不传递完整异常对象，减少内存占用
             String failMsg = baseMsg() + ": 解析异常: " + s + " -> " + t.getClass().getSimpleName() + ": " + t.getMessage();
-            promise.fail(failMsg);
+            promise.fail(failure(t, failMsg));
         } catch (Exception e) {
             log.error("ErrorMsg format fail. The parameter has been discarded", e);
             log.error("解析异常: {} - {}: {}", errorMsg, t.getClass().getSimpleName(), t.getMessage());
@@ -310,10 +242,15 @@ public abstract class PanBase implements IPanTool, Closeable {
                 log.warn("ErrorMsg format. Promise 已经完成, 无法再次失败: {}", errorMsg);
                 return;
             }
-            promise.fail(baseMsg() + ": 解析异常: " + errorMsg + " -> " + t.getClass().getSimpleName() + ": " + t.getMessage());
+            promise.fail(failure(t, baseMsg() + ": 解析异常: " + errorMsg + " -> " + t.getClass().getSimpleName()
+                    + ": " + t.getMessage()));
         }
     }
 
+    private static Throwable failure(Throwable t, String failMsg) {
+        return UpstreamException.isUpstreamFailure(t) ? new UpstreamException(failMsg) : new NoStackTraceThrowable(failMsg);
+    }
+
     /**
      * 失败时生成异常消息
      *
@@ -321,6 +258,20 @@ public abstract class PanBase implements IPanTool, Closeable {
      * @param args     log参数变量
      */
     protected void fail(String errorMsg, Object... args) {
+        fail(false, errorMsg, args);
+    }
+
+    /**
+     * 上游不可用(连接异常、超时、5xx)时失败, 计入熔断统计
+     *
+     * @param errorMsg 提示消息
+     * @param args     log参数变量
+     */
+    protected void failUpstream(String errorMsg, Object... args) {
+        fail(true, errorMsg, args);
+    }
+
+    private void fail(boolean upstream, String errorMsg, Object[] args) {
         try {
             // 判断是否已经完成
             if (promise.future().isComplete()) {
@@ -328,17 +279,21 @@ public abstract class PanBase implements IPanTool, Closeable {
                 return;
             }
             String s = String.format(errorMsg.replaceAll("\\{}", "%s"), args);
-            promise.fail(baseMsg() + " - 解析异常: " + s);
+            failPromise(upstream, baseMsg() + " - 解析异常: " + s);
         } catch (Exception e) {
             if (promise.future().isComplete()) {
                 log.warn("ErrorMsg format. Promise 已经完成, 无法再次失败: {}", errorMsg);
                 return;
             }
             log.error("ErrorMsg format fail. The parameter has been discarded", e);
-            promise.fail(baseMsg() + " - 解析异常: " + errorMsg);
+            failPromise(upstream, baseMsg() + " - 解析异常: " + errorMsg);
         }
     }
 
+    private void failPromise(boolean upstream, String failMsg) {
+        promise.fail(upstream ? new UpstreamException(failMsg) : new NoStackTraceThrowable(failMsg));
+    }
+
     protected void fail() {
         fail("");
     }
@@ -350,7 +305,8 @@ public abstract class PanBase implements IPanTool, Closeable {
      * @return Handler
      */
     protected Handler<Throwable> handleFail(String errorMsg) {
-        return t -> fail(baseMsg() + " - 请求异常 {}: -> {}", errorMsg, t.getClass().getSimpleName() + ": " + t.getMessage());
+        return t -> fail(UpstreamException.isUpstreamFailure(t), baseMsg() + " - 请求异常 {}: -> {}",
+                new Object[]{errorMsg, t.getClass().getSimpleName() + ": " + t.getMessage()});
     }
 
     protected Handler<Throwable> handleFail() {
@@ -380,7 +336,11 @@ public abstract class PanBase implements IPanTool, Closeable {
             }
 
         } catch (Exception e) {
-            if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            if (res.statusCode() >= 500) {
+                // 上游服务异常返回的错误页, 计入熔断统计
+                log.error("解析失败: 上游返回 HTTP {}", res.statusCode());
+                failUpstream("解析失败: 上游返回 HTTP {}", res.statusCode());
+            } else if ("gzip".equalsIgnoreCase(contentEncoding)) {
                 // gzip解压失败，记录错误
                 log.error("响应gzip解压或JSON解析失败: {}", e.getMessage());
                 fail("响应gzip解压或JSON解析失败: {}", e.getMessage());
@@ -571,26 +531,14 @@ public abstract class PanBase implements IPanTool, Closeable {
     }
 
     /**
-     * 关闭代理模式下创建的 WebClient 资源
+     * 归还代理模式下租用的 WebClient
      * 非代理模式使用共享实例，不需要关闭
      */
     @Override
     public void close() {
-        if (isProxyMode) {
-            try {
-                if (proxyClient != null) {
-                    proxyClient.close();
-                }
-            } catch (Exception e) {
-                log.warn("关闭代理 WebClient 失败: {}", e.getMessage());
-            }
-            try {
-                if (proxyClientNoRedirects != null) {
-                    proxyClientNoRedirects.close();
-                }
-            } catch (Exception e) {
-                log.warn("关闭代理 WebClientNoRedirects 失败: {}", e.getMessage());
-            }
+        if (proxyLease != null && leasesReleased.compareAndSet(false, true)) {
+            proxyLease.release();
+            proxyLeaseNoRedirects.release();
         }
     }
 }
@@ -252,8 +252,8 @@ public class ParserCreate {
         return this;
     }
 
-    // 根据分享链接获取PanDomainTemplate实例
-    public synchronized static ParserCreate fromShareUrl(String shareUrl) {
+    // 根据分享链接获取PanDomainTemplate实例，只匹配域名索引给出的候选解析器，见 ShareUrlRouter
+    public static ParserCreate fromShareUrl(String shareUrl) {
         if (StringUtils.isBlank(shareUrl)) {
             throw new IllegalArgumentException("shareUrl不能为空");
         }
@@ -265,7 +265,7 @@ public class ParserCreate {
         }
 
         // 明确内置解析器未命中时，再查找支持正则匹配的自定义解析器
-        for (CustomParserConfig customConfig : CustomParserRegistry.getAll().values()) {
+        for (CustomParserConfig customConfig : ShareUrlRouter.customCandidates(shareUrl)) {
             if (customConfig.supportsFromShareUrl()) {
                 Matcher matcher = customConfig.getMatchPattern().matcher(shareUrl);
                 if (matcher.matches()) {
@@ -321,11 +321,9 @@ public class ParserCreate {
     }
 
     private static ParserCreate fromBuiltInShareUrl(String shareUrl, boolean genericOnly) {
-        for (PanDomainTemplate panDomainTemplate : PanDomainTemplate.values()) {
-            boolean genericParser = isGenericBuiltInParser(panDomainTemplate);
-            if (genericOnly != genericParser) {
-                continue;
-            }
+        Iterable<PanDomainTemplate> candidates = genericOnly
+                ? GENERIC_BUILT_IN_PARSERS : ShareUrlRouter.builtInCandidates(shareUrl);
+        for (PanDomainTemplate panDomainTemplate : candidates) {
             if (panDomainTemplate.getPattern().matcher(shareUrl).matches()) {
                 ShareLinkInfo shareLinkInfo = ShareLinkInfo.newBuilder()
                         .type(panDomainTemplate.name().toLowerCase())
@@ -342,7 +340,7 @@ public class ParserCreate {
     }
 
     // 根据type获取枚举实例（优先查找自定义解析器）
-    public synchronized static ParserCreate fromType(String type) {
+    public static ParserCreate fromType(String type) {
         if (type == null || type.trim().isEmpty()) {
             throw new IllegalArgumentException("type不能为空");
         }
@@ -410,7 +408,7 @@ public class ParserCreate {
         return customParserConfig;
     }
 
-    private static boolean isGenericBuiltInParser(PanDomainTemplate panDomainTemplate) {
+    static boolean isGenericBuiltInParser(PanDomainTemplate panDomainTemplate) {
         return GENERIC_BUILT_IN_PARSERS.contains(panDomainTemplate);
     }
 
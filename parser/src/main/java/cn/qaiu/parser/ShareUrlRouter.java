@@ -0,0 +1,473 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import cn.qaiu.parser.custom.CustomParserRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 分享链接的域名分发索引
+ * <p>
+ * 启动时从每个解析器的正则中推导出可匹配的主域名(如 lanzoux.com、123pan.com)，建立 主域名 → 候选解析器 的索引。
+ * 解析分享链接时先取出链接的主域名，只对候选解析器执行正则匹配，不再依次跑完全部正则。
+ * 无法从正则推导出固定主域名的解析器(如飞书的 {@code [^.]+} 子域、文叔叔的 f.wsNN.cn)放入每次都会尝试的列表，
+ * 候选列表保持原有的枚举/注册顺序，匹配结果与逐个扫描完全一致，正则始终是最终判定。
+ * 自定义解析器的索引在注册、注销时重建，索引本身不可变，读取无需加锁。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class ShareUrlRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShareUrlRouter.class);
+
+    /** 类似 com.cn 的二级后缀，主域名需要再多取一级 */
+    private static final Set<String> SECOND_LEVEL_SUFFIXES = Set.of("com", "net", "org", "gov", "edu", "co");
+
+    /** 展开正则时的分支上限，超过则视为无法索引 */
+    private static final int MAX_EXPANSIONS = 512;
+
+    /** 可匹配域名字符(不含 . / ? # : @)的通配 */
+    private static final char HOST_WILDCARD = '\u0000';
+    /** 可能匹配到域名以外字符的通配 */
+    private static final char ANY_WILDCARD = '\u0001';
+
+    private static final HostIndex<PanDomainTemplate> BUILT_IN = HostIndex.build(
+            Arrays.stream(PanDomainTemplate.values())
+                    .filter(template -> !ParserCreate.isGenericBuiltInParser(template))
+                    .toList(),
+            PanDomainTemplate::getPattern);
+
+    private static volatile HostIndex<CustomParserConfig> custom = buildCustomIndex();
+
+    private ShareUrlRouter() {}
+
+    /**
+     * 获取可能匹配该链接的内置解析器(不含 Cloudreve/可道云/其他网盘 等泛化兜底)，按枚举顺序
+     */
+    public static List<PanDomainTemplate> builtInCandidates(String shareUrl) {
+        return BUILT_IN.candidates(hostKeyOfUrl(shareUrl));
+    }
+
+    /**
+     * 获取可能匹配该链接的自定义解析器
+     */
+    public static List<CustomParserConfig> customCandidates(String shareUrl) {
+        return custom.candidates(hostKeyOfUrl(shareUrl));
+    }
+
+    /**
+     * 重建自定义解析器索引，在自定义解析器注册、注销后调用
+     */
+    public static void rebuildCustomIndex() {
+        custom = buildCustomIndex();
+    }
+
+    private static HostIndex<CustomParserConfig> buildCustomIndex() {
+        List<CustomParserConfig> configs = CustomParserRegistry.getAll().values().stream()
+                .filter(CustomParserConfig::supportsFromShareUrl)
+                .toList();
+        HostIndex<CustomParserConfig> index = HostIndex.build(configs, CustomParserConfig::getMatchPattern);
+        log.debug("自定义解析器域名索引已重建: {} 个解析器, {} 个主域名, {} 个无法索引",
+                configs.size(), index.byHost.size(), index.unindexed.size());
+        return index;
+    }
+
+    /**
+     * 取链接的主域名，无法识别时返回null
+     */
+    static String hostKeyOfUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        int start = url.indexOf("://");
+        if (start < 0) {
+            return null;
+        }
+        start += 3;
+        int end = start;
+        while (end < url.length() && "/?#:".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        String host = url.substring(start, end).toLowerCase(Locale.ROOT);
+        String[] labels = host.split("\\.", -1);
+        int count = requiredLabels(labels);
+        if (labels.length < count) {
+            return host.isEmpty() ? null : host;
+        }
+        return String.join(".", Arrays.copyOfRange(labels, labels.length - count, labels.length));
+    }
+
+    /**
+     * 从正则推导该解析器能匹配的全部主域名
+     *
+     * @return 主域名集合，无法推导时返回null
+     */
+    static Set<String> hostKeysOfPattern(Pattern pattern) {
+        if (pattern == null || (pattern.flags() & (Pattern.COMMENTS | Pattern.LITERAL)) != 0) {
+            return null;
+        }
+        String regex = pattern.pattern();
+        String hostRegex = stripScheme(regex);
+        if (hostRegex == null) {
+            return null;
+        }
+        try {
+            List<String> hosts = new RegexExpander(cutHostPart(hostRegex)).expand();
+            Set<String> keys = new LinkedHashSet<>();
+            for (String host : hosts) {
+                String key = hostKeyOfExpansion(host);
+                if (key == null) {
+                    return null;
+                }
+                keys.add(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String stripScheme(String regex) {
+        for (String scheme : new String[]{"https://", "https?://", "http(s)?://", "http://"}) {
+            if (regex.startsWith(scheme)) {
+                return regex.substring(scheme.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 截取正则中域名部分：遇到顶层的 / \? : 为止
+     */
+    private static String cutHostPart(String regex) {
+        int depth = 0;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (!inClass && depth == 0 && i + 1 < regex.length() && regex.charAt(i + 1) == '?') {
+                    return regex.substring(0, i);
+                }
+                i++;
+            } else if (inClass) {
+                inClass = c != ']';
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (depth == 0 && (c == '/' || c == ':')) {
+                return regex.substring(0, i);
+            }
+        }
+        return regex;
+    }
+
+    /**
+     * 由展开后的域名(可能含通配)取主域名，主域名中含通配时返回null
+     */
+    private static String hostKeyOfExpansion(String expansion) {
+        String host = expansion;
+        for (int i = 0; i < host.length(); i++) {
+            if ("/?#:".indexOf(host.charAt(i)) >= 0) {
+                host = host.substring(0, i);
+                break;
+            }
+        }
+        if (host.indexOf(ANY_WILDCARD) >= 0 || host.indexOf('@') >= 0) {
+            return null;
+        }
+        int wildcard = host.lastIndexOf(HOST_WILDCARD);
+        String literal = host.substring(wildcard + 1).toLowerCase(Locale.ROOT);
+        if (wildcard >= 0) {
+            // 通配之后的第一段不完整，从下一个点开始才是完整的域名段
+            int dot = literal.indexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            literal = literal.substring(dot + 1);
+        }
+        if (literal.isEmpty()) {
+            return null;
+        }
+        String[] labels = literal.split("\\.", -1);
+        int count = requiredLabels(labels);
+        if (labels.length < count || Arrays.stream(labels).anyMatch(String::isEmpty)) {
+            return null;
+        }
+        return String.join(".", Arrays.copyOfRange(labels, labels.length - count, labels.length));
+    }
+
+    private static int requiredLabels(String[] labels) {
+        if (labels.length >= 2
+                && labels[labels.length - 1].length() == 2
+                && SECOND_LEVEL_SUFFIXES.contains(labels[labels.length - 2])) {
+            return 3;
+        }
+        return 2;
+    }
+
+    /**
+     * 不可变的 主域名 → 候选列表 索引
+     */
+    private static final class HostIndex<T> {
+        final Map<String, List<T>> byHost;
+        final List<T> unindexed;
+
+        private HostIndex(Map<String, List<T>> byHost, List<T> unindexed) {
+            this.byHost = byHost;
+            this.unindexed = unindexed;
+        }
+
+        static <T> HostIndex<T> build(List<T> items, Function<T, Pattern> patternOf) {
+            List<Set<String>> keysOfItems = new ArrayList<>(items.size());
+            Set<String> allKeys = new LinkedHashSet<>();
+            List<T> unindexed = new ArrayList<>();
+            for (T item : items) {
+                Set<String> keys = hostKeysOfPattern(patternOf.apply(item));
+                keysOfItems.add(keys);
+                if (keys == null) {
+                    unindexed.add(item);
+                } else {
+                    allKeys.addAll(keys);
+                }
+            }
+            // 每个主域名的候选 = 该域名下的解析器 + 无法索引的解析器，保持原顺序
+            Map<String, List<T>> byHost = new HashMap<>();
+            for (String key : allKeys) {
+                List<T> candidates = new ArrayList<>();
+                for (int i = 0; i < items.size(); i++) {
+                    Set<String> keys = keysOfItems.get(i);
+                    if (keys == null || keys.contains(key)) {
+                        candidates.add(items.get(i));
+                    }
+                }
+                byHost.put(key, Collections.unmodifiableList(candidates));
+            }
+            return new HostIndex<>(Map.copyOf(byHost), Collections.unmodifiableList(unindexed));
+        }
+
+        List<T> candidates(String hostKey) {
+            if (hostKey == null) {
+                return unindexed;
+            }
+            return byHost.getOrDefault(hostKey, unindexed);
+        }
+    }
+
+    /**
+     * 把正则的域名部分展开为全部可能的字符串，不定长部分用通配字符表示。
+     * 只支持分享链接正则中常见的写法，遇到其他语法抛出 IllegalArgumentException
+     */
+    private static final class RegexExpander {
+        private final String regex;
+        private int pos;
+
+        RegexExpander(String regex) {
+            this.regex = regex;
+        }
+
+        List<String> expand() {
+            List<String> result = alternation();
+            if (pos != regex.length()) {
+                throw new IllegalArgumentException("unexpected ')' at " + pos);
+            }
+            return result;
+        }
+
+        private List<String> alternation() {
+            List<String> result = new ArrayList<>(sequence());
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos++;
+                result.addAll(sequence());
+                checkSize(result.size());
+            }
+            return result;
+        }
+
+        private List<String> sequence() {
+            List<String> result = new ArrayList<>(List.of(""));
+            while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+                List<String> atom = quantified(atom());
+                checkSize((long) result.size() * atom.size());
+                List<String> next = new ArrayList<>(result.size() * atom.size());
+                for (String prefix : result) {
+                    for (String suffix : atom) {
+                        next.add(prefix + suffix);
+                    }
+                }
+                result = next;
+            }
+            return result;
+        }
+
+        private List<String> atom() {
+            char c = regex.charAt(pos++);
+            switch (c) {
+                case '(':
+                    return group();
+                case '[':
+                    return List.of(String.valueOf(charClass()));
+                case '\\':
+                    return List.of(String.valueOf(escape()));
+                case '.':
+                    return List.of(String.valueOf(ANY_WILDCARD));
+                case '^':
+                case '$':
+                    return List.of("");
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw new IllegalArgumentException("dangling quantifier at " + pos);
+                default:
+                    return List.of(String.valueOf(c));
+            }
+        }
+
+        private List<String> group() {
+            boolean lookaround = false;
+            if (regex.startsWith("?:", pos)) {
+                pos += 2;
+            } else if (regex.startsWith("?=", pos) || regex.startsWith("?!", pos)) {
+                pos += 2;
+                lookaround = true;
+            } else if (regex.startsWith("?<=", pos) || regex.startsWith("?<!", pos)) {
+                pos += 3;
+                lookaround = true;
+            } else if (regex.startsWith("?<", pos)) {
+                int close = regex.indexOf('>', pos);
+                if (close < 0) {
+                    throw new IllegalArgumentException("bad group name at " + pos);
+                }
+                pos = close + 1;
+            } else if (regex.startsWith("?", pos)) {
+                throw new IllegalArgumentException("unsupported group at " + pos);
+            }
+            List<String> inner = alternation();
+            if (pos >= regex.length() || regex.charAt(pos) != ')') {
+                throw new IllegalArgumentException("unclosed group");
+            }
+            pos++;
+            // 零宽断言不消耗字符，只缩小匹配范围，展开时忽略
+            return lookaround ? List.of("") : inner;
+        }
+
+        private char charClass() {
+            boolean hostSafe = pos < regex.length() && regex.charAt(pos) != '^';
+            boolean first = true;
+            while (pos < regex.length()) {
+                char c = regex.charAt(pos++);
+                if (c == ']' && !first) {
+                    return hostSafe ? HOST_WILDCARD : ANY_WILDCARD;
+                }
+                first = false;
+                if (c == '\\') {
+                    if (pos >= regex.length()) {
+                        break;
+                    }
+                    char escaped = regex.charAt(pos++);
+                    if (escaped != 'd' && escaped != 'w' && escaped != '-' && escaped != '_') {
+                        hostSafe = false;
+                    }
+                } else if (c == '[' || "/?#:@.".indexOf(c) >= 0) {
+                    hostSafe = false;
+                }
+            }
+            throw new IllegalArgumentException("unclosed character class");
+        }
+
+        private char escape() {
+            if (pos >= regex.length()) {
+                throw new IllegalArgumentException("trailing backslash");
+            }
+            char c = regex.charAt(pos++);
+            if (c == 'd' || c == 'w') {
+                return HOST_WILDCARD;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                // \s \S \b \1 等
+                throw new IllegalArgumentException("unsupported escape \\" + c);
+            }
+            return c;
+        }
+
+        private List<String> quantified(List<String> atom) {
+            if (pos >= regex.length()) {
+                return atom;
+            }
+            char c = regex.charAt(pos);
+            List<String> result;
+            if (c == '?') {
+                pos++;
+                result = new ArrayList<>(atom);
+                result.add("");
+            } else if (c == '*' || c == '+' || c == '{') {
+                boolean optional = c == '*';
+                if (c == '{') {
+                    int close = regex.indexOf('}', pos);
+                    if (close < 0) {
+                        throw new IllegalArgumentException("unclosed quantifier");
+                    }
+                    optional = regex.startsWith("{0", pos);
+                    pos = close + 1;
+                } else {
+                    pos++;
+                }
+                boolean hostSafe = atom.stream().allMatch(s -> s.chars()
+                        .noneMatch(ch -> ch == ANY_WILDCARD || "/?#:@".indexOf(ch) >= 0));
+                // 保留各分支共同的字面量结尾，如 (?:[a-z\d-]+\.)* 展开为 通配+"."
+                String repeated = hostSafe
+                        ? HOST_WILDCARD + commonLiteralSuffix(atom)
+                        : String.valueOf(ANY_WILDCARD);
+                result = optional ? List.of("", repeated) : List.of(repeated);
+            } else {
+                return atom;
+            }
+            // 懒惰/占有量词后缀
+            if (pos < regex.length() && (regex.charAt(pos) == '?' || regex.charAt(pos) == '+')) {
+                pos++;
+            }
+            return result;
+        }
+
+        private static String commonLiteralSuffix(List<String> expansions) {
+            String suffix = null;
+            for (String s : expansions) {
+                int wildcard = Math.max(s.lastIndexOf(HOST_WILDCARD), s.lastIndexOf(ANY_WILDCARD));
+                String literal = s.substring(wildcard + 1);
+                if (suffix == null) {
+                    suffix = literal;
+                    continue;
+                }
+                int n = 0;
+                while (n < suffix.length() && n < literal.length()
+                        && suffix.charAt(suffix.length() - 1 - n) == literal.charAt(literal.length() - 1 - n)) {
+                    n++;
+                }
+                suffix = suffix.substring(suffix.length() - n);
+            }
+            return suffix == null ? "" : suffix;
+        }
+
+        private void checkSize(long size) {
+            if (size > MAX_EXPANSIONS) {
+                throw new IllegalArgumentException("too many expansions");
+            }
+        }
+    }
+}
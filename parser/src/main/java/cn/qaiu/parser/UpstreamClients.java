@@ -0,0 +1,359 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.WebClientVertxInit;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.ProxyOptions;
+import io.vertx.core.net.ProxyType;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 解析器访问网盘上游的 HTTP 客户端注册表
+ * <p>
+ * 按 客户端类型 + 代理 复用 WebClient/HttpClient，同一客户端内 Vert.x 按目标主机维护独立的连接池，
+ * 解析时复用已建立的 TLS 连接。连接池大小、keep-alive 和 HTTP/2(ALPN 协商，不支持的上游自动回退 HTTP/1.1)
+ * 由 app-*.yml 中的 parserClient 配置。
+ * </p>
+ * <p>
+ * 代理模式的解析器通过 {@link #acquire(Profile, ProxyOptions)} 租用按代理配置共享的客户端，解析结束后释放；
+ * 无人租用且空闲超过 proxyIdleTimeout 的代理客户端会被关闭。
+ * </p>
+ * 配置示例:
+ * <pre>
+ * parserClient:
+ *   maxPoolSize: 32
+ *   http2MaxPoolSize: 2
+ *   keepAliveTimeout: 60
+ *   idleTimeout: 30
+ *   connectTimeout: 10000
+ *   http2: false
+ *   proxyIdleTimeout: 300
+ * </pre>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class UpstreamClients {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamClients.class);
+
+    /**
+     * 客户端类型
+     */
+    public enum Profile {
+        DEFAULT(o -> {}),
+        /** 不自动跳转 */
+        NO_REDIRECTS(o -> o.setFollowRedirects(false)),
+        /** 不发送默认 User-Agent */
+        DISABLE_UA(o -> o.setUserAgentEnabled(false)),
+        /** 代理模式，不发送默认 User-Agent */
+        PROXY(o -> o.setUserAgentEnabled(false)),
+        /** 代理模式，不自动跳转 */
+        PROXY_NO_REDIRECTS(o -> o.setFollowRedirects(false).setUserAgentEnabled(false)),
+        /** 蓝奏云：不跳转，自动解压(部分响应缺少可识别的 Content-Encoding) */
+        LZ(o -> o.setFollowRedirects(false).setDecompressionSupported(true).setUserAgentEnabled(false)
+                .setIdleTimeout(12));
+
+        private final Consumer<WebClientOptions> customizer;
+
+        Profile(Consumer<WebClientOptions> customizer) {
+            this.customizer = customizer;
+        }
+    }
+
+    private static final Object LOCK = new Object();
+    private static final Map<String, WebClient> WEB_CLIENTS = new ConcurrentHashMap<>();
+    private static final Map<String, HttpClient> HTTP_CLIENTS = new ConcurrentHashMap<>();
+    private static final Map<String, Lease> LEASES = new ConcurrentHashMap<>();
+    private static final long SWEEP_INTERVAL_MILLIS = 60 * 1000L;
+    private static long lastSweepAt = System.currentTimeMillis();
+    private static volatile boolean shutdown = false;
+
+    private static volatile int maxPoolSize = 32;
+    private static volatile int http2MaxPoolSize = 2;
+    private static volatile int keepAliveTimeout = 60;
+    private static volatile int idleTimeout = 30;
+    private static volatile int connectTimeout = 10000;
+    private static volatile boolean http2 = false;
+    private static volatile long proxyIdleMillis = 300 * 1000L;
+
+    private UpstreamClients() {}
+
+    /**
+     * 读取 parserClient 配置，只影响之后创建的客户端，应在首次解析前调用
+     *
+     * @param config parserClient 配置, 可为空
+     */
+    public static void configure(JsonObject config) {
+        if (config == null) {
+            return;
+        }
+        maxPoolSize = Math.max(1, config.getInteger("maxPoolSize", maxPoolSize));
+        http2MaxPoolSize = Math.max(1, config.getInteger("http2MaxPoolSize", http2MaxPoolSize));
+        keepAliveTimeout = Math.max(0, config.getInteger("keepAliveTimeout", keepAliveTimeout));
+        idleTimeout = Math.max(0, config.getInteger("idleTimeout", idleTimeout));
+        connectTimeout = Math.max(1, config.getInteger("connectTimeout", connectTimeout));
+        http2 = config.getBoolean("http2", http2);
+        proxyIdleMillis = Math.max(0, config.getInteger("proxyIdleTimeout", (int) (proxyIdleMillis / 1000))) * 1000L;
+        log.info("上游HTTP客户端: maxPoolSize={}, http2={}, http2MaxPoolSize={}, keepAliveTimeout={}s, idleTimeout={}s, " +
+                        "proxyIdleTimeout={}s", maxPoolSize, http2, http2MaxPoolSize, keepAliveTimeout, idleTimeout,
+                proxyIdleMillis / 1000);
+    }
+
+    /**
+     * 按配置生成客户端参数
+     */
+    public static WebClientOptions options(Profile profile) {
+        WebClientOptions options = new WebClientOptions();
+        applyPoolOptions(options);
+        profile.customizer.accept(options);
+        return options;
+    }
+
+    /**
+     * 获取共享的 WebClient
+     */
+    public static WebClient get(Profile profile) {
+        return get(profile, null);
+    }
+
+    /**
+     * 获取共享的 WebClient，相同代理配置复用同一实例
+     *
+     * @param profile      客户端类型
+     * @param proxyOptions 代理, 为空表示直连
+     */
+    public static WebClient get(Profile profile, ProxyOptions proxyOptions) {
+        String key = profile.name() + "|" + proxyKey(proxyOptions);
+        WebClient client = WEB_CLIENTS.get(key);
+        if (client != null) {
+            return client;
+        }
+        synchronized (LOCK) {
+            ensureAvailable();
+            return WEB_CLIENTS.computeIfAbsent(key, k -> {
+                WebClientOptions options = options(profile);
+                if (proxyOptions != null) {
+                    options.setProxyOptions(new ProxyOptions(proxyOptions));
+                }
+                return WebClient.create(WebClientVertxInit.get(), options);
+            });
+        }
+    }
+
+    /**
+     * 租用按代理配置共享的 WebClient，使用完毕后必须调用 {@link Lease#release()}
+     *
+     * @param profile      客户端类型
+     * @param proxyOptions 代理
+     */
+    public static Lease acquire(Profile profile, ProxyOptions proxyOptions) {
+        String key = profile.name() + "|" + proxyKey(proxyOptions);
+        long now = System.currentTimeMillis();
+        synchronized (LOCK) {
+            ensureAvailable();
+            Lease lease = LEASES.computeIfAbsent(key, k -> {
+                WebClientOptions options = options(profile);
+                if (proxyOptions != null) {
+                    options.setProxyOptions(new ProxyOptions(proxyOptions));
+                }
+                log.debug("创建代理 WebClient: {}", k);
+                return new Lease(k, WebClient.create(WebClientVertxInit.get(), options));
+            });
+            lease.refs++;
+            sweepIdleLeases(now);
+            return lease;
+        }
+    }
+
+    /**
+     * 当前缓存的代理客户端数量
+     */
+    static int leaseCount() {
+        return LEASES.size();
+    }
+
+    /**
+     * 关闭无人租用且空闲超时的代理客户端
+     *
+     * @return 关闭的客户端数量
+     */
+    static int evictIdle() {
+        synchronized (LOCK) {
+            long now = System.currentTimeMillis();
+            lastSweepAt = now;
+            return evictIdle(now);
+        }
+    }
+
+    /**
+     * 距上次清理超过1分钟时清理空闲代理客户端，调用方需持有 LOCK
+     */
+    private static void sweepIdleLeases(long now) {
+        if (now - lastSweepAt < SWEEP_INTERVAL_MILLIS) {
+            return;
+        }
+        lastSweepAt = now;
+        evictIdle(now);
+    }
+
+    private static int evictIdle(long now) {
+        int before = LEASES.size();
+        LEASES.values().removeIf(lease -> {
+            if (lease.refs > 0 || now - lease.idleSince < proxyIdleMillis) {
+                return false;
+            }
+            log.debug("关闭空闲代理 WebClient: {}", lease.key);
+            closeQuietly(lease.client::close);
+            return true;
+        });
+        return before - LEASES.size();
+    }
+
+    /**
+     * 获取共享的 HttpClient(供 JS 解析器使用)，相同代理配置复用同一实例
+     *
+     * @param proxyOptions 代理, 为空表示直连
+     */
+    public static HttpClient httpClient(ProxyOptions proxyOptions) {
+        String key = proxyKey(proxyOptions);
+        HttpClient client = HTTP_CLIENTS.get(key);
+        if (client != null) {
+            return client;
+        }
+        synchronized (LOCK) {
+            ensureAvailable();
+            return HTTP_CLIENTS.computeIfAbsent(key, k -> {
+                HttpClientOptions options = new HttpClientOptions();
+                applyPoolOptions(options);
+                if (proxyOptions != null) {
+                    options.setProxyOptions(new ProxyOptions(proxyOptions));
+                }
+                return WebClientVertxInit.get().createHttpClient(options);
+            });
+        }
+    }
+
+    /**
+     * 从 proxy 配置(type/host/port/username/password)生成代理参数
+     *
+     * @return 配置不完整时返回null
+     */
+    public static ProxyOptions proxyOptions(JsonObject proxy) {
+        if (proxy == null || proxy.getString("host") == null || proxy.getInteger("port") == null) {
+            return null;
+        }
+        ProxyOptions proxyOptions = new ProxyOptions()
+                .setType(ProxyType.valueOf(proxy.getString("type", "http").toUpperCase()))
+                .setHost(proxy.getString("host"))
+                .setPort(proxy.getInteger("port"));
+        if (StringUtils.isNotEmpty(proxy.getString("username"))) {
+            proxyOptions.setUsername(proxy.getString("username"));
+        }
+        if (StringUtils.isNotEmpty(proxy.getString("password"))) {
+            proxyOptions.setPassword(proxy.getString("password"));
+        }
+        return proxyOptions;
+    }
+
+    /**
+     * 关闭全部客户端（应用关闭时调用）
+     */
+    public static void shutdown() {
+        synchronized (LOCK) {
+            shutdown = true;
+            WEB_CLIENTS.values().forEach(client -> closeQuietly(client::close));
+            HTTP_CLIENTS.values().forEach(client -> closeQuietly(client::close));
+            LEASES.values().forEach(lease -> closeQuietly(lease.client::close));
+            WEB_CLIENTS.clear();
+            HTTP_CLIENTS.clear();
+            LEASES.clear();
+        }
+    }
+
+    static String proxyKey(ProxyOptions proxyOptions) {
+        if (proxyOptions == null) {
+            return "direct";
+        }
+        return String.join("|", List.of(
+                String.valueOf(proxyOptions.getType()),
+                String.valueOf(proxyOptions.getHost()),
+                String.valueOf(proxyOptions.getPort()),
+                String.valueOf(proxyOptions.getUsername()),
+                String.valueOf(proxyOptions.getPassword() == null ? null : proxyOptions.getPassword().hashCode())));
+    }
+
+    private static void applyPoolOptions(HttpClientOptions options) {
+        options.setConnectTimeout(connectTimeout)
+                .setIdleTimeout(idleTimeout)
+                .setIdleTimeoutUnit(TimeUnit.SECONDS)
+                .setKeepAlive(true)
+                .setKeepAliveTimeout(keepAliveTimeout)
+                .setMaxPoolSize(maxPoolSize);
+        if (http2) {
+            // ALPN 协商失败时回退 HTTP/1.1；明文连接不做 h2c 升级，避免部分上游不兼容
+            options.setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(true)
+                    .setHttp2ClearTextUpgrade(false)
+                    .setHttp2MaxPoolSize(http2MaxPoolSize)
+                    .setHttp2KeepAliveTimeout(keepAliveTimeout);
+        }
+    }
+
+    private static void ensureAvailable() {
+        if (shutdown) {
+            throw new IllegalStateException("上游 HTTP 客户端已关闭");
+        }
+    }
+
+    private static void closeQuietly(Runnable close) {
+        try {
+            close.run();
+        } catch (Exception e) {
+            log.warn("关闭上游 HTTP 客户端失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 代理客户端租约
+     */
+    public static final class Lease {
+        private final String key;
+        private final WebClient client;
+        private int refs;
+        private long idleSince;
+
+        private Lease(String key, WebClient client) {
+            this.key = key;
+            this.client = client;
+        }
+
+        public WebClient client() {
+            return client;
+        }
+
+        /**
+         * 归还租约，同一租约对象被多个持有者共享，由持有者保证每次 acquire 只 release 一次
+         */
+        public void release() {
+            long now = System.currentTimeMillis();
+            synchronized (LOCK) {
+                if (refs > 0 && --refs == 0) {
+                    idleSince = now;
+                }
+                sweepIdleLeases(now);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package cn.qaiu.parser;
+
+import io.vertx.core.http.HttpClosedException;
+import io.vertx.core.http.StreamResetException;
+import io.vertx.core.impl.NoStackTraceThrowable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 上游不可用导致的解析失败: 连接/IO异常、超时、上游返回5xx。
+ * <p>
+ * 与分享失效、密码错误、Cookie过期等上游正常响应的失败区分开，熔断只统计这一类失败。
+ * 不填充栈信息。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public class UpstreamException extends NoStackTraceThrowable {
+
+    public UpstreamException(String message) {
+        super(message);
+    }
+
+    /**
+     * 异常链中是否有上游不可用的异常
+     */
+    public static boolean isUpstreamFailure(Throwable t) {
+        for (Throwable c = t; c != null; c = c.getCause() == c ? null : c.getCause()) {
+            if (c instanceof UpstreamException || c instanceof IOException || c instanceof TimeoutException
+                    || c instanceof HttpClosedException || c instanceof StreamResetException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -4,6 +4,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import cn.qaiu.parser.PanDomainTemplate;
+import cn.qaiu.parser.ShareUrlRouter;
+import cn.qaiu.parser.customjs.JsCompiledScriptCache;
 import cn.qaiu.parser.customjs.JsScriptLoader;
 import cn.qaiu.parser.customjs.JsScriptMetadataParser;
 
@@ -67,6 +69,7 @@ public class CustomParserRegistry {
         }
 
         CUSTOM_PARSERS.put(type, config);
+        ShareUrlRouter.rebuildCustomIndex();
         log.info("注册自定义解析器成功: {} ({})", config.getDisplayName(), type);
     }
 
@@ -184,6 +187,8 @@ public class CustomParserRegistry {
         
         CustomParserConfig removed = CUSTOM_PARSERS.remove(type.toLowerCase());
         if (removed != null) {
+            JsCompiledScriptCache.invalidate(removed.getType());
+            ShareUrlRouter.rebuildCustomIndex();
             log.info("注销自定义解析器: {} ({})", removed.getDisplayName(), type);
             return true;
         }
@@ -221,6 +226,7 @@ public class CustomParserRegistry {
      */
     public static synchronized void clear() {
         CUSTOM_PARSERS.clear();
+        ShareUrlRouter.rebuildCustomIndex();
     }
 
     /**
@@ -0,0 +1,154 @@
+package cn.qaiu.parser.customjs;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自定义JS解析器的预编译脚本缓存
+ * <p>
+ * 所有解析器共用一个带 {@link SecurityClassFilter} 的 Nashorn 引擎，
+ * 安全前置脚本与 fetch-runtime.js 只编译一次，解析器代码按 类型+代码hash 编译一次。
+ * 每次执行只需创建新的全局作用域(Bindings)并执行已编译脚本，不再重复解析/编译JS。
+ * 同一类型的代码变化(如演练场重新发布)时替换旧的编译结果；缓存的类型数超过上限时淘汰最早编译的一个。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class JsCompiledScriptCache {
+
+    private static final Logger log = LoggerFactory.getLogger(JsCompiledScriptCache.class);
+
+    /** 禁用Java对象访问 */
+    private static final String SECURITY_PRELUDE = """
+            var Java = undefined;
+            var JavaImporter = undefined;
+            var Packages = undefined;
+            var javax = undefined;
+            var org = undefined;
+            var com = undefined;
+            """;
+
+    /** 缓存的解析器类型数上限 */
+    static final int MAX_PARSERS = 256;
+
+    private static final Map<String, CompiledParser> PARSERS = new ConcurrentHashMap<>();
+    private static final AtomicLong COMPILE_SEQ = new AtomicLong();
+    private static final Object ENGINE_LOCK = new Object();
+    private static volatile ScriptEngine engine;
+    private static volatile CompiledScript runtime;
+
+    private JsCompiledScriptCache() {}
+
+    /**
+     * 为解析器创建新的全局作用域：注入Java对象，执行安全前置脚本、fetch运行时和解析器代码
+     *
+     * @param config  解析器配置
+     * @param globals 注入到JS全局的对象，如 http、logger、shareLinkInfo、JavaFetch
+     * @return 已初始化的全局作用域，parse/parseFileList/parseById 等函数可从中获取
+     */
+    public static Bindings newScope(CustomParserConfig config, Map<String, Object> globals) throws ScriptException {
+        CompiledScript parser = compiledParser(config);
+        Bindings scope = engine.createBindings();
+        scope.putAll(globals);
+        runtime.eval(scope);
+        parser.eval(scope);
+        return scope;
+    }
+
+    /**
+     * 移除指定类型的编译缓存
+     */
+    public static void invalidate(String type) {
+        if (type != null) {
+            PARSERS.remove(type);
+        }
+    }
+
+    public static int size() {
+        return PARSERS.size();
+    }
+
+    static CompiledScript compiledParser(CustomParserConfig config) throws ScriptException {
+        initEngine();
+        String type = config.getType();
+        String jsCode = config.getJsCode();
+        int codeHash = jsCode.hashCode();
+        CompiledParser cached = PARSERS.get(type);
+        if (cached != null && cached.matches(codeHash, jsCode)) {
+            return cached.script;
+        }
+        CompiledScript script = ((Compilable) engine).compile(jsCode);
+        PARSERS.put(type, new CompiledParser(codeHash, jsCode, script, COMPILE_SEQ.incrementAndGet()));
+        log.debug("JavaScript解析器编译完成并缓存: {}", type);
+        if (PARSERS.size() > MAX_PARSERS) {
+            evictOldest();
+        }
+        return script;
+    }
+
+    /**
+     * 淘汰最早编译的一个，只在编译新脚本时执行
+     */
+    private static void evictOldest() {
+        Map.Entry<String, CompiledParser> oldest = null;
+        for (Map.Entry<String, CompiledParser> entry : PARSERS.entrySet()) {
+            if (oldest == null || entry.getValue().seq < oldest.getValue().seq) {
+                oldest = entry;
+            }
+        }
+        if (oldest != null) {
+            PARSERS.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private static void initEngine() throws ScriptException {
+        if (runtime != null) {
+            return;
+        }
+        synchronized (ENGINE_LOCK) {
+            if (runtime != null) {
+                return;
+            }
+            NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
+            ScriptEngine created = factory.getScriptEngine(new String[0], null, new SecurityClassFilter());
+            if (created == null) {
+                throw new IllegalStateException("无法创建JavaScript引擎，请确保Nashorn可用");
+            }
+            // 加载fetch运行时（Promise和fetch API polyfill）
+            CompiledScript compiledRuntime = ((Compilable) created)
+                    .compile(SECURITY_PRELUDE + "\n" + JsParserExecutor.loadFetchRuntime());
+            engine = created;
+            runtime = compiledRuntime;
+            log.debug("🔒 安全的JavaScript引擎初始化成功，fetch运行时已预编译");
+        }
+    }
+
+    private static final class CompiledParser {
+        final int codeHash;
+        final String jsCode;
+        final CompiledScript script;
+        final long seq;
+
+        CompiledParser(int codeHash, String jsCode, CompiledScript script, long seq) {
+            this.codeHash = codeHash;
+            this.jsCode = jsCode;
+            this.script = script;
+            this.seq = seq;
+        }
+
+        boolean matches(int hash, String code) {
+            return codeHash == hash && jsCode.equals(code);
+        }
+    }
+}
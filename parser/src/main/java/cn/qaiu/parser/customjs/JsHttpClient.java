@@ -1,12 +1,11 @@
 package cn.qaiu.parser.customjs;
 
-import cn.qaiu.WebClientVertxInit;
+import cn.qaiu.parser.UpstreamClients;
 import cn.qaiu.util.HttpResponseHelper;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpClient;
-import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.HttpHeaders;
@@ -15,7 +14,6 @@ import io.vertx.core.http.RequestOptions;
 import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.ProxyOptions;
-import io.vertx.core.net.ProxyType;
 import io.vertx.ext.web.client.HttpResponse;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -56,47 +54,14 @@ public class JsHttpClient {
     private static final int MAX_REDIRECTS = 5;
     private static final String DEFAULT_ACCEPT_ENCODING = "gzip, deflate, br";
 
-    private static final Object SHARED_CLIENT_LOCK = new Object();
-    // 共享 HttpClient 实例（非代理模式），懒加载避免类初始化阶段抢跑 Vert.x。
-    private static volatile HttpClient sharedClient;
-    private static volatile boolean sharedClientShutdown = false;
-
     /**
      * 关闭共享 HttpClient（应用关闭时调用）
      */
     public static void shutdownSharedClient() {
-        synchronized (SHARED_CLIENT_LOCK) {
-            sharedClientShutdown = true;
-            if (sharedClient != null) {
-                sharedClient.close();
-                sharedClient = null;
-            }
-        }
-    }
-
-    private static HttpClient sharedClient() {
-        synchronized (SHARED_CLIENT_LOCK) {
-            ensureSharedClientAvailable();
-            if (sharedClient == null) {
-                sharedClient = WebClientVertxInit.get().createHttpClient(
-                        new HttpClientOptions()
-                                .setConnectTimeout(10000)
-                                .setIdleTimeout(30)
-                                .setIdleTimeoutUnit(TimeUnit.SECONDS)
-                                .setMaxPoolSize(64));
-            }
-            return sharedClient;
-        }
+        UpstreamClients.shutdown();
     }
 
-    private static void ensureSharedClientAvailable() {
-        if (sharedClientShutdown) {
-            throw new IllegalStateException("共享 JavaScript HttpClient 已关闭");
-        }
-    }
-
-    private final HttpClient client;
-    private final boolean ownClient; // 标记是否为自建 client（需要 close）
+    private final HttpClient client; // 由 UpstreamClients 共享，按代理配置复用
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final Object requestLock = new Object();
     private final Set<HttpClientRequest> activeRequests = ConcurrentHashMap.newKeySet();
@@ -117,9 +82,7 @@ public class JsHttpClient {
     };
     
     public JsHttpClient() {
-        ensureSharedClientAvailable();
-        this.client = sharedClient();
-        this.ownClient = false;
+        this.client = UpstreamClients.httpClient(null);
         this.headers = MultiMap.caseInsensitiveMultiMap();
         // 设置默认的Accept-Encoding头以支持压缩响应
         this.headers.set("Accept-Encoding", DEFAULT_ACCEPT_ENCODING);
@@ -134,32 +97,11 @@ public class JsHttpClient {
      * @param proxyConfig 代理配置JsonObject，包含type、host、port、username、password
      */
     public JsHttpClient(JsonObject proxyConfig) {
-        ensureSharedClientAvailable();
-        if (proxyConfig != null && proxyConfig.containsKey("type")) {
-            ProxyOptions proxyOptions = new ProxyOptions()
-                    .setType(ProxyType.valueOf(proxyConfig.getString("type").toUpperCase()))
-                    .setHost(proxyConfig.getString("host"))
-                    .setPort(proxyConfig.getInteger("port"));
-
-            if (StringUtils.isNotEmpty(proxyConfig.getString("username"))) {
-                proxyOptions.setUsername(proxyConfig.getString("username"));
-            }
-            if (StringUtils.isNotEmpty(proxyConfig.getString("password"))) {
-                proxyOptions.setPassword(proxyConfig.getString("password"));
-            }
-
-            this.client = WebClientVertxInit.get().createHttpClient(
-                    new HttpClientOptions()
-                            .setConnectTimeout(10000)
-                            .setIdleTimeout(30)
-                            .setIdleTimeoutUnit(TimeUnit.SECONDS)
-                            .setMaxPoolSize(16)
-                            .setProxyOptions(proxyOptions));
-            this.ownClient = true;
-        } else {
-            this.client = sharedClient();
-            this.ownClient = false;
-        }
+        ProxyOptions proxyOptions = proxyConfig != null && proxyConfig.containsKey("type")
+                ? UpstreamClients.proxyOptions(proxyConfig)
+                : null;
+        // 相同代理配置复用同一连接池
+        this.client = UpstreamClients.httpClient(proxyOptions);
         this.headers = MultiMap.caseInsensitiveMultiMap();
         // 设置默认的Accept-Encoding头以支持压缩响应
         this.headers.set("Accept-Encoding", DEFAULT_ACCEPT_ENCODING);
@@ -908,8 +850,8 @@ public class JsHttpClient {
     }
 
     /**
-     * 关闭 HttpClient 释放连接池资源
-     * 仅关闭自建的 client（代理模式），共享实例不关闭
+     * 取消进行中的请求
+     * HttpClient 由 UpstreamClients 共享管理，这里不关闭
      */
     public void close() {
         if (!closed.compareAndSet(false, true)) {
@@ -925,9 +867,6 @@ public class JsHttpClient {
             }
             activeRequests.clear();
         }
-        if (ownClient && client != null) {
-            client.close();
-        }
     }
 
     private static void ensureResponseBodyLimit(Buffer buffer) {
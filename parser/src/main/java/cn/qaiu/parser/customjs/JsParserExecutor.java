@@ -5,29 +5,35 @@ import cn.qaiu.entity.FileInfo;
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.IPanTool;
 import cn.qaiu.parser.custom.CustomParserConfig;
+import io.vertx.core.Context;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.WorkerExecutor;
 import io.vertx.core.json.JsonObject;
-import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
 import org.openjdk.nashorn.api.scripting.ScriptObjectMirror;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.ScriptEngine;
+import javax.script.Bindings;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -52,20 +58,44 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
                 t.setDaemon(true);
                 return t;
             });
-    private static final long EXECUTION_TIMEOUT_SECONDS = 30;
+    private static final long DEFAULT_EXECUTION_TIMEOUT_SECONDS = 30;
+    private static volatile long executionTimeoutSeconds = DEFAULT_EXECUTION_TIMEOUT_SECONDS;
     private static final int MAX_RESULT_STRING_LENGTH = 1024 * 1024;
     private static final int MAX_FILE_LIST_SIZE = 1000;
     private static final int MAX_FILE_FIELD_LENGTH = 4096;
-    private static final int MAX_CONCURRENT_EXECUTIONS =
+    private static final int DEFAULT_MAX_CONCURRENT_EXECUTIONS =
             Math.max(1, Integer.getInteger("parser.custom.js.maxConcurrentExecutions", 32));
-    private static final Semaphore EXECUTION_PERMITS = new Semaphore(MAX_CONCURRENT_EXECUTIONS);
+    private static volatile int maxConcurrentExecutions = DEFAULT_MAX_CONCURRENT_EXECUTIONS;
+    private static volatile Semaphore EXECUTION_PERMITS = new Semaphore(DEFAULT_MAX_CONCURRENT_EXECUTIONS);
+
+    /**
+     * 执行模式
+     * <ul>
+     *   <li>WORKER: 共享工作线程池，线程数等于最大并发数</li>
+     *   <li>VIRTUAL: 每次执行一个虚拟线程，JsHttpClient 同步等待响应时不占用平台线程(需JDK21+)</li>
+     * </ul>
+     * 两种模式的同时执行数都受 maxConcurrentExecutions 许可限制。JDK21~23 上虚拟线程在 synchronized
+     * 块内阻塞时会钉住载体线程(数量默认等于CPU核数)，脚本 http 请求的等待不在同步块内，
+     * 但不能排除脚本调用的其他代码钉住载体线程，因此 VIRTUAL 模式也需要设置合理的并发上限。
+     */
+    public enum ExecutionMode {
+        WORKER, VIRTUAL
+    }
+
+    private static volatile ExecutionMode executionMode = ExecutionMode.WORKER;
+    private static volatile ExecutorService VIRTUAL_EXECUTOR;
+
+    /** 已获得执行许可、等待线程开始执行的数量 */
+    private static final AtomicInteger QUEUED_EXECUTIONS = new AtomicInteger();
+    /** 并发已满被拒绝的执行次数 */
+    private static final AtomicLong REJECTED_EXECUTIONS = new AtomicLong();
 
     private static volatile String FETCH_RUNTIME_JS = null;
     
     private final CustomParserConfig config;
     private final ShareLinkInfo shareLinkInfo;
-    private volatile ScriptEngine engine;
-    private final Object engineLock = new Object();
+    private volatile Bindings scope;
+    private final Object scopeLock = new Object();
     private final JsHttpClient httpClient;
     private final JsLogger jsLogger;
     private final JsShareLinkInfoWrapper shareLinkInfoWrapper;
@@ -130,68 +160,38 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
     }
     
     /**
-     * 初始化JavaScript引擎（带安全限制）
+     * 初始化JavaScript全局作用域（带安全限制），脚本编译结果由 {@link JsCompiledScriptCache} 复用
      */
-    private ScriptEngine initEngine() {
+    private Bindings initScope() {
         try {
-            // 使用安全的ClassFilter创建Nashorn引擎
-            NashornScriptEngineFactory factory = new NashornScriptEngineFactory();
-            
-            // 正确的方法签名: getScriptEngine(String[] args, ClassLoader appLoader, ClassFilter classFilter)
-            ScriptEngine engine = factory.getScriptEngine(new String[0], null, new SecurityClassFilter());
-            
-            if (engine == null) {
-                throw new RuntimeException("无法创建JavaScript引擎，请确保Nashorn可用");
-            }
-            this.engine = engine;
-            
             // 注入Java对象到JavaScript环境
-            engine.put("http", httpClient);
-            engine.put("logger", jsLogger);
-            engine.put("shareLinkInfo", shareLinkInfoWrapper);
-            engine.put("JavaFetch", fetchBridge);
-            
-            // 禁用Java对象访问
-            engine.eval("var Java = undefined;");
-            engine.eval("var JavaImporter = undefined;");
-            engine.eval("var Packages = undefined;");
-            engine.eval("var javax = undefined;");
-            engine.eval("var org = undefined;");
-            engine.eval("var com = undefined;");
-            
-            // 加载fetch运行时（Promise和fetch API polyfill）
-            String fetchRuntime = loadFetchRuntime();
-            if (!fetchRuntime.isEmpty()) {
-                engine.eval(fetchRuntime);
-                log.debug("✅ Fetch API和Promise polyfill注入成功");
-            }
-            
-            log.debug("🔒 安全的JavaScript引擎初始化成功，解析器类型: {}", config.getType());
-            
-            // 执行JavaScript代码
-            engine.eval(config.getJsCode());
-            
-            return engine;
-            
+            Map<String, Object> globals = new HashMap<>();
+            globals.put("http", httpClient);
+            globals.put("logger", jsLogger);
+            globals.put("shareLinkInfo", shareLinkInfoWrapper);
+            globals.put("JavaFetch", fetchBridge);
+            Bindings scope = JsCompiledScriptCache.newScope(config, globals);
+            log.debug("JavaScript执行作用域初始化成功，解析器类型: {}", config.getType());
+            return scope;
         } catch (Exception e) {
             log.error("JavaScript引擎初始化失败", e);
             throw new RuntimeException("JavaScript引擎初始化失败: " + e.getMessage(), e);
         }
     }
 
-    private ScriptEngine engine() {
-        ScriptEngine current = engine;
+    private Bindings scope() {
+        Bindings current = scope;
         if (current != null) {
             return current;
         }
-        synchronized (engineLock) {
+        synchronized (scopeLock) {
             if (closed.get()) {
                 throw new IllegalStateException("JavaScript解析器已关闭");
             }
-            if (engine == null) {
-                engine = initEngine();
+            if (scope == null) {
+                scope = initScope();
             }
-            return engine;
+            return scope;
         }
     }
 
@@ -247,18 +247,11 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
     }
 
     private void cleanupEngine() {
-        // 清除 ScriptEngine 持有的所有引用和内部状态，帮助 GC 回收
-        if (engine != null) {
+        // 清除本次执行的全局作用域，释放闭包和注入的Java对象；编译结果由缓存复用
+        Bindings current = scope;
+        if (current != null) {
             try {
-                engine.put("http", null);
-                engine.put("logger", null);
-                engine.put("shareLinkInfo", null);
-                engine.put("JavaFetch", null);
-                // 彻底清除 ENGINE_SCOPE bindings，释放 JS AST、编译函数、闭包等运行时状态
-                var bindings = engine.getBindings(javax.script.ScriptContext.ENGINE_SCOPE);
-                if (bindings != null) {
-                    bindings.clear();
-                }
+                current.clear();
             } catch (Exception e) {
                 log.warn("清理 ScriptEngine bindings 失败: {}", e.getMessage());
             }
@@ -274,7 +267,67 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
     }
 
     /**
-     * 关闭全局 WorkerExecutor 和清理调度器（应在应用关闭时调用）
+     * 读取 jsParser 配置，应在首次执行解析前调用
+     * <pre>
+     * jsParser:
+     *   executionMode: virtual
+     *   maxConcurrentExecutions: 256
+     *   executionTimeoutSeconds: 30
+     * </pre>
+     * 当前JDK不支持虚拟线程时回退为 WORKER 模式
+     *
+     * @param config jsParser 配置, 可为空
+     */
+    public static void configure(JsonObject config) {
+        if (config == null) {
+            return;
+        }
+        int maxConcurrent = Math.max(1, config.getInteger("maxConcurrentExecutions", DEFAULT_MAX_CONCURRENT_EXECUTIONS));
+        long timeoutSeconds = Math.max(1, config.getLong("executionTimeoutSeconds", DEFAULT_EXECUTION_TIMEOUT_SECONDS));
+        ExecutionMode mode;
+        try {
+            mode = ExecutionMode.valueOf(config.getString("executionMode", "worker").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("未知的JS解析器执行模式: {}，使用 WORKER", config.getString("executionMode"));
+            mode = ExecutionMode.WORKER;
+        }
+        synchronized (EXECUTOR_LOCK) {
+            if (mode == ExecutionMode.VIRTUAL && VIRTUAL_EXECUTOR == null) {
+                VIRTUAL_EXECUTOR = newVirtualThreadExecutor("newVirtualThreadPerTaskExecutor");
+                if (VIRTUAL_EXECUTOR == null) {
+                    mode = ExecutionMode.WORKER;
+                }
+            }
+            if (maxConcurrent != maxConcurrentExecutions && EXECUTOR != null) {
+                // 工作线程数随并发数变化，下次执行时按新大小重建
+                EXECUTOR.close();
+                EXECUTOR = null;
+            }
+            maxConcurrentExecutions = maxConcurrent;
+            EXECUTION_PERMITS = new Semaphore(maxConcurrent);
+            executionMode = mode;
+            executionTimeoutSeconds = timeoutSeconds;
+        }
+        log.info("JS解析器执行模式: {}, 最大并发: {}, 超时: {}秒", mode, maxConcurrent, timeoutSeconds);
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，编译目标仍为JDK17
+     *
+     * @param factoryMethod Executors 上的工厂方法名
+     * @return 执行器，当前JDK没有该方法时返回 null
+     */
+    static ExecutorService newVirtualThreadExecutor(String factoryMethod) {
+        try {
+            return (ExecutorService) Executors.class.getMethod(factoryMethod).invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("当前JDK({})不支持虚拟线程，JS解析器回退为 WORKER 模式", System.getProperty("java.version"));
+            return null;
+        }
+    }
+
+    /**
+     * 关闭全局 WorkerExecutor、虚拟线程执行器和清理调度器（应在应用关闭时调用）
      */
     public static void shutdownExecutor() {
         synchronized (EXECUTOR_LOCK) {
@@ -284,10 +337,41 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
                 EXECUTOR = null;
                 log.info("JsParserExecutor WorkerExecutor 已关闭");
             }
+            if (VIRTUAL_EXECUTOR != null) {
+                VIRTUAL_EXECUTOR.shutdownNow();
+                VIRTUAL_EXECUTOR = null;
+                log.info("JsParserExecutor 虚拟线程执行器已关闭");
+            }
         }
         CLEANUP_SCHEDULER.shutdown();
     }
 
+    public static ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public static int getMaxConcurrentExecutions() {
+        return maxConcurrentExecutions;
+    }
+
+    /**
+     * 正在占用执行许可的数量(含等待线程开始执行的)
+     */
+    public static int getActiveExecutions() {
+        return Math.max(0, maxConcurrentExecutions - EXECUTION_PERMITS.availablePermits());
+    }
+
+    /**
+     * 已获得许可、等待线程开始执行的数量
+     */
+    public static int getQueuedExecutions() {
+        return QUEUED_EXECUTIONS.get();
+    }
+
+    public static long getRejectedExecutions() {
+        return REJECTED_EXECUTIONS.get();
+    }
+
     /**
      * 获取或创建 WorkerExecutor（懒加载）
      */
@@ -297,50 +381,101 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
                 throw new IllegalStateException("JavaScript解析器 WorkerExecutor 已关闭");
             }
             if (EXECUTOR == null) {
-                EXECUTOR = WebClientVertxInit.get().createSharedWorkerExecutor("parser-executor", 32);
+                EXECUTOR = WebClientVertxInit.get().createSharedWorkerExecutor("parser-executor",
+                        maxConcurrentExecutions);
             }
             return EXECUTOR;
         }
     }
 
     private <T> Future<T> executeBlockingWithPermit(String operation, Callable<T> blockingCode) {
-        if (!EXECUTION_PERMITS.tryAcquire()) {
+        Semaphore permits = EXECUTION_PERMITS;
+        if (!permits.tryAcquire()) {
+            REJECTED_EXECUTIONS.incrementAndGet();
             String message = "JavaScript " + operation + " 执行并发已满，请稍后重试";
             jsLogger.error(message);
             close();
             return Future.failedFuture(message);
         }
 
-        try {
-            return getExecutor().executeBlocking(() -> {
-                boolean executionStarted = false;
-                try {
-                    beginExecution();
-                    executionStarted = true;
-                    return blockingCode.call();
-                } finally {
-                    if (executionStarted) {
-                        finishExecution();
-                    }
-                    EXECUTION_PERMITS.release();
+        QUEUED_EXECUTIONS.incrementAndGet();
+        Callable<T> task = () -> {
+            QUEUED_EXECUTIONS.decrementAndGet();
+            boolean executionStarted = false;
+            try {
+                beginExecution();
+                executionStarted = true;
+                return blockingCode.call();
+            } finally {
+                if (executionStarted) {
+                    finishExecution();
                 }
-            });
+                permits.release();
+            }
+        };
+        try {
+            if (executionMode == ExecutionMode.VIRTUAL) {
+                return executeOnVirtualThread(task);
+            }
+            return getExecutor().executeBlocking(task);
         } catch (Throwable e) {
-            EXECUTION_PERMITS.release();
+            // 提交失败，任务不会执行
+            QUEUED_EXECUTIONS.decrementAndGet();
+            permits.release();
             close();
             return Future.failedFuture(e);
         }
     }
 
+    /**
+     * 在虚拟线程上执行，结果回到调用方的 Vert.x Context 上完成
+     */
+    private static <T> Future<T> executeOnVirtualThread(Callable<T> task) {
+        ExecutorService executor;
+        synchronized (EXECUTOR_LOCK) {
+            if (executorShutdown || VIRTUAL_EXECUTOR == null) {
+                throw new IllegalStateException("JavaScript解析器虚拟线程执行器已关闭");
+            }
+            executor = VIRTUAL_EXECUTOR;
+        }
+        Context context = Vertx.currentContext();
+        Promise<T> promise = Promise.promise();
+        executor.execute(() -> {
+            T result = null;
+            Throwable failure = null;
+            try {
+                result = task.call();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            T finalResult = result;
+            Throwable finalFailure = failure;
+            Runnable complete = () -> {
+                if (finalFailure == null) {
+                    promise.complete(finalResult);
+                } else {
+                    promise.fail(finalFailure);
+                }
+            };
+            if (context != null) {
+                context.runOnContext(v -> complete.run());
+            } else {
+                complete.run();
+            }
+        });
+        return promise.future();
+    }
+
     private <T> Future<T> withTimeout(Future<T> executionFuture, String operation) {
         Promise<T> promise = Promise.promise();
+        long timeoutSeconds = executionTimeoutSeconds;
         try {
             safetyCleanupFuture = CLEANUP_SCHEDULER.schedule(() -> {
-                if (promise.tryFail("JavaScript " + operation + " 执行超时（" + EXECUTION_TIMEOUT_SECONDS + "秒）")) {
+                if (promise.tryFail("JavaScript " + operation + " 执行超时（" + timeoutSeconds + "秒）")) {
                     jsLogger.error("{} 执行超时，已停止外部HTTP资源；ScriptEngine将在执行线程退出后清理", operation);
                     close();
                 }
-            }, EXECUTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }, timeoutSeconds, TimeUnit.SECONDS);
         } catch (Exception e) {
             log.warn("安全网调度失败: {}", e.getMessage());
         }
@@ -362,9 +497,8 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
 
         // 使用executeBlocking在工作线程上执行，避免阻塞EventLoop线程
         Future<String> executionFuture = executeBlockingWithPermit("parse", () -> {
-            ScriptEngine engine = engine();
             // 直接调用全局parse函数
-            Object parseFunction = engine.get("parse");
+            Object parseFunction = scope().get("parse");
             if (parseFunction == null) {
                 throw new RuntimeException("JavaScript代码中未找到parse函数");
             }
@@ -395,9 +529,8 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
 
         // 使用executeBlocking在工作线程上执行，避免阻塞EventLoop线程
         Future<List<FileInfo>> executionFuture = executeBlockingWithPermit("parseFileList", () -> {
-            ScriptEngine engine = engine();
             // 直接调用全局parseFileList函数
-            Object parseFileListFunction = engine.get("parseFileList");
+            Object parseFileListFunction = scope().get("parseFileList");
             if (parseFileListFunction == null) {
                 throw new RuntimeException("JavaScript代码中未找到parseFileList函数");
             }
@@ -430,9 +563,8 @@ public class JsParserExecutor implements IPanTool, AutoCloseable {
 
         // 使用executeBlocking在工作线程上执行，避免阻塞EventLoop线程
         Future<String> executionFuture = executeBlockingWithPermit("parseById", () -> {
-            ScriptEngine engine = engine();
             // 直接调用全局parseById函数
-            Object parseByIdFunction = engine.get("parseById");
+            Object parseByIdFunction = scope().get("parseById");
             if (parseByIdFunction == null) {
                 throw new RuntimeException("JavaScript代码中未找到parseById函数");
             }
@@ -37,15 +37,17 @@ public class Ce4Tool extends PanBase {
         
         try {
             URL url = new URL(shareLinkInfo.getShareUrl());
-            assertPublicHost(url);
             String baseUrl = url.getProtocol() + "://" + url.getHost();
             // 如果有端口，拼接上端口
             if (url.getPort() != -1) {
                 baseUrl += ":" + url.getPort();
             }
-            
-            // 获取分享信息
-            getShareInfo(baseUrl, key, pwd);
+            String finalBaseUrl = baseUrl;
+
+            // 校验目标主机后获取分享信息
+            assertPublicHostAsync(url)
+                    .onSuccess(v -> getShareInfo(finalBaseUrl, key, pwd))
+                    .onFailure(e -> fail(e, "URL解析错误"));
         } catch (Exception e) {
             fail(e, "URL解析错误");
         }
@@ -43,15 +43,17 @@ public class CeTool extends PanBase {
         String pwd = shareLinkInfo.getSharePassword();
         try {
             URL url = new URL(shareLinkInfo.getShareUrl());
-            assertPublicHost(url);
             String baseUrl = url.getProtocol() + "://" + url.getHost();
             // 如果有端口，拼接上端口
             if (url.getPort() != -1) {
                 baseUrl += ":" + url.getPort();
             }
-            
-            // 先检测API版本
-            detectVersionAndParse(baseUrl, key, pwd);
+            String finalBaseUrl = baseUrl;
+
+            // 校验目标主机后先检测API版本
+            assertPublicHostAsync(url)
+                    .onSuccess(v -> detectVersionAndParse(finalBaseUrl, key, pwd))
+                    .onFailure(e -> fail(e, "URL解析错误"));
         } catch (Exception e) {
             fail(e, "URL解析错误");
         }
@@ -1,6 +1,7 @@
 package cn.qaiu.parser.impl;
 
 import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.FileListPage;
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.PanBase;
 import cn.qaiu.util.CommonUtils;
@@ -69,6 +70,11 @@ public class CtTool extends PanBase {
     private static final Pattern FILE_ICON_PATTERN = Pattern.compile("alt=[\"']([^\"']+)[\"']");
     private static final Pattern SUBDIR_PATTERN = Pattern.compile("load_subdir\\s*\\((\\d+)\\s*,\\s*['\"]([^'\"]+)['\"]\\)");
 
+    /**
+     * getdir 返回的文件列表地址, 分页请求复用
+     */
+    private String fileListBaseUrl;
+
     /**
      * 子类重写此构造方法不需要添加额外逻辑
      * 如:
@@ -191,19 +197,94 @@ public class CtTool extends PanBase {
     public Future<List<FileInfo>> parseFileList() {
         Promise<List<FileInfo>> listPromise = Promise.promise();
 
+        final String shareUrl = shareLinkInfo.getShareUrl();
+        final String pwd = shareLinkInfo.getSharePassword();
+
+        resolveFileListBaseUrl()
+                .onSuccess(baseUrl -> fetchFileListPage(baseUrl, 0, 0, new ArrayList<>(), listPromise,
+                        shareLinkInfo.getType(), getDomainName(), shareUrl, pwd))
+                .onFailure(t -> failListPromise(listPromise, t));
+
+        return listPromise.future();
+    }
+
+    @Override
+    public boolean supportsFileListPage() {
+        return true;
+    }
+
+    /**
+     * 按上游分页获取目录文件, 每次调用只请求一页
+     *
+     * @param cursor 游标 start:pageIndex, 为空从头开始
+     * @param limit  每页条数, 超过 {@value #FILE_LIST_PAGE_SIZE} 时按 {@value #FILE_LIST_PAGE_SIZE} 请求;
+     *               与一次性获取相同, 最多读取前 MAX_FILE_LIST_PAGES * FILE_LIST_PAGE_SIZE 个文件, 与 limit 无关
+     */
+    @Override
+    public Future<FileListPage> parseFileListPage(String cursor, int limit) {
+        final int[] position;
+        try {
+            position = parseFileListCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return Future.failedFuture(e);
+        }
+        final int start = position[0];
+        final int length = Math.min(Math.max(1, limit), FILE_LIST_PAGE_SIZE);
+        if (exceedsFileListLimit(start)) {
+            return Future.failedFuture(baseMsg() + " 文件列表解析失败: 分页超过最大限制 " + MAX_FILE_LIST_PAGES
+                    + " (start=" + start + ", length=" + length + ")");
+        }
+
+        final String shareUrl = shareLinkInfo.getShareUrl();
+        final String pwd = shareLinkInfo.getSharePassword();
+
+        return resolveFileListBaseUrl()
+                .compose(baseUrl -> withCtAjaxHeaders(clientSession.getAbs(appendQueryParams(baseUrl,
+                        buildFileListParams(start, length) + "&_=" + System.currentTimeMillis())), shareUrl).send())
+                .compose(res -> {
+                    var listJson = asJson(res);
+                    if (listJson == null || listJson.isEmpty()) {
+                        return Future.failedFuture(baseMsg() + " 文件列表解析失败: 上游返回空响应或非JSON响应"
+                                + " (start=" + start + ", length=" + length + ")");
+                    }
+                    Object aaDataValue = listJson.getValue("aaData");
+                    if (!(aaDataValue instanceof JsonArray)) {
+                        return Future.failedFuture(baseMsg() + " 文件列表解析失败: aaData为空: " + listJson.encode());
+                    }
+                    JsonArray aaData = (JsonArray) aaDataValue;
+                    int total = parseFileListTotal(listJson);
+                    if (isUnexpectedEmptyFileListPage(start, aaData.size(), total)) {
+                        return Future.failedFuture(baseMsg() + " 文件列表解析失败: 上游返回空分页"
+                                + " (start=" + start + ", total=" + total + ")");
+                    }
+                    List<FileInfo> fileList = new ArrayList<>();
+                    parseFileListRows(aaData, fileList, shareLinkInfo.getType(), getDomainName(), shareUrl, pwd);
+                    return Future.succeededFuture(new FileListPage()
+                            .setItems(fileList)
+                            .setTotal(total >= 0 ? total : null)
+                            .setNextCursor(nextFileListCursor(start, aaData.size(), total, length)));
+                });
+    }
+
+    /**
+     * 请求 getdir 接口获取目录文件列表地址, 同一实例分页时只请求一次
+     */
+    private Future<String> resolveFileListBaseUrl() {
+        if (fileListBaseUrl != null) {
+            return Future.succeededFuture(fileListBaseUrl);
+        }
+
         final String shareKey = shareLinkInfo.getShareKey();
         final String shareUrl = shareLinkInfo.getShareUrl();
         final String pwd = shareLinkInfo.getSharePassword();
 
         // shareKey格式: uid-folder_id-hash (例如 64115194-164803691-48508c)
         if (shareKey == null) {
-            listPromise.fail(baseMsg() + " shareKey为空");
-            return listPromise.future();
+            return Future.failedFuture(baseMsg() + " shareKey为空");
         }
         String[] split = shareKey.split("-");
         if (split.length < 2) {
-            listPromise.fail(baseMsg() + " shareKey格式不正确: " + shareKey);
-            return listPromise.future();
+            return Future.failedFuture(baseMsg() + " shareKey格式不正确: " + shareKey);
         }
         String path = extractPath(shareUrl);
         Object dirId = shareLinkInfo.getOtherParam() == null ? null : shareLinkInfo.getOtherParam().get("dirId");
@@ -218,38 +299,31 @@ public class CtTool extends PanBase {
                 .setTemplateParam("rand", String.valueOf(Math.random()))
                 .setTemplateParam("url", shareUrl), shareUrl);
 
-        getDirRequest.send().onSuccess(res -> {
+        return getDirRequest.send().compose(res -> {
             try {
                 var resJson = asJson(res);
                 if (resJson == null || resJson.isEmpty()) {
-                    failListPromise(listPromise, baseMsg() + " 目录解析失败: 上游返回空响应或非JSON响应");
-                    return;
+                    return Future.failedFuture(baseMsg() + " 目录解析失败: 上游返回空响应或非JSON响应");
                 }
                 if (!resJson.containsKey("file")) {
-                    failListPromise(listPromise, baseMsg() + " 目录解析失败: " + resJson.encode());
-                    return;
+                    return Future.failedFuture(baseMsg() + " 目录解析失败: " + resJson.encode());
                 }
                 Object dirInfoValue = resJson.getValue("file");
                 if (!(dirInfoValue instanceof JsonObject)) {
-                    failListPromise(listPromise, baseMsg() + " 目录解析失败: file字段格式错误: " + resJson.encode());
-                    return;
+                    return Future.failedFuture(baseMsg() + " 目录解析失败: file字段格式错误: " + resJson.encode());
                 }
                 JsonObject dirInfo = (JsonObject) dirInfoValue;
                 Object fileListUrlValue = dirInfo.getValue("url");
                 String fileListRelUrl = fileListUrlValue instanceof String ? ((String) fileListUrlValue).trim() : "";
                 if (fileListRelUrl.isBlank()) {
-                    failListPromise(listPromise, baseMsg() + " " + buildDirectoryFailureMessage(resJson, dirInfo));
-                    return;
+                    return Future.failedFuture(baseMsg() + " " + buildDirectoryFailureMessage(resJson, dirInfo));
                 }
-
-                fetchFileListPage(toCtApiUrl(fileListRelUrl), 0, 0, new ArrayList<>(), listPromise,
-                        shareLinkInfo.getType(), getDomainName(), shareUrl, pwd);
+                fileListBaseUrl = toCtApiUrl(fileListRelUrl);
+                return Future.succeededFuture(fileListBaseUrl);
             } catch (Exception e) {
-                failListPromise(listPromise, baseMsg() + " 目录解析失败: " + e.getMessage());
+                return Future.failedFuture(baseMsg() + " 目录解析失败: " + e.getMessage());
             }
-        }).onFailure(t -> failListPromise(listPromise, t));
-
-        return listPromise.future();
+        });
     }
 
     private void fetchFileListPage(String fileListBaseUrl, int start, int pageIndex, List<FileInfo> fileList,
@@ -291,22 +365,7 @@ public class CtTool extends PanBase {
                 return;
             }
             JsonArray aaData = (JsonArray) aaDataValue;
-            for (int i = 0; i < aaData.size(); i++) {
-                try {
-                    Object rowValue = aaData.getValue(i);
-                    if (!(rowValue instanceof JsonArray)) {
-                        log.warn("城通文件列表行格式错误: {}", rowValue);
-                        continue;
-                    }
-                    FileInfo fileInfo = parseFileListRow((JsonArray) rowValue, panType,
-                            domainName, shareUrl, pwd);
-                    if (fileInfo != null) {
-                        fileList.add(fileInfo);
-                    }
-                } catch (Exception e) {
-                    log.warn("解析文件行失败: {}", e.getMessage());
-                }
-            }
+            parseFileListRows(aaData, fileList, panType, domainName, shareUrl, pwd);
 
             int nextStart = start + aaData.size();
             int total = parseFileListTotal(listJson);
@@ -327,6 +386,26 @@ public class CtTool extends PanBase {
         }
     }
 
+    private void parseFileListRows(JsonArray aaData, List<FileInfo> fileList, String panType,
+                                   String domainName, String shareUrl, String pwd) {
+        for (int i = 0; i < aaData.size(); i++) {
+            try {
+                Object rowValue = aaData.getValue(i);
+                if (!(rowValue instanceof JsonArray)) {
+                    log.warn("城通文件列表行格式错误: {}", rowValue);
+                    continue;
+                }
+                FileInfo fileInfo = parseFileListRow((JsonArray) rowValue, panType,
+                        domainName, shareUrl, pwd);
+                if (fileInfo != null) {
+                    fileList.add(fileInfo);
+                }
+            } catch (Exception e) {
+                log.warn("解析文件行失败: {}", e.getMessage());
+            }
+        }
+    }
+
     @Override
     public Future<String> parseById() {
         Object paramValue = shareLinkInfo.getOtherParam().get("paramJson");
@@ -546,11 +625,61 @@ public class CtTool extends PanBase {
     }
 
     static boolean shouldFetchNextFileListPage(int start, int rowCount, int total) {
+        return shouldFetchNextFileListPage(start, rowCount, total, FILE_LIST_PAGE_SIZE);
+    }
+
+    static boolean shouldFetchNextFileListPage(int start, int rowCount, int total, int length) {
         if (rowCount <= 0) {
             return false;
         }
         int fetchedThrough = start + rowCount;
-        return total < 0 ? rowCount >= FILE_LIST_PAGE_SIZE : fetchedThrough < total;
+        return total < 0 ? rowCount >= length : fetchedThrough < total;
+    }
+
+    static String fileListCursor(int start, int pageIndex) {
+        return start + ":" + pageIndex;
+    }
+
+    /**
+     * 下一页游标, pageIndex 为已读完的上游整页数(每页 {@value #FILE_LIST_PAGE_SIZE} 条), 与调用方每页条数无关
+     *
+     * @return 没有更多时返回 null
+     */
+    static String nextFileListCursor(int start, int rowCount, int total, int length) {
+        if (!shouldFetchNextFileListPage(start, rowCount, total, length)) {
+            return null;
+        }
+        int nextStart = start + rowCount;
+        return fileListCursor(nextStart, nextStart / FILE_LIST_PAGE_SIZE);
+    }
+
+    /**
+     * 起始偏移是否超过一次性获取时能读到的范围 MAX_FILE_LIST_PAGES * FILE_LIST_PAGE_SIZE
+     */
+    static boolean exceedsFileListLimit(int start) {
+        return start >= MAX_FILE_LIST_PAGES * FILE_LIST_PAGE_SIZE;
+    }
+
+    /**
+     * 解析分页游标 start:pageIndex, 只有 start 时按 {@value #FILE_LIST_PAGE_SIZE} 条一页推算 pageIndex
+     *
+     * @return [start, pageIndex]
+     * @throws IllegalArgumentException 游标格式错误时
+     */
+    static int[] parseFileListCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new int[]{0, 0};
+        }
+        String[] parts = cursor.trim().split(":", -1);
+        try {
+            int start = Integer.parseInt(parts[0]);
+            int pageIndex = parts.length > 1 ? Integer.parseInt(parts[1]) : start / FILE_LIST_PAGE_SIZE;
+            if (parts.length <= 2 && start >= 0 && pageIndex >= 0) {
+                return new int[]{start, pageIndex};
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException("无效的分页游标: " + cursor);
     }
 
     static boolean isUnexpectedEmptyFileListPage(int start, int rowCount, int total) {
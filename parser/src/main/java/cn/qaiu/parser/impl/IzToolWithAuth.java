@@ -5,6 +5,7 @@ import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.PanBase;
 import cn.qaiu.util.AESUtils;
 import cn.qaiu.util.AcwScV2Generator;
+import cn.qaiu.util.ChallengeCookieCache;
 import cn.qaiu.util.CommonUtils;
 import cn.qaiu.util.FileSizeConverter;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
@@ -30,6 +31,7 @@ import java.util.UUID;
 public class IzToolWithAuth extends PanBase {
 
     private static final String API_URL0 = "https://api.ilanzou.com/";
+    private static final String COOKIE_DOMAIN = ".ilanzou.com";
     private static final String API_URL_PREFIX = "https://api.ilanzou.com/unproved/";
 
     private static final String FIRST_REQUEST_URL = API_URL_PREFIX + "recommend/list?devType=6&devModel=Chrome" +
@@ -57,7 +59,7 @@ public class IzToolWithAuth extends PanBase {
             "={folderId}&offset=1&limit=60";
 
 
-    WebClientSession webClientSession = WebClientSession.create(clientNoRedirects);
+    WebClientSession webClientSession = createSession();
 
     private static final MultiMap header;
 
@@ -137,6 +139,18 @@ public class IzToolWithAuth extends PanBase {
         return promise.future();
     }
 
+    /**
+     * 创建会话，带上已缓存的 acw_sc__v2，通常可跳过挑战页
+     */
+    private WebClientSession createSession() {
+        WebClientSession session = WebClientSession.create(clientNoRedirects);
+        ChallengeCookieCache.Entry cached = ChallengeCookieCache.get(COOKIE_DOMAIN);
+        if (cached != null) {
+            putCookie(session, cached.name(), cached.value());
+        }
+        return session;
+    }
+
     /**
      * 设置 cookie
      */
@@ -144,13 +158,19 @@ public class IzToolWithAuth extends PanBase {
         int beginIndex = html.indexOf("arg1='") + 6;
         String arg1 = html.substring(beginIndex, html.indexOf("';", beginIndex));
         String acw_sc__v2 = AcwScV2Generator.acwScV2Simple(arg1);
+        putCookie(webClientSession, "acw_sc__v2", acw_sc__v2);
+        // 新挑战说明缓存值已失效，覆盖缓存
+        ChallengeCookieCache.put(COOKIE_DOMAIN, "acw_sc__v2", acw_sc__v2);
+    }
+
+    private static void putCookie(WebClientSession session, String name, String value) {
         // 创建一个 Cookie 并放入 CookieStore
-        DefaultCookie nettyCookie = new DefaultCookie("acw_sc__v2", acw_sc__v2);
-        nettyCookie.setDomain(".ilanzou.com"); // 设置域名
+        DefaultCookie nettyCookie = new DefaultCookie(name, value);
+        nettyCookie.setDomain(COOKIE_DOMAIN); // 设置域名
         nettyCookie.setPath("/");             // 设置路径
         nettyCookie.setSecure(false);
         nettyCookie.setHttpOnly(false);
-        webClientSession.cookieStore().put(nettyCookie);
+        session.cookieStore().put(nettyCookie);
     }
 
     /**
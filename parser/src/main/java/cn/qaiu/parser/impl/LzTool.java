@@ -4,6 +4,7 @@ import cn.qaiu.WebClientVertxInit;
 import cn.qaiu.entity.FileInfo;
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.parser.PanBase;
+import cn.qaiu.parser.UpstreamClients;
 import cn.qaiu.util.*;
 import io.netty.handler.codec.http.cookie.DefaultCookie;
 import io.vertx.core.Future;
@@ -12,10 +13,8 @@ import io.vertx.core.Promise;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.net.ProxyOptions;
-import io.vertx.core.net.ProxyType;
 import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
-import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.client.WebClientSession;
 import org.openjdk.nashorn.api.scripting.ScriptObjectMirror;
 
@@ -142,36 +141,14 @@ public class LzTool extends PanBase {
     /**
      * ESA 对 gzip 响应常见不带可识别的 Content-Encoding，需客户端自动解压；
      * 开源版没有 createBaseClientOptions，这里按 PanBase 同样规则带上 proxy，避免绕过全局代理。
+     * 客户端由 UpstreamClients 按代理配置共享，复用到蓝奏云的连接。
      */
     private static WebClient createLzClient(ShareLinkInfo shareLinkInfo) {
-        WebClientOptions opts = new WebClientOptions()
-                .setConnectTimeout(10000)
-                .setFollowRedirects(false)
-                .setDecompressionSupported(true)
-                .setUserAgentEnabled(false)
-                .setIdleTimeout(12);
+        ProxyOptions proxyOptions = null;
         if (shareLinkInfo != null && shareLinkInfo.getOtherParam().containsKey("proxy")) {
-            JsonObject proxy = (JsonObject) shareLinkInfo.getOtherParam().get("proxy");
-            if (proxy != null && proxy.getString("host") != null && proxy.getInteger("port") != null) {
-                ProxyOptions proxyOptions = new ProxyOptions()
-                        .setType(ProxyType.valueOf(proxy.getString("type", "http").toUpperCase()))
-                        .setHost(proxy.getString("host"))
-                        .setPort(proxy.getInteger("port"));
-                String username = proxy.getString("username");
-                if (username != null && !username.isEmpty()) {
-                    proxyOptions.setUsername(username);
-                }
-                String password = proxy.getString("password");
-                if (password != null && !password.isEmpty()) {
-                    proxyOptions.setPassword(password);
-                }
-                opts.setProxyOptions(proxyOptions);
-            }
-        }
-        if (opts.getConnectTimeout() <= 0) {
-            opts.setConnectTimeout(10000);
+            proxyOptions = UpstreamClients.proxyOptions((JsonObject) shareLinkInfo.getOtherParam().get("proxy"));
         }
-        return WebClient.create(WebClientVertxInit.get(), opts);
+        return UpstreamClients.get(UpstreamClients.Profile.LZ, proxyOptions);
     }
 
     /**
@@ -361,8 +338,12 @@ public class LzTool extends PanBase {
                 () -> webClientSession.postAbs(url).timeout(REQUEST_TIMEOUT).putHeaders(headers).sendForm(form));
     }
 
-    /** ESA 挑战页只需算出 acw_sc__v2 后原样重放一次，各解析步骤共用。 */
+    /**
+     * ESA 挑战页只需算出 acw_sc__v2 后原样重放一次，各解析步骤共用。
+     * 算出的 Cookie 按主机缓存，后续解析先带上，通常不再触发挑战。
+     */
     private Future<String> sendWithArg1Retry(String url, Supplier<Future<HttpResponse<Buffer>>> sender) {
+        seedArg1Cookie(url);
         return sender.get().map(this::asText).compose(html -> {
             if (html == null || !html.contains(ARG1_MARK)) {
                 return Future.succeededFuture(html);
@@ -370,21 +351,36 @@ public class LzTool extends PanBase {
             if (!applyArg1Cookie(html, url)) {
                 return Future.failedFuture("蓝奏云反爬 arg1 Cookie 解析失败，页面内容异常");
             }
-            return sender.get().map(this::asText).compose(retried ->
-                    retried != null && retried.contains(ARG1_MARK)
-                            ? Future.failedFuture("蓝奏云反爬校验失败，请稍后重试")
-                            : Future.succeededFuture(retried));
+            return sender.get().map(this::asText).compose(retried -> {
+                if (retried != null && retried.contains(ARG1_MARK)) {
+                    ChallengeCookieCache.invalidate(hostOf(url));
+                    return Future.failedFuture("蓝奏云反爬校验失败，请稍后重试");
+                }
+                return Future.succeededFuture(retried);
+            });
         });
     }
 
+    /** 带上该主机已缓存的 acw_sc__v2 */
+    private void seedArg1Cookie(String url) {
+        ChallengeCookieCache.Entry cached = ChallengeCookieCache.get(hostOf(url));
+        if (cached != null) {
+            putSessionCookie(cached.name(), cached.value(), url, null);
+        }
+    }
+
     private boolean applyArg1Cookie(String html, String url) {
         int beginIndex = html.indexOf("arg1='") + 6;
         int endIndex = html.indexOf("';", beginIndex);
         if (beginIndex < 6 || endIndex == -1 || endIndex <= beginIndex) {
+            ChallengeCookieCache.invalidate(hostOf(url));
             return false;
         }
         String arg1 = html.substring(beginIndex, endIndex);
-        putSessionCookie("acw_sc__v2", AcwScV2Generator.acwScV2Simple(arg1), url, null);
+        String acwScV2 = AcwScV2Generator.acwScV2Simple(arg1);
+        putSessionCookie("acw_sc__v2", acwScV2, url, null);
+        // 新挑战说明旧值已失效，覆盖缓存
+        ChallengeCookieCache.put(hostOf(url), "acw_sc__v2", acwScV2);
         return true;
     }
 
@@ -631,6 +627,10 @@ public class LzTool extends PanBase {
             webClientSession.cookieStore().put(parentCookie);
         }
 
+        if (!arg1Retried) {
+            seedArg1Cookie(downUrl);
+        }
+
         String origin = originOf(downUrl, "https://developer2.lanrar.com");
         MultiMap h = lanrarPageHeaders(origin);
         webClientSession.getAbs(downUrl).timeout(DOWNLOAD_TIMEOUT).putHeaders(h).send()
@@ -648,6 +648,7 @@ public class LzTool extends PanBase {
                             followFileUrl(downUrl, true);
                             return;
                         }
+                        ChallengeCookieCache.invalidate(host);
                         fail("蓝奏下载域反爬校验失败，请稍后重试");
                         return;
                     }
@@ -907,17 +908,18 @@ public class LzTool extends PanBase {
             if (webpage != null) {
                 shareLinkInfo.getOtherParam().put("webpage", webpage);
             }
-            AjaxCall call = extractFolderAjax(html, pwd);
-            if (call == null) {
-                call = folderAjaxFromJs(html, pwd);
-            }
-            log.debug("解析参数: {}", call.form());
-
-            String url = joinUrl(originOf(sUrl, SHARE_ORIGIN) + "/", call.path());
-            postFormWithArg1Retry(url, folderListHeaders(sUrl), call.toForm())
-                    .onSuccess(body -> handleFileListResponse(body, listPromise))
+            AjaxCall extracted = extractFolderAjax(html, pwd);
+            // 回退执行页面 JS 时在工作线程上执行
+            Future<AjaxCall> callFuture = extracted != null
+                    ? Future.succeededFuture(extracted)
+                    : executeBlocking(() -> folderAjaxFromJs(html, pwd));
+            callFuture.compose(call -> {
+                log.debug("解析参数: {}", call.form());
+                String url = joinUrl(originOf(sUrl, SHARE_ORIGIN) + "/", call.path());
+                return postFormWithArg1Retry(url, folderListHeaders(sUrl), call.toForm());
+            }).onSuccess(body -> handleFileListResponse(body, listPromise))
                     .onFailure(listPromise::fail);
-        } catch (ScriptException | NoSuchMethodException | RuntimeException e) {
+        } catch (RuntimeException e) {
             listPromise.fail(e);
         }
     }
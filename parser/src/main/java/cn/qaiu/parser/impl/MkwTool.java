@@ -47,24 +47,26 @@ public class MkwTool extends PanBase {
 
             var key = matcher.group(1);
             var token = matcher.group(2);
-            String sign = JsExecUtils.getKwSign(token, key);
-            log.debug("sign: {}", sign);
-            clientSession.getAbs(UriTemplate.of(API_URL)).setTemplateParam("mid", shareLinkInfo.getShareKey())
-                    .putHeader("Secret", sign).send().onSuccess(res -> {
-                        JsonObject json = asJson(res);
-                        log.debug(json.encodePrettily());
-                        try {
-                            if (json.getInteger("code") == 200) {
-                                complete(json.getJsonObject("data").getString("url"));
-                            } else {
-                                fail("链接已失效/需要VIP");
-                            }
+            // 签名由 Nashorn 计算，在工作线程上执行
+            executeBlocking(() -> JsExecUtils.getKwSign(token, key)).compose(sign -> {
+                log.debug("sign: {}", sign);
+                return clientSession.getAbs(UriTemplate.of(API_URL)).setTemplateParam("mid", shareLinkInfo.getShareKey())
+                        .putHeader("Secret", sign).send();
+            }).onSuccess(res -> {
+                JsonObject json = asJson(res);
+                log.debug(json.encodePrettily());
+                try {
+                    if (json.getInteger("code") == 200) {
+                        complete(json.getJsonObject("data").getString("url"));
+                    } else {
+                        fail("链接已失效/需要VIP");
+                    }
 
-                        } catch (Exception e) {
-                            log.error("解析失败", e);
-                            fail("解析失败");
-                        }
-                    }).onFailure(handleFail("获取下载链接失败"));
+                } catch (Exception e) {
+                    log.error("解析失败", e);
+                    fail("解析失败");
+                }
+            }).onFailure(handleFail("获取下载链接失败"));
         }).onFailure(handleFail("请求分享页面失败"));
 
         return promise.future();
@@ -135,13 +135,13 @@ public class YeTool extends PanBase {
     }
 
     private void down(WebClient client, JsonObject jsonObject, String api) {
-        ScriptObjectMirror getSign;
-        try {
-            getSign = JsExecUtils.executeJs("getSign", "/a/api/share/download/info");
-        } catch (Exception e) {
-            fail(e, "JS函数执行异常");
-            return;
-        }
+        // 签名由 Nashorn 计算，在工作线程上执行
+        executeBlocking(() -> JsExecUtils.executeJs("getSign", "/a/api/share/download/info"))
+                .onSuccess(getSign -> down(client, jsonObject, api, getSign))
+                .onFailure(e -> fail(e, "JS函数执行异常"));
+    }
+
+    private void down(WebClient client, JsonObject jsonObject, String api, ScriptObjectMirror getSign) {
         log.info("ye getSign: {}={}", getSign.get("0").toString(), getSign.get("1").toString());
 
         client.postAbs(UriTemplate.of(api))
@@ -0,0 +1,137 @@
+package cn.qaiu.util;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有容量上限的本地过期缓存
+ * <p>
+ * 条目按到期时间另建有序索引，超出容量时从索引头部依次淘汰：已过期的条目到期最早，先被淘汰，
+ * 之后是最早到期的条目。每次淘汰 O(log n)，不需要在请求线程上扫描或排序整个缓存。
+ * 清理过期条目同样只访问索引头部。
+ * </p>
+ *
+ * @param <K> 缓存key
+ * @param <V> 缓存值
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private static final Comparator<Node<?, ?>> ORDER =
+            Comparator.<Node<?, ?>>comparingLong(n -> n.expireAt).thenComparingLong(n -> n.seq);
+
+    private final Map<K, Node<K, V>> map = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Node<K, V>> index = new ConcurrentSkipListSet<>(ORDER);
+    private final AtomicLong seq = new AtomicLong();
+    private volatile int maxSize;
+
+    public BoundedTtlCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * 获取未过期的值，已过期的条目顺便移除
+     *
+     * @return 未命中或已过期返回null
+     */
+    public V get(K key, long now) {
+        Node<K, V> node = key == null ? null : map.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.expireAt <= now) {
+            remove(node);
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * 写入缓存，超出容量时淘汰到期最早的条目
+     *
+     * @param expireAt 过期时间戳(毫秒)
+     * @return 本次淘汰的条目数
+     */
+    public int put(K key, V value, long expireAt) {
+        Node<K, V> node = new Node<>(key, value, expireAt, seq.incrementAndGet());
+        map.compute(key, (k, old) -> {
+            if (old != null) {
+                index.remove(old);
+            }
+            index.add(node);
+            return node;
+        });
+        int evicted = 0;
+        while (map.size() > maxSize) {
+            Node<K, V> eldest = index.pollFirst();
+            if (eldest == null) {
+                break;
+            }
+            if (map.remove(eldest.key, eldest)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public void remove(K key) {
+        Node<K, V> node = key == null ? null : map.get(key);
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    /**
+     * 清理已过期的条目
+     *
+     * @return 清理的条目数
+     */
+    public int purgeExpired(long now) {
+        int removed = 0;
+        for (Node<K, V> node : index) {
+            if (node.expireAt > now) {
+                break;
+            }
+            if (index.remove(node) && map.remove(node.key, node)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public void clear() {
+        map.clear();
+        index.clear();
+    }
+
+    private void remove(Node<K, V> node) {
+        if (map.remove(node.key, node)) {
+            index.remove(node);
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final long expireAt;
+        final long seq;
+
+        Node(K key, V value, long expireAt, long seq) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+            this.seq = seq;
+        }
+    }
+}
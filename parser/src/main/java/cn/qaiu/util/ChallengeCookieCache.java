@@ -0,0 +1,89 @@
+package cn.qaiu.util;
+
+import java.util.Locale;
+
+/**
+ * 反爬挑战 Cookie 缓存
+ * <p>
+ * ESA 挑战页(var arg1='...')算出的 acw_sc__v2 在有效期内对同一主机的后续请求都有效，
+ * 按主机共享后新会话可预先带上，省去一次挑战请求和计算。
+ * 上游再次下发挑战说明缓存值已失效，调用方应以新算出的值覆盖。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class ChallengeCookieCache {
+
+    /**
+     * 缓存有效期，短于上游 acw_sc__v2 的 30 分钟有效期
+     */
+    static final long TTL_MILLIS = 25 * 60 * 1000L;
+
+    private static final int MAX_HOSTS = 512;
+
+    private static final BoundedTtlCache<String, Entry> CACHE = new BoundedTtlCache<>(MAX_HOSTS);
+
+    private ChallengeCookieCache() {}
+
+    /**
+     * 记录主机的挑战 Cookie
+     *
+     * @param host  主机名或 Cookie 域
+     * @param name  Cookie 名
+     * @param value Cookie 值
+     */
+    public static void put(String host, String name, String value) {
+        String key = normalize(host);
+        if (key == null || name == null || value == null || value.isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(name, value, System.currentTimeMillis() + TTL_MILLIS);
+        CACHE.put(key, entry, entry.expireAt());
+    }
+
+    /**
+     * 获取主机未过期的挑战 Cookie
+     *
+     * @return 未命中返回null
+     */
+    public static Entry get(String host) {
+        String key = normalize(host);
+        return key == null ? null : CACHE.get(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 缓存值被上游拒绝(仍返回挑战页)时移除
+     */
+    public static void invalidate(String host) {
+        String key = normalize(host);
+        if (key != null) {
+            CACHE.remove(key);
+        }
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static String normalize(String host) {
+        if (host == null || host.isBlank()) {
+            return null;
+        }
+        String key = host.trim().toLowerCase(Locale.ROOT);
+        return key.startsWith(".") ? key.substring(1) : key;
+    }
+
+    /**
+     * 挑战 Cookie
+     *
+     * @param name     Cookie 名
+     * @param value    Cookie 值
+     * @param expireAt 过期时间戳(毫秒)
+     */
+    public record Entry(String name, String value, long expireAt) {
+    }
+}
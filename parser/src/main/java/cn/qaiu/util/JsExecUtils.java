@@ -45,8 +45,7 @@ public class JsExecUtils {
     }
 
     /**
-     * 调用执行蓝奏云js文件（每次动态JS代码，无法复用引擎）
-     * 注意：使用后清理引擎引用，帮助 GC 回收 Nashorn 引擎内部资源
+     * 调用执行蓝奏云js文件（页面JS每次不同，引擎和已编译的伪 DOM 脚本从 {@link LzScriptEnginePool} 复用）
      */
     public static ScriptObjectMirror executeDynamicJs(String jsText, String funName) throws ScriptException,
             NoSuchMethodException {
@@ -58,9 +57,9 @@ public class JsExecUtils {
      */
     public static ScriptObjectMirror executeDynamicJs(String jsText, String funName, String pwd) throws ScriptException,
             NoSuchMethodException {
-        ScriptEngine engine = ENGINE_MANAGER.getEngineByName("JavaScript");
+        LzScriptEnginePool.PooledEngine pooled = LzScriptEnginePool.borrow();
         try {
-            engine.eval(JsContent.lz);
+            ScriptEngine engine = pooled.engine();
             Invocable inv = (Invocable) engine;
             if (pwd != null) {
                 inv.invokeFunction("__lzSetPwd", pwd);
@@ -79,7 +78,7 @@ public class JsExecUtils {
             }
             return asSignObj(engine.get("signObj"));
         } finally {
-            clearEngineBindings(engine);
+            LzScriptEnginePool.giveBack(pooled);
         }
     }
 
@@ -0,0 +1,105 @@
+package cn.qaiu.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 蓝奏云动态JS执行的引擎池
+ * <p>
+ * 每个引擎创建时已编译好 {@link JsContent#lz} 伪 DOM 脚本；借出时换上一份新的全局作用域(Bindings)
+ * 并执行已编译的伪 DOM，归还时清空该作用域，页面脚本之间互不污染。
+ * 池满时多出的引擎直接丢弃，池空时临时创建，不会阻塞调用方。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class LzScriptEnginePool {
+
+    private static final Logger log = LoggerFactory.getLogger(LzScriptEnginePool.class);
+
+    private static final int MAX_IDLE = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final ScriptEngineManager ENGINE_MANAGER = new ScriptEngineManager();
+    private static final BlockingQueue<PooledEngine> IDLE = new ArrayBlockingQueue<>(MAX_IDLE);
+
+    private LzScriptEnginePool() {}
+
+    /**
+     * 借出引擎，当前作用域为已执行过伪 DOM 脚本的新全局作用域
+     */
+    public static PooledEngine borrow() throws ScriptException {
+        PooledEngine engine = IDLE.poll();
+        if (engine == null) {
+            engine = new PooledEngine();
+        }
+        try {
+            engine.resetScope();
+        } catch (ScriptException | RuntimeException e) {
+            engine.releaseScope();
+            throw e;
+        }
+        return engine;
+    }
+
+    /**
+     * 归还引擎，清空本次使用的作用域
+     */
+    public static void giveBack(PooledEngine engine) {
+        if (engine == null) {
+            return;
+        }
+        engine.releaseScope();
+        if (!IDLE.offer(engine)) {
+            log.debug("蓝奏云JS引擎池已满，丢弃引擎");
+        }
+    }
+
+    public static int idleSize() {
+        return IDLE.size();
+    }
+
+    /**
+     * 池化的引擎，同一时刻只允许一个调用方使用
+     */
+    public static final class PooledEngine {
+        private final ScriptEngine engine;
+        private final CompiledScript lzShim;
+        private final Bindings idleBindings;
+
+        private PooledEngine() throws ScriptException {
+            this.engine = ENGINE_MANAGER.getEngineByName("JavaScript");
+            this.lzShim = ((Compilable) engine).compile(JsContent.lz);
+            this.idleBindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+        }
+
+        public ScriptEngine engine() {
+            return engine;
+        }
+
+        private void resetScope() throws ScriptException {
+            engine.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+            lzShim.eval();
+        }
+
+        private void releaseScope() {
+            try {
+                Bindings used = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+                engine.setBindings(idleBindings, ScriptContext.ENGINE_SCOPE);
+                if (used != null && used != idleBindings) {
+                    used.clear();
+                }
+            } catch (Exception ignored) {
+                // 清理失败不影响主流程
+            }
+        }
+    }
+}
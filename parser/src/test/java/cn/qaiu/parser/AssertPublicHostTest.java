@@ -1,9 +1,14 @@
 package cn.qaiu.parser;
 
+import cn.qaiu.WebClientVertxInit;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -41,4 +46,21 @@ public class AssertPublicHostTest {
     public void allowsPublicHost() throws Exception {
         PanBase.assertPublicHost(new URL("https://example.com/s/demo"));
     }
+
+    @Test
+    public void asyncCheckRejectsPrivateHost() throws Exception {
+        Vertx vertx = Vertx.vertx();
+        WebClientVertxInit.init(vertx);
+        try {
+            Future<Void> blocked = PanBase.assertPublicHostAsync(new URL("http://localhost/s/poc"));
+            try {
+                blocked.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+                fail("expected block for localhost");
+            } catch (ExecutionException expected) {
+                assertTrue(expected.getCause() instanceof IOException);
+            }
+        } finally {
+            vertx.close();
+        }
+    }
 }
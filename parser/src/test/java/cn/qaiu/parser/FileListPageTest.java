@@ -0,0 +1,70 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.FileListPage;
+import io.vertx.core.Future;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 文件列表分页测试
+ */
+public class FileListPageTest {
+
+    private static List<FileInfo> files(int count) {
+        List<FileInfo> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            list.add(new FileInfo().setFileName("f" + i));
+        }
+        return list;
+    }
+
+    @Test
+    public void testSliceByOffsetCursor() {
+        List<FileInfo> list = files(5);
+
+        FileListPage first = FileListPage.slice(list, null, 2);
+        assertEquals(2, first.getItems().size());
+        assertEquals("f0", first.getItems().get(0).getFileName());
+        assertEquals("2", first.getNextCursor());
+        assertEquals(Integer.valueOf(5), first.getTotal());
+
+        FileListPage last = FileListPage.slice(list, "4", 2);
+        assertEquals(1, last.getItems().size());
+        assertFalse(last.isHasMore());
+
+        assertTrue(FileListPage.slice(list, "10", 2).getItems().isEmpty());
+
+        // 解析器分页游标 offset:pageIndex 只取偏移
+        assertEquals("f2", FileListPage.slice(list, "2:1", 2).getItems().get(0).getFileName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        FileListPage.slice(files(1), "abc", 2);
+    }
+
+    @Test
+    public void testDefaultPageAdapter() {
+        IPanTool tool = new IPanTool() {
+            @Override
+            public Future<String> parse() {
+                return Future.succeededFuture();
+            }
+
+            @Override
+            public Future<List<FileInfo>> parseFileList() {
+                return Future.succeededFuture(files(3));
+            }
+        };
+        assertFalse(tool.supportsFileListPage());
+        FileListPage page = tool.parseFileListPage("1", 10).result();
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNextCursor());
+        assertTrue(tool.parseFileListPage("-1", 10).failed());
+    }
+}
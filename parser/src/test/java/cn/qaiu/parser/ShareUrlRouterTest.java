@@ -0,0 +1,72 @@
+package cn.qaiu.parser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分享链接域名分发索引测试
+ */
+public class ShareUrlRouterTest {
+
+    private static final List<String> SAMPLE_URLS = List.of(
+            "https://wwn.lanzouy.com/ihLkw1gezutg",
+            "https://test.lanzoux.com/s/someShareKey",
+            "https://www.ilanzou.com/s/abc",
+            "https://www.feijix.com/s/abc",
+            "https://wx.mail.qq.com/s?k=uAG9JR42Rqgt010mFp",
+            "https://qfile.qq.com/q/abc",
+            "https://y.qq.com/n/ryqq/songDetail/000XjcLg0fbRjv?songtype=0",
+            "https://f.ws59.cn/f/f25625rv6p6",
+            "https://www.123pan.com/s/abc-def",
+            "https://www.123865.com/s/abc-def.html",
+            "https://url94.ctfile.com/d/64115194-164803691-48508c?p=7609",
+            "https://www.icloud.com.cn/iclouddrive/abc#fonts",
+            "https://xxx.feishu.cn/file/VnCxbt35KoowKoxldO3c3C7VnMc",
+            "https://qaiu.ysepan.com/",
+            "https://pan.huang1111.cn/s/g31PcQ",
+            "https://cowtransfer.com/s/9a644fe3e3a748"
+    );
+
+    @Test
+    public void testHostKeysOfPattern() {
+        assertEquals(Set.of("qq.com"), ShareUrlRouter.hostKeysOfPattern(PanDomainTemplate.QQSC.getPattern()));
+        assertTrue(ShareUrlRouter.hostKeysOfPattern(PanDomainTemplate.LZ.getPattern()).contains("lanzoux.com"));
+        assertTrue(ShareUrlRouter.hostKeysOfPattern(PanDomainTemplate.YE.getPattern()).contains("123pan.cn"));
+        assertEquals(Set.of("icloud.com", "icloud.com.cn"),
+                ShareUrlRouter.hostKeysOfPattern(PanDomainTemplate.PIC.getPattern()));
+        // 子域名为任意字符，无法索引
+        assertNull(ShareUrlRouter.hostKeysOfPattern(PanDomainTemplate.FS.getPattern()));
+        assertNull(ShareUrlRouter.hostKeysOfPattern(Pattern.compile("https://(?<KEY>.+)")));
+    }
+
+    @Test
+    public void testCandidatesNarrowed() {
+        List<PanDomainTemplate> candidates = ShareUrlRouter.builtInCandidates("https://pan.quark.cn/s/6a325cdaec58");
+        assertTrue(candidates.contains(PanDomainTemplate.QK));
+        assertFalse(candidates.contains(PanDomainTemplate.LZ));
+        assertFalse(candidates.contains(PanDomainTemplate.YE));
+        assertTrue(candidates.size() < PanDomainTemplate.values().length / 2);
+    }
+
+    @Test
+    public void testSameResultAsFullScan() {
+        for (String url : SAMPLE_URLS) {
+            PanDomainTemplate expected = Arrays.stream(PanDomainTemplate.values())
+                    .filter(t -> !ParserCreate.isGenericBuiltInParser(t))
+                    .filter(t -> t.getPattern().matcher(url).matches())
+                    .findFirst()
+                    .orElse(null);
+            PanDomainTemplate actual = ShareUrlRouter.builtInCandidates(url).stream()
+                    .filter(t -> t.getPattern().matcher(url).matches())
+                    .findFirst()
+                    .orElse(null);
+            assertEquals(url, expected, actual);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package cn.qaiu.parser;
+
+import cn.qaiu.WebClientVertxInit;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.ProxyOptions;
+import io.vertx.core.net.ProxyType;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 上游HTTP客户端注册表测试
+ */
+public class UpstreamClientsTest {
+
+    @Test
+    public void testProxyOptionsFromConfig() {
+        ProxyOptions options = UpstreamClients.proxyOptions(new JsonObject()
+                .put("type", "socks5")
+                .put("host", "127.0.0.1")
+                .put("port", 1080)
+                .put("username", "u")
+                .put("password", ""));
+        assertNotNull(options);
+        assertEquals(ProxyType.SOCKS5, options.getType());
+        assertEquals("127.0.0.1", options.getHost());
+        assertEquals(1080, options.getPort());
+        assertEquals("u", options.getUsername());
+        assertNull(options.getPassword());
+
+        assertNull(UpstreamClients.proxyOptions(null));
+        assertNull(UpstreamClients.proxyOptions(new JsonObject().put("host", "127.0.0.1")));
+    }
+
+    @Test
+    public void testProxyKey() {
+        JsonObject proxy = new JsonObject().put("type", "http").put("host", "127.0.0.1").put("port", 7890);
+        String key = UpstreamClients.proxyKey(UpstreamClients.proxyOptions(proxy));
+        assertEquals(key, UpstreamClients.proxyKey(UpstreamClients.proxyOptions(proxy.copy())));
+        assertNotEquals(key, UpstreamClients.proxyKey(UpstreamClients.proxyOptions(proxy.copy().put("port", 7891))));
+        assertNotEquals(key, UpstreamClients.proxyKey(UpstreamClients.proxyOptions(proxy.copy().put("password", "p"))));
+        assertEquals("direct", UpstreamClients.proxyKey(null));
+    }
+
+    @Test
+    public void testProfileOptions() {
+        UpstreamClients.configure(new JsonObject().put("maxPoolSize", 8).put("http2", true));
+        try {
+            WebClientOptions lz = UpstreamClients.options(UpstreamClients.Profile.LZ);
+            assertFalse(lz.isFollowRedirects());
+            assertTrue(lz.isDecompressionSupported());
+            assertFalse(lz.isUserAgentEnabled());
+            assertEquals(12, lz.getIdleTimeout());
+            assertEquals(8, lz.getMaxPoolSize());
+            assertEquals(HttpVersion.HTTP_2, lz.getProtocolVersion());
+            assertTrue(lz.isUseAlpn());
+
+            WebClientOptions def = UpstreamClients.options(UpstreamClients.Profile.DEFAULT);
+            assertTrue(def.isFollowRedirects());
+            assertTrue(def.isKeepAlive());
+        } finally {
+            UpstreamClients.configure(new JsonObject().put("maxPoolSize", 32).put("http2", false));
+        }
+    }
+
+    @Test
+    public void testProxyLeaseReuseAndIdleEviction() {
+        Vertx vertx = Vertx.vertx();
+        WebClientVertxInit.init(vertx);
+        UpstreamClients.configure(new JsonObject().put("proxyIdleTimeout", 0));
+        try {
+            ProxyOptions proxy = UpstreamClients.proxyOptions(new JsonObject()
+                    .put("type", "http").put("host", "127.0.0.1").put("port", 7890));
+            int before = UpstreamClients.leaseCount();
+            UpstreamClients.Lease first = UpstreamClients.acquire(UpstreamClients.Profile.PROXY, proxy);
+            UpstreamClients.Lease second = UpstreamClients.acquire(UpstreamClients.Profile.PROXY,
+                    new ProxyOptions(proxy));
+            assertSame(first.client(), second.client());
+            assertEquals(before + 1, UpstreamClients.leaseCount());
+
+            // 仍有持有者时不回收
+            first.release();
+            assertEquals(0, UpstreamClients.evictIdle());
+
+            second.release();
+            assertEquals(1, UpstreamClients.evictIdle());
+            assertEquals(before, UpstreamClients.leaseCount());
+
+            UpstreamClients.Lease third = UpstreamClients.acquire(UpstreamClients.Profile.PROXY, proxy);
+            assertNotSame(first.client(), third.client());
+            third.release();
+            UpstreamClients.evictIdle();
+        } finally {
+            UpstreamClients.configure(new JsonObject().put("proxyIdleTimeout", 300));
+            vertx.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package cn.qaiu.parser.customjs;
+
+import cn.qaiu.parser.custom.CustomParserConfig;
+import org.junit.After;
+import org.junit.Test;
+import org.openjdk.nashorn.api.scripting.ScriptObjectMirror;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JS解析器预编译脚本缓存测试
+ */
+public class JsCompiledScriptCacheTest {
+
+    private static final int TYPES = JsCompiledScriptCache.MAX_PARSERS + 10;
+
+    @After
+    public void tearDown() {
+        JsCompiledScriptCache.invalidate("cache_test");
+        for (int i = 0; i < TYPES; i++) {
+            JsCompiledScriptCache.invalidate("cache_test_" + i);
+        }
+    }
+
+    private static CustomParserConfig config(String type, String jsCode) {
+        return CustomParserConfig.builder()
+                .type(type)
+                .displayName("缓存测试")
+                .isJsParser(true)
+                .jsCode(jsCode)
+                .build();
+    }
+
+    private static String code(int i) {
+        return "function parse() { return '" + i + "'; }";
+    }
+
+    @Test
+    public void testHitWhenCodeUnchanged() throws Exception {
+        String code = "function parse() { return 'a'; }";
+        CompiledScript first = JsCompiledScriptCache.compiledParser(config("cache_test", code));
+        // 内容相同的另一个字符串实例同样命中
+        CompiledScript second = JsCompiledScriptCache.compiledParser(config("cache_test", new String(code)));
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testRecompileWhenCodeChanged() throws Exception {
+        CompiledScript first = JsCompiledScriptCache.compiledParser(config("cache_test", "function parse() { return 'a'; }"));
+        CompiledScript changed = JsCompiledScriptCache.compiledParser(config("cache_test", "function parse() { return 'b'; }"));
+        assertNotSame(first, changed);
+
+        // 新作用域执行的是新代码
+        Bindings scope = JsCompiledScriptCache.newScope(config("cache_test", "function parse() { return 'b'; }"), Map.of());
+        assertEquals("b", ((ScriptObjectMirror) scope.get("parse")).call(null));
+
+        JsCompiledScriptCache.invalidate("cache_test");
+        assertNotSame(changed, JsCompiledScriptCache.compiledParser(config("cache_test", "function parse() { return 'b'; }")));
+    }
+
+    @Test
+    public void testSizeBounded() throws Exception {
+        CompiledScript[] scripts = new CompiledScript[TYPES];
+        for (int i = 0; i < TYPES; i++) {
+            scripts[i] = JsCompiledScriptCache.compiledParser(config("cache_test_" + i, code(i)));
+        }
+        assertTrue(JsCompiledScriptCache.size() <= JsCompiledScriptCache.MAX_PARSERS);
+
+        // 最近编译的保留，最早编译的被淘汰
+        int last = TYPES - 1;
+        assertSame(scripts[last], JsCompiledScriptCache.compiledParser(config("cache_test_" + last, code(last))));
+        assertNotSame(scripts[0], JsCompiledScriptCache.compiledParser(config("cache_test_0", code(0))));
+    }
+}
@@ -0,0 +1,128 @@
+package cn.qaiu.parser.customjs;
+
+import cn.qaiu.WebClientVertxInit;
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.parser.custom.CustomParserConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单元测试：JS解析器执行模式选择、两种模式的执行、超时和异常传递
+ */
+public class JsParserExecutorTest {
+
+    private static final boolean VIRTUAL_THREAD_SUPPORTED = Runtime.version().feature() >= 21;
+
+    // 执行器的工作线程池是静态共享的，整个测试类使用同一个 Vertx
+    private static Vertx vertx;
+
+    @BeforeClass
+    public static void setUpClass() {
+        vertx = Vertx.vertx();
+        WebClientVertxInit.init(vertx);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        // 恢复默认配置，避免影响其他测试
+        JsParserExecutor.configure(new JsonObject());
+    }
+
+    private static JsParserExecutor executor(String jsCode) {
+        CustomParserConfig config = CustomParserConfig.builder()
+                .type("executor_test")
+                .displayName("执行器测试")
+                .isJsParser(true)
+                .jsCode(jsCode)
+                .build();
+        return new JsParserExecutor(ShareLinkInfo.newBuilder().type("executor_test").shareKey("1").build(), config);
+    }
+
+    private static String await(Future<String> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testModeSelection() {
+        JsParserExecutor.configure(new JsonObject().put("executionMode", "worker").put("maxConcurrentExecutions", 4));
+        Assert.assertEquals(JsParserExecutor.ExecutionMode.WORKER, JsParserExecutor.getExecutionMode());
+        Assert.assertEquals(4, JsParserExecutor.getMaxConcurrentExecutions());
+
+        JsParserExecutor.configure(new JsonObject().put("executionMode", "unknown"));
+        Assert.assertEquals(JsParserExecutor.ExecutionMode.WORKER, JsParserExecutor.getExecutionMode());
+
+        // JDK21 以下回退 WORKER
+        JsParserExecutor.configure(new JsonObject().put("executionMode", " Virtual "));
+        Assert.assertEquals(VIRTUAL_THREAD_SUPPORTED
+                        ? JsParserExecutor.ExecutionMode.VIRTUAL : JsParserExecutor.ExecutionMode.WORKER,
+                JsParserExecutor.getExecutionMode());
+    }
+
+    @Test
+    public void testVirtualThreadFactoryFallback() {
+        Assert.assertNull(JsParserExecutor.newVirtualThreadExecutor("noSuchVirtualThreadExecutor"));
+        Assert.assertEquals(VIRTUAL_THREAD_SUPPORTED,
+                JsParserExecutor.newVirtualThreadExecutor("newVirtualThreadPerTaskExecutor") != null);
+    }
+
+    @Test
+    public void testExecuteInBothModes() throws Exception {
+        for (String mode : new String[]{"worker", "virtual"}) {
+            JsParserExecutor.configure(new JsonObject().put("executionMode", mode));
+            String result = await(executor("function parse(shareLinkInfo, http, logger) {"
+                    + " return 'https://cdn.example.com/' + shareLinkInfo.getShareKey(); }").parse());
+            Assert.assertEquals(mode, "https://cdn.example.com/1", result);
+            Assert.assertEquals(mode, 0, JsParserExecutor.getActiveExecutions());
+        }
+    }
+
+    @Test
+    public void testFailurePropagation() throws Exception {
+        for (String mode : new String[]{"worker", "virtual"}) {
+            JsParserExecutor.configure(new JsonObject().put("executionMode", mode));
+            try {
+                await(executor("function parse(shareLinkInfo, http, logger) { throw new Error('boom'); }").parse());
+                Assert.fail(mode + " 应当失败");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(mode + ": " + e.getCause(), String.valueOf(e.getCause().getMessage()).contains("boom"));
+            }
+            Assert.assertEquals(mode, 0, JsParserExecutor.getActiveExecutions());
+        }
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        for (String mode : new String[]{"worker", "virtual"}) {
+            JsParserExecutor.configure(new JsonObject().put("executionMode", mode).put("executionTimeoutSeconds", 1));
+            long start = System.currentTimeMillis();
+            try {
+                await(executor("function parse(shareLinkInfo, http, logger) {"
+                        + " var end = Date.now() + 2500; while (Date.now() < end) {} return 'late'; }").parse());
+                Assert.fail(mode + " 应当超时");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(mode + ": " + e.getCause(), e.getCause().getMessage().contains("执行超时"));
+            }
+            Assert.assertTrue(mode, System.currentTimeMillis() - start < 2400);
+            // 脚本线程退出后释放执行许可
+            long deadline = System.currentTimeMillis() + 5000;
+            while (JsParserExecutor.getActiveExecutions() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(mode, 0, JsParserExecutor.getActiveExecutions());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cn.qaiu.parser.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 城通目录分页游标测试
+ */
+public class CtToolFileListPageTest {
+
+    @Test
+    public void testCursorRoundTrip() {
+        assertArrayEquals(new int[]{0, 0}, CtTool.parseFileListCursor(null));
+        assertArrayEquals(new int[]{400, 2}, CtTool.parseFileListCursor(CtTool.fileListCursor(400, 2)));
+        // 偏移量游标(来自缓存切分)按每页200条推算页序号
+        assertArrayEquals(new int[]{450, 2}, CtTool.parseFileListCursor("450"));
+    }
+
+    @Test
+    public void testInvalidCursor() {
+        for (String cursor : new String[]{"abc", "-1", "1:-1", "1:2:3", "1:x"}) {
+            try {
+                CtTool.parseFileListCursor(cursor);
+                fail("应拒绝游标: " + cursor);
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    @Test
+    public void testHasMoreByPageLength() {
+        assertTrue(CtTool.shouldFetchNextFileListPage(0, 100, 250, 100));
+        assertFalse(CtTool.shouldFetchNextFileListPage(200, 50, 250, 100));
+        // 上游没有返回总数时按本页是否取满判断
+        assertTrue(CtTool.shouldFetchNextFileListPage(0, 100, -1, 100));
+        assertFalse(CtTool.shouldFetchNextFileListPage(0, 100, -1));
+    }
+
+    @Test
+    public void testSmallLimitPagesPastFiftyItems() {
+        // 模拟 120 个文件的目录, 每页 1 条
+        int total = 120;
+        int read = 0;
+        String cursor = null;
+        do {
+            int start = CtTool.parseFileListCursor(cursor)[0];
+            assertFalse("不应超过分页限制: " + cursor, CtTool.exceedsFileListLimit(start));
+            int rowCount = Math.min(1, total - start);
+            read += rowCount;
+            cursor = CtTool.nextFileListCursor(start, rowCount, total, 1);
+        } while (cursor != null);
+        assertEquals(total, read);
+        // 与一次性获取相同, 超过 50 页 * 200 条后拒绝
+        assertFalse(CtTool.exceedsFileListLimit(50 * 200 - 1));
+        assertTrue(CtTool.exceedsFileListLimit(50 * 200));
+    }
+}
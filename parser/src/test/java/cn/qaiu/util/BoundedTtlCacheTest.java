@@ -0,0 +1,65 @@
+package cn.qaiu.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 有容量上限的本地过期缓存测试
+ */
+public class BoundedTtlCacheTest {
+
+    @Test
+    public void testGetExpired() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10);
+        cache.put("a", "1", 1000);
+        assertEquals("1", cache.get("a", 999));
+        assertNull(cache.get("a", 1000));
+        assertEquals(0, cache.size());
+        assertNull(cache.get(null, 0));
+    }
+
+    @Test
+    public void testEvictExpiredThenEarliest() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(3);
+        cache.put("late", "v", 5000);
+        cache.put("expired", "v", 10);
+        cache.put("early", "v", 2000);
+        assertEquals(1, cache.put("new", "v", 3000));
+        assertNull(cache.get("expired", 0));
+        assertEquals(3, cache.size());
+
+        assertEquals(1, cache.put("newer", "v", 4000));
+        assertNull(cache.get("early", 0));
+        assertNotNull(cache.get("late", 0));
+        assertNotNull(cache.get("new", 0));
+        assertNotNull(cache.get("newer", 0));
+    }
+
+    @Test
+    public void testReplaceKeepsIndexConsistent() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2);
+        cache.put("a", "old", 100);
+        cache.put("a", "new", 9000);
+        cache.put("b", "v", 5000);
+        // a 的旧到期时间已不在索引中，不会因此被淘汰
+        cache.put("c", "v", 6000);
+        assertEquals("new", cache.get("a", 0));
+        assertNull(cache.get("b", 0));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testPurgeExpiredAndRemove() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10);
+        cache.put("a", "v", 100);
+        cache.put("b", "v", 200);
+        cache.put("c", "v", 300);
+        assertEquals(2, cache.purgeExpired(200));
+        assertEquals(1, cache.size());
+
+        cache.remove("c");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.purgeExpired(Long.MAX_VALUE));
+    }
+}
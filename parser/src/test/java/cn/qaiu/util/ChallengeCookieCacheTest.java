@@ -0,0 +1,49 @@
+package cn.qaiu.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 反爬挑战 Cookie 缓存测试
+ */
+public class ChallengeCookieCacheTest {
+
+    @After
+    public void tearDown() {
+        ChallengeCookieCache.clear();
+    }
+
+    @Test
+    public void testPutAndGetByHost() {
+        ChallengeCookieCache.put("WWW.Lanzoux.com", "acw_sc__v2", "v1");
+        ChallengeCookieCache.Entry entry = ChallengeCookieCache.get("www.lanzoux.com");
+        assertNotNull(entry);
+        assertEquals("acw_sc__v2", entry.name());
+        assertEquals("v1", entry.value());
+        assertNull(ChallengeCookieCache.get("lanzoux.com"));
+
+        // 以 Cookie 域(带前导点)存取等价
+        ChallengeCookieCache.put(".ilanzou.com", "acw_sc__v2", "v2");
+        assertEquals("v2", ChallengeCookieCache.get("ilanzou.com").value());
+    }
+
+    @Test
+    public void testNewChallengeOverridesAndInvalidate() {
+        ChallengeCookieCache.put("www.lanzoux.com", "acw_sc__v2", "old");
+        ChallengeCookieCache.put("www.lanzoux.com", "acw_sc__v2", "new");
+        assertEquals("new", ChallengeCookieCache.get("www.lanzoux.com").value());
+
+        ChallengeCookieCache.invalidate("www.lanzoux.com");
+        assertNull(ChallengeCookieCache.get("www.lanzoux.com"));
+    }
+
+    @Test
+    public void testIgnoreInvalidInput() {
+        ChallengeCookieCache.put(null, "acw_sc__v2", "v");
+        ChallengeCookieCache.put("a.com", "acw_sc__v2", "");
+        assertEquals(0, ChallengeCookieCache.size());
+        assertNull(ChallengeCookieCache.get(null));
+    }
+}
@@ -87,4 +87,26 @@ public class JsExecUtilsLzTest {
         assertNotNull(sign);
         assertTrue(String.valueOf(sign.get("url")).contains("ajaxm.php"));
     }
+
+    @Test
+    public void testPooledEngineDoesNotLeakGlobals() throws Exception {
+        String first = """
+                var leaked = 'from-first';
+                $.ajax({ url: '/ajaxm.php?file=2', data: { a: 1 } });
+                """;
+        assertNotNull(JsExecUtils.executeDynamicJs(first, null, "p1"));
+
+        // 复用池中的引擎时，上一次的全局变量和密码都不能残留
+        String second = """
+                var pwd = $('#pwd').val();
+                $.ajax({ url: '/ajaxm.php?file=3', data: { leaked: typeof leaked, p: pwd } });
+                """;
+        ScriptObjectMirror sign = JsExecUtils.executeDynamicJs(second, null);
+        assertNotNull(sign);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> data = (Map<String, Object>) sign.get("data");
+        assertEquals("undefined", String.valueOf(data.get("leaked")));
+        assertEquals("", String.valueOf(data.get("p")));
+        assertTrue(LzScriptEnginePool.idleSize() > 0);
+    }
 }
@@ -96,6 +96,14 @@ module.exports = {
         // 排除 js 目录下的 worker 文件（Monaco Editor 使用 vs/assets 下的）
         exclude: /js\/.*\.worker\.js$/
       }),
+      // 同时生成 .br，代理服务按 Accept-Encoding 优先返回
+      new CompressionPlugin({
+        filename: '[path][base].br',
+        algorithm: 'brotliCompress',
+        test: /\.js$|\.html$|\.css/,
+        threshold: 10240,
+        exclude: /js\/.*\.worker\.js$/
+      }),
       new FileManagerPlugin({  //初始化 filemanager-webpack-plugin 插件实例
         events: {
           onEnd: {
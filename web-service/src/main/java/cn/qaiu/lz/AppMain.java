@@ -2,14 +2,19 @@ package cn.qaiu.lz;
 
 import cn.qaiu.WebClientVertxInit;
 import cn.qaiu.db.pool.JDBCPoolInit;
+import cn.qaiu.lz.common.cache.ApiStatisticsWriter;
 import cn.qaiu.lz.common.cache.CacheConfigLoader;
 import cn.qaiu.lz.common.cache.CacheManager;
 import cn.qaiu.lz.common.interceptorImpl.RateLimiter;
+import cn.qaiu.lz.common.util.PanCircuitBreaker;
+import cn.qaiu.lz.common.util.ParseMetrics;
 import cn.qaiu.lz.web.config.PlaygroundConfig;
 import cn.qaiu.lz.web.service.DbService;
 import cn.qaiu.lz.web.service.impl.ShoutServiceImpl;
+import cn.qaiu.parser.UpstreamClients;
 import cn.qaiu.parser.custom.CustomParserConfig;
 import cn.qaiu.parser.custom.CustomParserRegistry;
+import cn.qaiu.parser.customjs.JsParserExecutor;
 import cn.qaiu.parser.customjs.JsScriptMetadataParser;
 import cn.qaiu.vx.core.Deploy;
 import cn.qaiu.vx.core.util.AsyncServiceUtil;
@@ -46,6 +51,7 @@ public class AppMain {
         // 先阻断应用级定时任务，再让 Vert.x 停入口和 verticle。
         deploy.addPreShutdownTask(CacheManager::cancelPeriodicCleanup);
         deploy.addPreShutdownTask(ShoutServiceImpl::cancelCleanup);
+        deploy.addPreShutdownTask(ApiStatisticsWriter::cancelPeriodicFlush);
         // Vert.x 停完后再关数据库和解析器共享资源，避免请求还在路上就先关底层 client。
         deploy.addPostShutdownTask(() -> JDBCPoolInit.instance().close());
         deploy.addPostShutdownTask(cn.qaiu.parser.customjs.JsParserExecutor::shutdownExecutor);
@@ -90,9 +96,18 @@ public class AppMain {
      */
     private static void exec(JsonObject jsonObject) {
         WebClientVertxInit.init(VertxHolder.getVertxInstance());
+        // 解析器上游连接池
+        UpstreamClients.configure(jsonObject.getJsonObject("parserClient"));
         DatabindCodec.mapper().registerModule(new JavaTimeModule());
         // 演练场配置要先加载，后续启动流程才能按开关决定是否注册动态解析器。
         PlaygroundConfig.loadFromJson(jsonObject);
+        // JS解析器执行模式
+        if (jsonObject.containsKey("jsParser")) {
+            JsParserExecutor.configure(jsonObject.getJsonObject("jsParser"));
+        }
+        ParseMetrics.registerExecutorGauges();
+        // 上游熔断
+        PanCircuitBreaker.init(jsonObject.getJsonObject("circuitBreaker"));
         // 限流
         if (jsonObject.containsKey("rateLimit")) {
             JsonObject rateLimit = jsonObject.getJsonObject("rateLimit");
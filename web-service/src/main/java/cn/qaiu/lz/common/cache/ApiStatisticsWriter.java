@@ -0,0 +1,259 @@
+package cn.qaiu.lz.common.cache;
+
+import cn.qaiu.db.pool.JDBCPoolInit;
+import cn.qaiu.db.pool.JDBCType;
+import cn.qaiu.vx.core.util.VertxHolder;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * api_statistics_info 统计计数的批量异步写入
+ * <p>
+ * 请求路径上只在内存中累加计数(按 ConcurrentHashMap 分桶加锁，不同 shareKey 互不阻塞)，
+ * 定时把累计的增量取出，以一次批量 upsert 在 SQL 中做自增写入，
+ * 避免每次请求都先 SUM 查询再覆盖写入，也不会在并发下丢失计数。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class ApiStatisticsWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiStatisticsWriter.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final long SHUTDOWN_FLUSH_WAIT_MILLIS = 5_000L;
+
+    private static final Map<String, Counter> PENDING = new ConcurrentHashMap<>();
+    private static final AtomicBoolean FLUSH_REGISTERED = new AtomicBoolean(false);
+    /**
+     * 进行中的写入，同一时间只有一次
+     */
+    private static final AtomicReference<Future<Integer>> IN_FLIGHT = new AtomicReference<>();
+    private static volatile Long flushTimerId;
+    private static volatile Vertx flushVertx;
+
+    private ApiStatisticsWriter() {}
+
+    /**
+     * 累加一次计数，等待下次定时写入
+     *
+     * @param shareKey 缓存key: type:shareKey
+     * @param field    统计字段
+     */
+    public static void increment(String shareKey, CacheTotalField field) {
+        if (shareKey == null || field == CacheTotalField.FAILED_TOTAL) {
+            // api_statistics_info 没有失败次数字段
+            return;
+        }
+        // compute 在 key 所在分桶内执行，与 drain 中的 remove 互斥，取出后的计数器不会再被修改
+        PENDING.compute(shareKey, (key, counter) -> {
+            if (counter == null) {
+                counter = new Counter();
+            }
+            if (field == CacheTotalField.CACHE_HIT_TOTAL) {
+                counter.cacheHit++;
+            } else {
+                counter.apiParser++;
+            }
+            return counter;
+        });
+    }
+
+    public static int pendingSize() {
+        return PENDING.size();
+    }
+
+    /**
+     * 取出全部累计的增量并批量写入数据库，已有写入在进行时返回该次写入
+     *
+     * @return 写入的 shareKey 数
+     */
+    public static Future<Integer> flush() {
+        if (PENDING.isEmpty()) {
+            return Future.succeededFuture(0);
+        }
+        JDBCPoolInit poolInit = JDBCPoolInit.instance();
+        if (poolInit == null || poolInit.getPool() == null) {
+            LOGGER.debug("数据库连接池未就绪，统计计数延后写入");
+            return Future.succeededFuture(0);
+        }
+        Promise<Integer> promise = Promise.promise();
+        Future<Integer> running = IN_FLIGHT.compareAndExchange(null, promise.future());
+        if (running != null) {
+            return running;
+        }
+        Future<Integer> future;
+        try {
+            future = writeBatches(poolInit.getPool(), poolInit.getType(), drain());
+        } catch (Exception e) {
+            future = Future.failedFuture(e);
+        }
+        future.onComplete(ar -> {
+            IN_FLIGHT.compareAndSet(promise.future(), null);
+            promise.handle(ar);
+        });
+        return promise.future();
+    }
+
+    private static List<Tuple> drain() {
+        long ts = System.currentTimeMillis();
+        List<Tuple> rows = new ArrayList<>();
+        for (String shareKey : PENDING.keySet()) {
+            Counter counter = PENDING.remove(shareKey);
+            if (counter == null) {
+                continue;
+            }
+            rows.add(Tuple.of(getShareType(shareKey), shareKey, counter.cacheHit, counter.apiParser, ts));
+        }
+        return rows;
+    }
+
+    private static Future<Integer> writeBatches(Pool pool, JDBCType jdbcType, List<Tuple> rows) {
+        String sql = upsertSql(jdbcType);
+        Future<Integer> chain = Future.succeededFuture(0);
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<Tuple> batch = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            chain = chain.compose(written -> pool.preparedQuery(sql)
+                    .executeBatch(batch)
+                    .map(res -> written + batch.size())
+                    .recover(e -> {
+                        LOGGER.error("批量写入统计计数失败，丢弃 {} 条增量", batch.size(), e);
+                        return Future.succeededFuture(written);
+                    }));
+        }
+        return chain.onSuccess(written -> LOGGER.debug("批量写入统计计数 {} 条", written));
+    }
+
+    private static String upsertSql(JDBCType jdbcType) {
+        if (jdbcType == JDBCType.MySQL) {
+            return """
+                    INSERT INTO `api_statistics_info` (`pan_type`, `share_key`, `cache_hit_total`, `api_parser_total`, `update_ts`)
+                    VALUES (?, ?, ?, ?, ?)
+                    ON DUPLICATE KEY UPDATE
+                        `cache_hit_total` = COALESCE(`cache_hit_total`, 0) + VALUES(`cache_hit_total`),
+                        `api_parser_total` = COALESCE(`api_parser_total`, 0) + VALUES(`api_parser_total`),
+                        `update_ts` = VALUES(`update_ts`)
+                    """;
+        }
+        // 运行H2
+        return """
+                MERGE INTO `api_statistics_info` t
+                USING (SELECT CAST(? AS VARCHAR(16)) AS pan_type, CAST(? AS VARCHAR(1024)) AS share_key,
+                              CAST(? AS INT) AS cache_hit_total, CAST(? AS INT) AS api_parser_total,
+                              CAST(? AS BIGINT) AS update_ts) s
+                ON (t.`share_key` = s.share_key)
+                WHEN MATCHED THEN UPDATE SET
+                    t.`cache_hit_total` = COALESCE(t.`cache_hit_total`, 0) + s.cache_hit_total,
+                    t.`api_parser_total` = COALESCE(t.`api_parser_total`, 0) + s.api_parser_total,
+                    t.`update_ts` = s.update_ts
+                WHEN NOT MATCHED THEN INSERT (`pan_type`, `share_key`, `cache_hit_total`, `api_parser_total`, `update_ts`)
+                    VALUES (s.pan_type, s.share_key, s.cache_hit_total, s.api_parser_total, s.update_ts)
+                """;
+    }
+
+    private static String getShareType(String fullShareKey) {
+        return fullShareKey.split(":")[0];
+    }
+
+    /**
+     * 注册定时写入任务，应在应用启动后调用
+     *
+     * @param intervalSeconds 写入间隔(秒)
+     */
+    public static void registerPeriodicFlush(int intervalSeconds) {
+        if (!FLUSH_REGISTERED.compareAndSet(false, true)) {
+            return;
+        }
+        long intervalMillis = Math.max(1, intervalSeconds) * 1000L;
+        try {
+            Vertx vertx = VertxHolder.getVertxInstance();
+            flushVertx = vertx;
+            flushTimerId = vertx.setPeriodic(intervalMillis, intervalMillis, id -> flushSafely());
+            LOGGER.info("统计计数定时写入任务已注册（每 {} 秒执行）", intervalSeconds);
+        } catch (Exception e) {
+            flushTimerId = null;
+            flushVertx = null;
+            FLUSH_REGISTERED.set(false);
+            LOGGER.warn("注册统计计数定时写入任务失败", e);
+        }
+    }
+
+    /**
+     * 取消定时写入并写入剩余计数，应在关闭数据库连接池之前调用
+     * <p>
+     * 定时写入正在进行时先等待其完成，再写入该次取出之后累加的计数。
+     * </p>
+     */
+    public static void cancelPeriodicFlush() {
+        Long timerId = flushTimerId;
+        Vertx vertx = flushVertx;
+        flushTimerId = null;
+        flushVertx = null;
+        FLUSH_REGISTERED.set(false);
+        if (timerId != null && vertx != null) {
+            try {
+                vertx.cancelTimer(timerId);
+            } catch (Exception e) {
+                LOGGER.warn("取消统计计数定时写入任务失败", e);
+            }
+        }
+        Future<Integer> running = IN_FLIGHT.get();
+        if (running == null && PENDING.isEmpty()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_FLUSH_WAIT_MILLIS;
+        try {
+            if (running != null) {
+                // 进行中的写入失败时已记录日志, 继续写入剩余计数
+                await(running.otherwise(0), deadline);
+            }
+            if (!PENDING.isEmpty()) {
+                await(flush(), deadline);
+            }
+            if (PENDING.isEmpty()) {
+                LOGGER.info("剩余统计计数已写入");
+            } else {
+                LOGGER.warn("写入剩余统计计数未完成，剩余 {} 条", PENDING.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("写入剩余统计计数被中断");
+        } catch (Exception e) {
+            LOGGER.warn("写入剩余统计计数失败，剩余 {} 条", PENDING.size(), e);
+        }
+    }
+
+    private static void await(Future<Integer> future, long deadline) throws Exception {
+        long wait = Math.max(1, deadline - System.currentTimeMillis());
+        future.toCompletionStage().toCompletableFuture().get(wait, TimeUnit.MILLISECONDS);
+    }
+
+    private static void flushSafely() {
+        try {
+            flush().onFailure(e -> LOGGER.warn("定时写入统计计数失败", e));
+        } catch (Exception e) {
+            LOGGER.warn("定时写入统计计数跳过（数据库可能正在关闭）", e);
+        }
+    }
+
+    /**
+     * 单个 shareKey 的计数增量，只在 ConcurrentHashMap 分桶锁内修改
+     */
+    private static final class Counter {
+        int cacheHit;
+        int apiParser;
+    }
+}
@@ -13,11 +13,32 @@ public class CacheConfigLoader {
     private static final Map<String, Integer> CONFIGS = new HashMap<>();
     public static String TYPE;
     public static Integer DEFAULT_DURATION;
+    /**
+     * 统计计数批量写入间隔(秒)
+     */
+    public static int STATISTICS_FLUSH_INTERVAL = 5;
+    /**
+     * 过期直链可继续返回的窗口(分钟): 网盘标识 -> 时长
+     */
+    private static final Map<String, Integer> STALE_WINDOWS = new HashMap<>();
+    private static int DEFAULT_STALE_WINDOW = 0;
+    /**
+     * 热点直链提前刷新: 距离过期不足该秒数时后台重新解析, <=0 关闭
+     */
+    public static int REFRESH_AHEAD = 0;
+    /**
+     * 热点直链提前刷新: 本地缓存命中次数达到该值才视为热点
+     */
+    public static int HOT_HITS = 5;
 
     public static void init(JsonObject config) {
         TYPE =  config.getString("type");
         Integer defaultDuration = config.getInteger("defaultDuration");
         DEFAULT_DURATION = defaultDuration == null ? 60 : defaultDuration;
+        LocalLinkCache.init(config.getJsonObject("local"));
+        DirListCache.init(config.getJsonObject("dirList"));
+        STATISTICS_FLUSH_INTERVAL = config.getInteger("statisticsFlushInterval", 5);
+        initStaleWhileRevalidate(config.getJsonObject("staleWhileRevalidate"));
         JsonObject duration = config.getJsonObject("duration");
         if (duration == null) return;
         duration.getMap().forEach((k, v) -> {
@@ -33,4 +54,41 @@ public class CacheConfigLoader {
         String key = type.toLowerCase();
         return CONFIGS.getOrDefault(key, -1);
     }
+
+    private static void initStaleWhileRevalidate(JsonObject config) {
+        STALE_WINDOWS.clear();
+        DEFAULT_STALE_WINDOW = 0;
+        REFRESH_AHEAD = 0;
+        if (config == null) return;
+        DEFAULT_STALE_WINDOW = config.getInteger("defaultWindow", 0);
+        REFRESH_AHEAD = config.getInteger("refreshAhead", 0);
+        HOT_HITS = Math.max(1, config.getInteger("hotHits", 5));
+        JsonObject window = config.getJsonObject("window");
+        if (window == null) return;
+        window.getMap().forEach((k, v) -> STALE_WINDOWS.put(k.toLowerCase(),
+                v == null ? DEFAULT_STALE_WINDOW : ((Number) v).intValue()));
+    }
+
+    /**
+     * 直链过期后仍可返回旧直链的时长(毫秒)，期间由后台重新解析刷新缓存
+     * 只对配置了缓存时长的网盘生效，缓存时长应小于直链实际有效期，差值即可作为该窗口
+     */
+    public static long getStaleWindowMillis(String type) {
+        if (type == null || getDuration(type) <= 0) {
+            return 0L;
+        }
+        int window = STALE_WINDOWS.getOrDefault(type.toLowerCase(), DEFAULT_STALE_WINDOW);
+        return Math.max(0, window) * 60 * 1000L;
+    }
+
+    /**
+     * 所有网盘中最大的过期直链窗口(毫秒)，定时清理时保留该窗口内的过期记录
+     */
+    public static long getMaxStaleWindowMillis() {
+        int max = Math.max(0, DEFAULT_STALE_WINDOW);
+        for (Integer window : STALE_WINDOWS.values()) {
+            max = Math.max(max, window);
+        }
+        return max * 60 * 1000L;
+    }
 }
@@ -12,12 +12,11 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.sqlclient.Pool;
 import io.vertx.sqlclient.Row;
-import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
 import io.vertx.sqlclient.templates.SqlTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -31,42 +30,82 @@ public class CacheManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheManager.class);
 
+    /**
+     * 直链与文件信息一次查询取回，只查询需要的列
+     */
+    private static final String GET_LINK_WITH_FILE_SQL = """
+            SELECT c.share_key, c.direct_link, c.expiration,
+                   f.share_key AS file_share_key, f.file_name, f.file_id, f.file_icon, f.size, f.size_str,
+                   f.file_type, f.file_path, f.create_time, f.update_time, f.create_by, f.description,
+                   f.download_count, f.pan_type, f.parser_url, f.preview_url, f.hash
+            FROM cache_link_info c
+            LEFT JOIN pan_file_info f ON f.share_key = c.share_key
+            WHERE c.share_key = ?
+            """;
+
+    private static final String UPSERT_LINK_SQL_MYSQL = """
+            INSERT INTO cache_link_info (share_key, direct_link, expiration)
+            VALUES (#{shareKey}, #{directLink}, #{expiration})
+            ON DUPLICATE KEY UPDATE
+                direct_link = VALUES(direct_link),
+                expiration = VALUES(expiration);
+            """;
+
+    private static final String UPSERT_LINK_SQL_H2 = "MERGE INTO cache_link_info (share_key, direct_link, expiration) " +
+            "KEY (share_key) " +
+            "VALUES (#{shareKey}, #{directLink}, #{expiration})";
+
+    private static final String INSERT_FILE_INFO_SQL = """
+            INSERT IGNORE INTO pan_file_info (
+                share_key, file_name, file_id, file_icon, size, size_str, file_type,
+                file_path, create_time, update_time, create_by, description, download_count,
+                pan_type, parser_url, preview_url, hash
+            ) VALUES (
+                #{shareKey}, #{fileName}, #{fileId}, #{fileIcon}, #{size}, #{sizeStr}, #{fileType},
+                #{filePath}, #{createTime}, #{updateTime}, #{createBy}, #{description}, #{downloadCount},
+                #{panType}, #{parserUrl}, #{previewUrl}, #{hash}
+            );
+            """;
+
     public Future<CacheLinkInfo> get(String cacheKey) {
         if (isOversizedShareKey(cacheKey)) {
             LOGGER.warn("缓存key过长，跳过缓存读取: length={}, prefix={}",
                     cacheKey.length(), previewShareKey(cacheKey));
             return Future.succeededFuture(new CacheLinkInfo(JsonObject.of("cacheHit", false, "shareKey", cacheKey)));
         }
+        // 优先读取本地缓存，未命中再查询数据库
+        CacheLinkInfo localHit = LocalLinkCache.get(cacheKey);
+        if (localHit != null) {
+            return Future.succeededFuture(localHit);
+        }
 
-        String sql = "SELECT share_key as shareKey, direct_link as directLink, expiration FROM cache_link_info WHERE share_key = #{share_key}";
-        String sql2 = "SELECT * FROM pan_file_info WHERE share_key = #{share_key}";
-        Map<String, Object> params = new HashMap<>();
-        params.put("share_key", cacheKey);
         Promise<CacheLinkInfo> promise = Promise.promise();
-
-        Future<RowSet<PanFileInfo>> execute = SqlTemplate.forQuery(jdbcPool, sql2)
-                .mapTo(PanFileInfoRowMapper.INSTANCE)
-                .execute(params);
-        SqlTemplate.forQuery(jdbcPool, sql)
-                .mapTo(CacheLinkInfo.class)
-                .execute(params)
-                .onSuccess(rows->{
+        jdbcPool.preparedQuery(GET_LINK_WITH_FILE_SQL)
+                .execute(Tuple.of(cacheKey))
+                .onSuccess(rows -> {
                     CacheLinkInfo cacheHit;
                     if (rows.size() > 0) {
-                        cacheHit = rows.iterator().next();
-                        cacheHit.setCacheHit(true);
-                        execute.onSuccess(r2 -> {
-                            if (r2.size() > 0) {
-                                cacheHit.setFileInfo(r2.iterator().next().toFileInfo());
+                        Row row = rows.iterator().next();
+                        cacheHit = new CacheLinkInfo(JsonObject.of(
+                                "shareKey", row.getString("share_key"),
+                                "directLink", row.getString("direct_link"),
+                                "expiration", row.getLong("expiration"),
+                                "cacheHit", true
+                        ));
+                        // LEFT JOIN 未关联到文件信息时 file_share_key 为空
+                        if (row.getValue("file_share_key") != null) {
+                            try {
+                                cacheHit.setFileInfo(PanFileInfoRowMapper.INSTANCE.map(row).toFileInfo());
+                            } catch (Exception e) {
+                                LOGGER.warn("文件信息映射失败: shareKey={}", cacheKey, e);
                             }
-                            promise.complete(cacheHit);
-                        }).onFailure(e -> {
-                            promise.complete(cacheHit);
-                        });
+                        }
+                        // 回填本地缓存(已过期的不会写入)
+                        LocalLinkCache.put(cacheHit);
                     } else {
                         cacheHit = new CacheLinkInfo(JsonObject.of("cacheHit", false, "shareKey", cacheKey));
-                        promise.complete(cacheHit);
                     }
+                    promise.complete(cacheHit);
                 }).onFailure(e->{
                     promise.fail(e);
                     LOGGER.error("cache get:", e);
@@ -87,127 +126,55 @@ public class CacheManager {
                     shareKey.length(), previewShareKey(shareKey));
             return;
         }
+        // 同步写入本地缓存
+        LocalLinkCache.put(cacheLinkInfo);
 
-        String sql;
-        if (jdbcType == JDBCType.MySQL) {
-            sql = """
-                INSERT INTO cache_link_info (share_key, direct_link, expiration)
-                VALUES (#{shareKey}, #{directLink}, #{expiration})
-                ON DUPLICATE KEY UPDATE
-                    direct_link = VALUES(direct_link),
-                    expiration = VALUES(expiration);
-                """;
-        } else {  // 运行H2
-            sql = "MERGE INTO cache_link_info (share_key, direct_link, expiration) " +
-                    "KEY (share_key) " +
-                    "VALUES (#{shareKey}, #{directLink}, #{expiration})";
+        PanFileInfo fileInfo = null;
+        if (cacheLinkInfo.getFileInfo() != null) {
+            fileInfo = PanFileInfo.fromFileInfo(cacheLinkInfo.getFileInfo());
+            fileInfo.setShareKey(cacheLinkInfo.getShareKey());
         }
+        PanFileInfo finalFileInfo = fileInfo;
+        String upsertLinkSql = jdbcType == JDBCType.MySQL ? UPSERT_LINK_SQL_MYSQL : UPSERT_LINK_SQL_H2;
 
-        // 直接传递 CacheLinkInfo 实体类
-        SqlTemplate.forUpdate(jdbcPool, sql)
+        // 直链与文件信息在同一连接上依次写入，文件信息已存在时由 INSERT IGNORE 跳过
+        jdbcPool.withConnection(conn -> SqlTemplate.forUpdate(conn, upsertLinkSql)
                 .mapFrom(CacheLinkInfo.class) // 将实体类映射为 Tuple 参数
-                .execute(cacheLinkInfo).onSuccess(result -> {
+                .execute(cacheLinkInfo)
+                .<Void>compose(result -> {
                     if (result.rowCount() > 0) {
                         LOGGER.debug("Cache link info updated for shareKey: {}", cacheLinkInfo.getShareKey());
                     } else {
                         LOGGER.warn("No rows affected when updating cache link info for shareKey: {}", cacheLinkInfo.getShareKey());
                     }
-                }).onFailure(e -> LOGGER.error("缓存链接更新失败", e));
-
-        if (cacheLinkInfo.getFileInfo() != null) {
-            String sql2 = """
-                    INSERT IGNORE INTO pan_file_info (
-                        share_key, file_name, file_id, file_icon, size, size_str, file_type,
-                        file_path, create_time, update_time, create_by, description, download_count,
-                        pan_type, parser_url, preview_url, hash
-                    ) VALUES (
-                        #{shareKey}, #{fileName}, #{fileId}, #{fileIcon}, #{size}, #{sizeStr}, #{fileType},
-                        #{filePath}, #{createTime}, #{updateTime}, #{createBy}, #{description}, #{downloadCount},
-                        #{panType}, #{parserUrl}, #{previewUrl}, #{hash}
-                    );
-                    """;
-            // 判断文件信息是否缓存
-            SqlTemplate
-                    .forQuery(jdbcPool, "SELECT count(1) AS count FROM pan_file_info WHERE share_key = #{share_key};")
-                    .mapTo(Row::toJson)
-                    .execute(Collections.singletonMap("share_key", cacheLinkInfo.getShareKey()))
-                    .onSuccess(rows -> {
-                        JsonObject row = rows.iterator().next();
-                        int count = row.getInteger("count");
-                        if (count == 0) {
-                            // 没有缓存，执行插入
-                            PanFileInfo fileInfo = PanFileInfo.fromFileInfo(cacheLinkInfo.getFileInfo());
-                            fileInfo.setShareKey(cacheLinkInfo.getShareKey());
-                            SqlTemplate.forUpdate(jdbcPool, sql2)
-                                    .mapFrom(PanFileInfo.class) // 将实体类映射为 Tuple 参数
-                                    .execute(fileInfo).onSuccess(result -> {
-                                        if (result.rowCount() > 0) {
-                                            LOGGER.debug("Pan file info inserted for shareKey: {}", cacheLinkInfo.getShareKey());
-                                        } else {
-                                            LOGGER.warn("No rows affected when inserting pan file info for shareKey: {}", cacheLinkInfo.getShareKey());
-                                        }
-                                    }).onFailure(e -> LOGGER.error("文件信息插入失败", e));
-                        }
-                    })
-                    .onFailure(e -> LOGGER.error("查询文件信息缓存失败: shareKey={}", cacheLinkInfo.getShareKey(), e));
-        }
+                    if (finalFileInfo == null) {
+                        return Future.<Void>succeededFuture();
+                    }
+                    return SqlTemplate.forUpdate(conn, INSERT_FILE_INFO_SQL)
+                            .mapFrom(PanFileInfo.class)
+                            .execute(finalFileInfo)
+                            .onSuccess(r2 -> {
+                                if (r2.rowCount() > 0) {
+                                    LOGGER.debug("Pan file info inserted for shareKey: {}", cacheLinkInfo.getShareKey());
+                                }
+                            })
+                            .onFailure(e -> LOGGER.error("文件信息插入失败: shareKey={}", cacheLinkInfo.getShareKey(), e))
+                            .mapEmpty();
+                })
+        ).onFailure(e -> LOGGER.error("缓存链接更新失败", e));
     }
 
-    // 写入网盘厂商API解析次数
-    public Future<Integer> updateTotalByField(String shareKey, CacheTotalField field) {
+    // 写入网盘厂商API解析次数: 内存累加，由 ApiStatisticsWriter 定时批量写入
+    public void updateTotalByField(String shareKey, CacheTotalField field) {
         if (isOversizedShareKey(shareKey)) {
             LOGGER.warn("缓存key过长，跳过统计写入: length={}, prefix={}",
                     shareKey.length(), previewShareKey(shareKey));
-            return Future.succeededFuture(0);
-        }
-
-        Promise<Integer> promise = Promise.promise();
-        String fieldLower = field.name().toLowerCase();
-        String sql;
-        if (jdbcType == JDBCType.MySQL) {  // 假设你有一个标识当前数据库类型的布尔变量
-            sql = """
-                INSERT INTO `api_statistics_info` (`pan_type`, `share_key`, `{field}`, `update_ts`)
-                VALUES (#{panType}, #{shareKey}, #{total}, #{ts})
-                ON DUPLICATE KEY UPDATE
-                    `pan_type` = VALUES(`pan_type`),
-                    `{field}` = VALUES(`{field}`),
-                    `update_ts` = VALUES(`update_ts`);
-                """.replace("{field}", fieldLower);
-        } else {  // 运行H2
-            sql = """
-                MERGE INTO `api_statistics_info` (`pan_type`, `share_key`, `{field}`, `update_ts`)
-                                KEY (`share_key`)
-                                VALUES (#{panType}, #{shareKey}, #{total}, #{ts})
-                """.replace("{field}", fieldLower);
+            return;
         }
-
-        getShareKeyTotal(shareKey, fieldLower).onSuccess(total -> {
-            Integer newTotal = (total == null ? 0 : total) + 1;
-            Map<String, Object> updateParams = new HashMap<>();
-            updateParams.put("panType", getShareType(shareKey));
-            updateParams.put("shareKey", shareKey);
-            updateParams.put("total", newTotal);
-            updateParams.put("ts", System.currentTimeMillis());
-            SqlTemplate.forUpdate(jdbcPool, sql)
-                    .execute(updateParams)
-                    .onSuccess(res -> promise.complete(res.rowCount()))
-                    .onFailure(e->{
-                        promise.fail(e);
-                        LOGGER.error("updateTotalByField: ", e);
-                    });
-        }).onFailure(e -> {
-            promise.fail(e);
-            LOGGER.error("getShareKeyTotal in updateTotalByField: ", e);
-        });
-        return promise.future();
+        ApiStatisticsWriter.increment(shareKey, field);
     }
 
 
-    private String getShareType(String fullShareKey) {
-        // 将type和shareKey组合成一个字符串作为缓存key
-        return fullShareKey.split(":")[0];
-    }
-
     public Future<Integer> getShareKeyTotal(String shareKey, String name) {
         if (isOversizedShareKey(shareKey)) {
             LOGGER.warn("缓存key过长，跳过统计读取: length={}, prefix={}",
@@ -249,11 +216,19 @@ public class CacheManager {
     public Future<Integer> cleanupExpiredCache() {
         Promise<Integer> promise = Promise.promise();
         long now = System.currentTimeMillis();
+        int purgedLocal = LocalLinkCache.purgeExpired();
+        if (purgedLocal > 0) {
+            LOGGER.debug("清理本地过期缓存 {} 条", purgedLocal);
+        }
+        int purgedDirList = DirListCache.purgeExpired();
+        if (purgedDirList > 0) {
+            LOGGER.debug("清理过期目录列表缓存 {} 条", purgedDirList);
+        }
 
-        // 第一步：清理 cache_link_info 中过期的记录
+        // 第一步：清理 cache_link_info 中过期的记录，保留仍在过期直链窗口内的记录
         String sqlDeleteExpired = "DELETE FROM cache_link_info WHERE expiration > 0 AND expiration < #{now}";
         Map<String, Object> params = new HashMap<>();
-        params.put("now", now);
+        params.put("now", now - CacheConfigLoader.getMaxStaleWindowMillis());
 
         SqlTemplate.forUpdate(jdbcPool, sqlDeleteExpired)
                 .execute(params)
@@ -0,0 +1,275 @@
+package cn.qaiu.lz.common.cache;
+
+import cn.qaiu.db.pool.JDBCPoolInit;
+import cn.qaiu.db.pool.JDBCType;
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.util.BoundedTtlCache;
+import io.vertx.core.Future;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.sqlclient.Pool;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 目录列表缓存，用于 /v2/getFileList
+ * <p>
+ * 缓存key由分享key与请求参数(pwd、dirId、uuid、stoken、zml、请求来源、auth)的摘要组成，
+ * 不同密码、子目录或认证信息的请求互不命中。有效期按网盘配置(cache.dirList.duration)，
+ * 条目数量超过上限时先清理过期条目，再淘汰最早到期的条目。
+ * 开启 persist 后同时写入数据库表 dir_list_cache，本地未命中时回源数据库。
+ * 缓存的列表为共享只读对象，调用方不得修改。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class DirListCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirListCache.class);
+
+    /**
+     * 持久化的列表JSON最大长度(字符), dir_list_cache.file_list 为大文本列, 这里只限制单条记录的大小
+     */
+    private static final int MAX_PERSIST_LENGTH = 4 * 1024 * 1024;
+
+    /**
+     * 缓存key最大长度，与 dir_list_cache.cache_key 列长度一致
+     */
+    private static final int MAX_KEY_LENGTH = 512;
+
+    private static final String GET_SQL =
+            "SELECT file_list, expiration FROM dir_list_cache WHERE cache_key = ? AND expiration > ?";
+
+    private static final String UPSERT_SQL_MYSQL = """
+            INSERT INTO dir_list_cache (cache_key, file_list, expiration)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                file_list = VALUES(file_list),
+                expiration = VALUES(expiration);
+            """;
+
+    private static final String UPSERT_SQL_H2 = "MERGE INTO dir_list_cache (cache_key, file_list, expiration) " +
+            "KEY (cache_key) VALUES (?, ?, ?)";
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM dir_list_cache WHERE expiration < ?";
+
+    private static final BoundedTtlCache<String, List<FileInfo>> CACHE = new BoundedTtlCache<>(2000);
+    private static final Map<String, Integer> DURATIONS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+    private static volatile boolean persist = false;
+    private static volatile int maxSize = 2000;
+    private static volatile int defaultDuration = 5;
+
+    private DirListCache() {}
+
+    /**
+     * 读取 cache.dirList 配置
+     *
+     * @param config cache.dirList 配置, 可为空
+     */
+    public static void init(JsonObject config) {
+        DURATIONS.clear();
+        if (config != null) {
+            enabled = config.getBoolean("enabled", true);
+            persist = config.getBoolean("persist", false);
+            maxSize = Math.max(1, config.getInteger("maxSize", 2000));
+            CACHE.setMaxSize(maxSize);
+            defaultDuration = config.getInteger("defaultDuration", 5);
+            JsonObject duration = config.getJsonObject("duration");
+            if (duration != null) {
+                duration.getMap().forEach((k, v) ->
+                        DURATIONS.put(k.toLowerCase(), v == null ? defaultDuration : ((Number) v).intValue()));
+            }
+        }
+        if (!enabled) {
+            CACHE.clear();
+        }
+        LOGGER.info("目录列表缓存: enabled={}, persist={}, maxSize={}, defaultDuration={}",
+                enabled, persist, maxSize, defaultDuration);
+    }
+
+    /**
+     * 网盘目录列表的缓存时长(分钟)，未单独配置时使用 defaultDuration，小于等于0表示不缓存
+     */
+    public static int getDuration(String type) {
+        if (type == null) {
+            return defaultDuration;
+        }
+        return DURATIONS.getOrDefault(type.toLowerCase(), defaultDuration);
+    }
+
+    /**
+     * 生成缓存key: type:shareKey#参数摘要
+     *
+     * @param shareLinkInfo 分享信息
+     * @param params        影响列表内容的请求参数, 可为空
+     */
+    public static String cacheKey(ShareLinkInfo shareLinkInfo, String... params) {
+        StringBuilder sb = new StringBuilder();
+        for (String param : params) {
+            // 以长度前缀区分参数边界，避免拼接后产生相同的串
+            String value = param == null ? "" : param;
+            sb.append(value.length()).append(':').append(value).append('|');
+        }
+        return shareLinkInfo.getCacheKey() + "#" + sha256(sb.toString());
+    }
+
+    /**
+     * 获取未过期的目录列表
+     *
+     * @param cacheKey 缓存key
+     * @return 命中返回列表，未命中返回null
+     */
+    public static Future<List<FileInfo>> get(String cacheKey) {
+        if (!enabled || cacheKey == null) {
+            return Future.succeededFuture();
+        }
+        long now = System.currentTimeMillis();
+        List<FileInfo> cached = CACHE.get(cacheKey, now);
+        if (cached != null) {
+            return Future.succeededFuture(cached);
+        }
+        if (!persist) {
+            return Future.succeededFuture();
+        }
+        return getPool().preparedQuery(GET_SQL)
+                .execute(Tuple.of(cacheKey, now))
+                .map(rows -> {
+                    if (rows.size() == 0) {
+                        return (List<FileInfo>) null;
+                    }
+                    Row row = rows.iterator().next();
+                    List<FileInfo> fileList = decode(row.getString("file_list"));
+                    // 回填本地缓存
+                    putLocal(cacheKey, fileList, row.getLong("expiration"), now);
+                    return fileList;
+                })
+                .recover(e -> {
+                    LOGGER.warn("目录列表缓存读取失败: cacheKey={}", cacheKey, e);
+                    return Future.succeededFuture();
+                });
+    }
+
+    /**
+     * 写入目录列表，网盘缓存时长小于等于0或列表为空时不写入
+     *
+     * @param type     网盘标识
+     * @param cacheKey 缓存key
+     * @param fileList 目录列表
+     */
+    public static void put(String type, String cacheKey, List<FileInfo> fileList) {
+        if (!enabled || cacheKey == null || fileList == null || fileList.isEmpty()) {
+            return;
+        }
+        int duration = getDuration(type);
+        if (duration <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expireAt = now + duration * 60 * 1000L;
+        putLocal(cacheKey, List.copyOf(fileList), expireAt, now);
+        if (persist) {
+            persist(cacheKey, fileList, expireAt);
+        }
+    }
+
+    public static void invalidate(String cacheKey) {
+        if (cacheKey != null) {
+            CACHE.remove(cacheKey);
+        }
+    }
+
+    /**
+     * 清理过期条目，开启持久化时同时清理数据库中的过期记录
+     *
+     * @return 本地清理的条目数
+     */
+    public static int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int purged = CACHE.purgeExpired(now);
+        if (persist) {
+            getPool().preparedQuery(DELETE_EXPIRED_SQL)
+                    .execute(Tuple.of(now))
+                    .onSuccess(res -> {
+                        if (res.rowCount() > 0) {
+                            LOGGER.info("清理过期目录列表缓存记录 {} 条", res.rowCount());
+                        }
+                    })
+                    .onFailure(e -> LOGGER.warn("清理过期目录列表缓存记录失败", e));
+        }
+        return purged;
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static void putLocal(String cacheKey, List<FileInfo> fileList, long expireAt, long now) {
+        if (expireAt <= now) {
+            return;
+        }
+        int evicted = CACHE.put(cacheKey, fileList, expireAt);
+        if (evicted > 0) {
+            LOGGER.debug("目录列表缓存容量超限，淘汰 {} 条", evicted);
+        }
+    }
+
+    private static void persist(String cacheKey, List<FileInfo> fileList, long expireAt) {
+        String json;
+        try {
+            json = Json.encode(fileList);
+        } catch (Exception e) {
+            LOGGER.warn("目录列表序列化失败，跳过持久化: cacheKey={}", cacheKey, e);
+            return;
+        }
+        if (json.length() > MAX_PERSIST_LENGTH || cacheKey.length() > MAX_KEY_LENGTH) {
+            LOGGER.info("目录列表或缓存key过长，跳过持久化: cacheKey={}, length={}, size={}",
+                    cacheKey, json.length(), fileList.size());
+            return;
+        }
+        String upsertSql = JDBCPoolInit.instance().getType() == JDBCType.MySQL ? UPSERT_SQL_MYSQL : UPSERT_SQL_H2;
+        getPool().preparedQuery(upsertSql)
+                .execute(Tuple.of(cacheKey, json, expireAt))
+                .onFailure(e -> LOGGER.warn("目录列表缓存写入失败: cacheKey={}", cacheKey, e));
+    }
+
+    private static List<FileInfo> decode(String json) {
+        JsonArray array = new JsonArray(json);
+        List<FileInfo> fileList = new ArrayList<>(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            fileList.add(array.getJsonObject(i).mapTo(FileInfo.class));
+        }
+        return List.copyOf(fileList);
+    }
+
+    private static Pool getPool() {
+        return JDBCPoolInit.instance().getPool();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(value.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
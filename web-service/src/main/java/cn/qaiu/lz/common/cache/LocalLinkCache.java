@@ -0,0 +1,168 @@
+package cn.qaiu.lz.common.cache;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.lz.web.model.CacheLinkInfo;
+import cn.qaiu.util.BoundedTtlCache;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 直链本地内存缓存(L1)，位于 {@link CacheManager} 的数据库缓存之前。
+ * <p>
+ * 命中时直接返回，不再访问 cache_link_info / pan_file_info；
+ * 未命中时由 CacheManager 回源数据库并回填，写入数据库时同步写入本缓存。
+ * 条目的过期时间取直链到期时间与网盘配置缓存时长两者中较早的一个，
+ * 条目数量超过上限时先清理过期条目，再淘汰最早到期的条目。
+ * 配置了过期直链窗口(cache.staleWhileRevalidate)的网盘，条目在到期后的窗口内仍会返回，由调用方判断是否需要后台刷新。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class LocalLinkCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalLinkCache.class);
+
+    private static final BoundedTtlCache<String, Entry> CACHE = new BoundedTtlCache<>(10_000);
+
+    private static volatile boolean enabled = true;
+    private static volatile int maxSize = 10_000;
+
+    private LocalLinkCache() {}
+
+    /**
+     * 读取 cache.local 配置
+     *
+     * @param config cache.local 配置, 可为空
+     */
+    public static void init(JsonObject config) {
+        if (config != null) {
+            enabled = config.getBoolean("enabled", true);
+            maxSize = Math.max(1, config.getInteger("maxSize", 10_000));
+            CACHE.setMaxSize(maxSize);
+        }
+        if (!enabled) {
+            CACHE.clear();
+        }
+        LOGGER.info("本地直链缓存: enabled={}, maxSize={}", enabled, maxSize);
+    }
+
+    /**
+     * 获取未过期(或仍在过期直链窗口内)的缓存，返回新的 CacheLinkInfo 和 FileInfo 实例，调用方可自由修改
+     *
+     * @param cacheKey 缓存key: type:shareKey
+     * @return 命中返回缓存信息，否则返回null
+     */
+    public static CacheLinkInfo get(String cacheKey) {
+        if (!enabled || cacheKey == null) {
+            return null;
+        }
+        Entry entry = CACHE.get(cacheKey, System.currentTimeMillis());
+        if (entry == null) {
+            return null;
+        }
+        entry.hits.incrementAndGet();
+        return entry.toCacheLinkInfo(cacheKey);
+    }
+
+    /**
+     * 当前缓存条目的命中次数，条目被刷新后重新计数
+     *
+     * @param cacheKey 缓存key: type:shareKey
+     */
+    public static int hitCount(String cacheKey) {
+        Entry entry = CACHE.get(cacheKey, System.currentTimeMillis());
+        return entry == null ? 0 : entry.hits.get();
+    }
+
+    /**
+     * 写入缓存，已过期或所属网盘未配置缓存时长的直链不写入。保存的是 FileInfo 的副本，之后修改入参不影响缓存
+     *
+     * @param cacheLinkInfo 直链缓存信息
+     */
+    public static void put(CacheLinkInfo cacheLinkInfo) {
+        if (!enabled || cacheLinkInfo == null || cacheLinkInfo.getShareKey() == null
+                || cacheLinkInfo.getDirectLink() == null || cacheLinkInfo.getExpiration() == null) {
+            return;
+        }
+        String cacheKey = cacheLinkInfo.getShareKey();
+        long now = System.currentTimeMillis();
+        long expireAt = resolveExpireAt(cacheKey, cacheLinkInfo.getExpiration(), now);
+        if (expireAt <= 0) {
+            return;
+        }
+        long staleUntil = expireAt + CacheConfigLoader.getStaleWindowMillis(typeOf(cacheKey));
+        if (staleUntil <= now) {
+            return;
+        }
+        FileInfo fileInfo = cacheLinkInfo.getFileInfo();
+        int evicted = CACHE.put(cacheKey, new Entry(cacheLinkInfo.getDirectLink(), cacheLinkInfo.getExpiration(),
+                fileInfo == null ? null : fileInfo.copy()), staleUntil);
+        if (evicted > 0) {
+            LOGGER.debug("本地直链缓存容量超限，淘汰 {} 条", evicted);
+        }
+    }
+
+    public static void invalidate(String cacheKey) {
+        CACHE.remove(cacheKey);
+    }
+
+    /**
+     * 清理已过期的条目
+     *
+     * @return 清理的条目数
+     */
+    public static int purgeExpired() {
+        return CACHE.purgeExpired(System.currentTimeMillis());
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * 本地缓存的有效期不超过网盘配置的缓存时长
+     */
+    private static long resolveExpireAt(String cacheKey, long expiration, long now) {
+        Integer duration = CacheConfigLoader.getDuration(typeOf(cacheKey));
+        if (duration == null || duration <= 0) {
+            return 0L;
+        }
+        return Math.min(expiration, now + duration * 60 * 1000L);
+    }
+
+    private static String typeOf(String cacheKey) {
+        int separator = cacheKey.indexOf(':');
+        return separator > 0 ? cacheKey.substring(0, separator) : cacheKey;
+    }
+
+    private static final class Entry {
+        final String directLink;
+        final long expiration;
+        final FileInfo fileInfo;
+        final AtomicInteger hits = new AtomicInteger();
+
+        Entry(String directLink, long expiration, FileInfo fileInfo) {
+            this.directLink = directLink;
+            this.expiration = expiration;
+            this.fileInfo = fileInfo;
+        }
+
+        CacheLinkInfo toCacheLinkInfo(String cacheKey) {
+            CacheLinkInfo info = new CacheLinkInfo(JsonObject.of(
+                    "shareKey", cacheKey,
+                    "directLink", directLink,
+                    "expiration", expiration,
+                    "cacheHit", true
+            ));
+            info.setFileInfo(fileInfo == null ? null : fileInfo.copy());
+            return info;
+        }
+    }
+}
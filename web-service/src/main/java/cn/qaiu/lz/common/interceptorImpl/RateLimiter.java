@@ -1,120 +1,194 @@
 package cn.qaiu.lz.common.interceptorImpl;
 
 import io.vertx.core.Future;
-import io.vertx.core.Promise;
 import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 按IP的令牌桶限流
+ * <p>
+ * 每条规则在 timeWindow 内允许 limit 次请求(可一次性突发 limit 次)，令牌按 timeWindow/limit 的间隔匀速恢复。
+ * 每个IP的桶只保存一个"理论到达时间"(GCRA)，请求时做一次 CAS，不加任何全局锁。
+ * 桶记录按IP哈希分散到多个分段，分段超出容量或到达清理间隔时只清理该分段内已恢复满的桶，
+ * 不会对全部记录做一次性清理。
+ * </p>
+ * 配置示例(app-*.yml):
+ * <pre>
+ * rateLimit:
+ *   enable: true
+ *   limit: 10
+ *   timeWindow: 10
+ *   pathReg: ^/v2/.*
+ *   routes:
+ *     - pathReg: ^/v2/getFileList.*
+ *       limit: 5
+ *       timeWindow: 10
+ * </pre>
+ * routes 按顺序匹配，匹配到的路由使用自己的限额；都未匹配时使用外层的默认规则。
+ */
 @Slf4j
 public class RateLimiter {
 
-    private static final Map<String, RequestInfo> ipRequestMap = new ConcurrentHashMap<>();
-    private static int MAX_REQUESTS = 10; // 最大请求次数
-    private static int MAX_ENTRIES = 10_000;
-    private static long TIME_WINDOW = 60 * 1000; // 时间窗口（毫秒）
-
-    private static String PATH_REG = "/.*"; // 限流路径正则（默认匹配所有路径）
+    private static final int STRIPES = 16;
+    // 分段清理间隔（30秒）
+    private static final long CLEANUP_INTERVAL = TimeUnit.SECONDS.toNanos(30);
 
-    // 上次清理时间
-    private static volatile long lastCleanupTime = System.currentTimeMillis();
-    // 清理间隔（30秒）
-    private static final long CLEANUP_INTERVAL = 30 * 1000;
+    private static volatile List<Rule> rules = List.of(new Rule("/.*", 10, 60, 10_000));
 
     public static void init(JsonObject rateLimitConfig) {
-        MAX_REQUESTS = rateLimitConfig.getInteger("limit", 10);
-        MAX_ENTRIES = rateLimitConfig.getInteger("maxEntries", 10_000);
-        TIME_WINDOW = rateLimitConfig.getInteger("timeWindow", 60) * 1000L; // 转换为毫秒
-        PATH_REG = rateLimitConfig.getString("pathReg", "/.*");
-        log.info("RateLimiter initialized with max requests: {}, time window: {} ms, path regex: {}",
-                MAX_REQUESTS, TIME_WINDOW, PATH_REG);
+        int maxEntries = rateLimitConfig.getInteger("maxEntries", 10_000);
+        List<Rule> newRules = new ArrayList<>();
+        JsonArray routes = rateLimitConfig.getJsonArray("routes");
+        if (routes != null) {
+            for (int i = 0; i < routes.size(); i++) {
+                JsonObject route = routes.getJsonObject(i);
+                newRules.add(new Rule(route.getString("pathReg"),
+                        route.getInteger("limit", 10),
+                        route.getInteger("timeWindow", 60),
+                        route.getInteger("maxEntries", maxEntries)));
+            }
+        }
+        newRules.add(new Rule(rateLimitConfig.getString("pathReg", "/.*"),
+                rateLimitConfig.getInteger("limit", 10),
+                rateLimitConfig.getInteger("timeWindow", 60),
+                maxEntries));
+        rules = List.copyOf(newRules);
+        newRules.forEach(rule -> log.info("RateLimiter rule: path regex: {}, max requests: {}, time window: {} s",
+                rule.pathPattern.pattern(), rule.limit, rule.windowSeconds));
     }
 
     public static Future<Void> checkRateLimit(HttpServerRequest request) {
-        Promise<Void> promise = Promise.promise();
-        if (!request.path().matches(PATH_REG)) {
+        String rejected = tryAcquire(request.path(), request.remoteAddress().host(), System.nanoTime());
+        return rejected == null ? Future.succeededFuture() : Future.failedFuture(rejected);
+    }
+
+    /**
+     * 尝试消耗一个令牌
+     *
+     * @param path 请求路径
+     * @param ip   客户端IP
+     * @param now  当前时间(System.nanoTime)
+     * @return 允许时返回null，否则返回提示信息
+     */
+    static String tryAcquire(String path, String ip, long now) {
+        Rule rule = matchRule(path);
+        if (rule == null) {
             // 如果请求路径不匹配正则，则不进行限流
-            promise.complete();
-            return promise.future();
+            return null;
         }
+        return rule.tryAcquire(ip, now);
+    }
 
-        String ip = request.remoteAddress().host();
+    private static Rule matchRule(String path) {
+        for (Rule rule : rules) {
+            if (rule.pathPattern.matcher(path).matches()) {
+                return rule;
+            }
+        }
+        return null;
+    }
 
-        // 基于时间间隔的清理策略，避免 Map 无限增长
-        long now = System.currentTimeMillis();
-        if (now - lastCleanupTime > CLEANUP_INTERVAL) {
-            cleanupExpiredEntries(now, false);
+    static int size() {
+        return rules.stream().mapToInt(Rule::size).sum();
+    }
+
+    /**
+     * 一条限流规则及其IP桶
+     */
+    private static final class Rule {
+        final Pattern pathPattern;
+        final int limit;
+        final int windowSeconds;
+        final long windowNanos;
+        // 每个令牌的恢复间隔
+        final long intervalNanos;
+        final int maxEntriesPerStripe;
+        final Stripe[] stripes = new Stripe[STRIPES];
+
+        Rule(String pathReg, int limit, int windowSeconds, int maxEntries) {
+            this.pathPattern = Pattern.compile(pathReg);
+            this.limit = Math.max(1, limit);
+            this.windowSeconds = Math.max(1, windowSeconds);
+            this.windowNanos = TimeUnit.SECONDS.toNanos(this.windowSeconds);
+            this.intervalNanos = Math.max(1, windowNanos / this.limit);
+            this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe();
+            }
         }
-        RequestInfo info;
-        synchronized (RateLimiter.class) {
-            if (!ipRequestMap.containsKey(ip) && ipRequestMap.size() >= MAX_ENTRIES) {
-                cleanupExpiredEntries(now, true);
-                if (ipRequestMap.size() >= MAX_ENTRIES) {
-                    promise.fail("限流记录过多，请稍后再试。");
-                    return promise.future();
+
+        String tryAcquire(String ip, long now) {
+            Stripe stripe = stripes[(ip.hashCode() & 0x7fffffff) % STRIPES];
+            stripe.maybeCleanup(now, false);
+            AtomicLong tat = stripe.buckets.get(ip);
+            if (tat == null) {
+                if (stripe.buckets.size() >= maxEntriesPerStripe) {
+                    stripe.maybeCleanup(now, true);
+                    if (stripe.buckets.size() >= maxEntriesPerStripe) {
+                        return "限流记录过多，请稍后再试。";
+                    }
                 }
+                tat = stripe.buckets.computeIfAbsent(ip, k -> new AtomicLong(now));
             }
-
-            info = ipRequestMap.compute(ip, (key, requestInfo) -> {
-                if (requestInfo == null || now - requestInfo.timestamp > TIME_WINDOW) {
-                    // 初始化或重置计数器
-                    return new RequestInfo(1, now);
-                } else {
-                    // 增加计数器
-                    requestInfo.count.incrementAndGet();
-                    return requestInfo;
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + intervalNanos;
+                if (next - now > windowNanos) {
+                    // 超过限制，计算下一个令牌恢复的剩余时间
+                    long remainingNanos = next - windowNanos - now;
+                    BigDecimal seconds = BigDecimal.valueOf(remainingNanos / 1_000_000_000.0)
+                            .setScale(2, RoundingMode.HALF_UP);
+                    return "请求次数太多了，请" + seconds + "秒后再试。";
                 }
-            });
+                if (tat.compareAndSet(current, next)) {
+                    return null;
+                }
+            }
         }
 
-        if (info.count.get() > MAX_REQUESTS) {
-            // 超过限制
-            // 计算剩余时间
-            long remainingTime = TIME_WINDOW - (now - info.timestamp);
-            BigDecimal bigDecimal = BigDecimal.valueOf(remainingTime / 1000.0)
-                    .setScale(2, RoundingMode.HALF_UP);
-            promise.fail("请求次数太多了，请" + bigDecimal + "秒后再试。");
-        } else {
-            // 未超过限制，继续处理
-            promise.complete();
+        int size() {
+            int size = 0;
+            for (Stripe stripe : stripes) {
+                size += stripe.buckets.size();
+            }
+            return size;
         }
-        return promise.future();
     }
 
     /**
-     * 清理过期的限流条目
-     * 使用 synchronized 避免并发清理
+     * IP桶分段：桶的值为理论到达时间，小于等于当前时间表示令牌已恢复满，可直接移除
      */
-    private static synchronized void cleanupExpiredEntries(long now, boolean force) {
-        // 双重检查，避免重复清理
-        if (!force && now - lastCleanupTime <= CLEANUP_INTERVAL) {
-            return;
-        }
-        lastCleanupTime = now;
-
-        int sizeBefore = ipRequestMap.size();
-        if (sizeBefore > 0) {
-            ipRequestMap.entrySet().removeIf(entry -> now - entry.getValue().timestamp > TIME_WINDOW);
-            int sizeAfter = ipRequestMap.size();
-            if (sizeBefore > 100 || sizeAfter != sizeBefore) {
-                log.debug("RateLimiter 清理过期条目: {} -> {}", sizeBefore, sizeAfter);
+    private static final class Stripe {
+        final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        final AtomicLong lastCleanup = new AtomicLong(System.nanoTime());
+
+        void maybeCleanup(long now, boolean force) {
+            long last = lastCleanup.get();
+            if (!force && now - last <= CLEANUP_INTERVAL) {
+                return;
+            }
+            // 同一分段同时只有一个线程清理
+            if (!lastCleanup.compareAndSet(last, now)) {
+                return;
+            }
+            int sizeBefore = buckets.size();
+            buckets.entrySet().removeIf(entry -> entry.getValue().get() - now <= 0);
+            int sizeAfter = buckets.size();
+            if (sizeAfter != sizeBefore) {
+                log.debug("RateLimiter 清理分段过期条目: {} -> {}", sizeBefore, sizeAfter);
             }
-        }
-    }
-
-    private static class RequestInfo {
-        final AtomicInteger count;
-        volatile long timestamp;
-
-        RequestInfo(int count, long time) {
-            this.count = new AtomicInteger(count);
-            this.timestamp = time;
         }
     }
 }
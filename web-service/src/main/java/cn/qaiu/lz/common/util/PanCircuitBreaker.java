@@ -0,0 +1,276 @@
+package cn.qaiu.lz.common.util;
+
+import cn.qaiu.parser.UpstreamException;
+import io.vertx.core.json.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按网盘类型的上游熔断器
+ * <p>
+ * 每个网盘类型统计最近 windowSize 次解析，调用数不少于 minimumCalls 且失败率或慢调用率超过阈值时熔断(OPEN)，
+ * 熔断期间该类型的解析直接失败，不再占用连接和等待超时。openDuration 秒后进入半开(HALF_OPEN)，
+ * 放行 halfOpenCalls 次探测解析，全部成功则恢复(CLOSED)，任一失败则重新熔断。
+ * </p>
+ * <p>
+ * 失败率只统计上游不可用({@link Outcome#UPSTREAM_FAILURE}: 连接/IO异常、超时、5xx)，
+ * 分享失效、密码错误、Cookie过期等说明上游正常响应，按正常调用统计。
+ * 未配置 circuitBreaker 段时不启用。
+ * </p>
+ * 配置示例:
+ * <pre>
+ * circuitBreaker:
+ *   enabled: true
+ *   windowSize: 20
+ *   minimumCalls: 10
+ *   failureRateThreshold: 50
+ *   slowCallDuration: 20000
+ *   slowCallRateThreshold: 80
+ *   openDuration: 30
+ *   halfOpenCalls: 2
+ * </pre>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@Slf4j
+public final class PanCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 解析结果分类
+     */
+    public enum Outcome {
+        /**
+         * 成功
+         */
+        SUCCESS,
+        /**
+         * 上游正常响应但解析失败, 如分享失效、密码错误
+         */
+        BUSINESS_FAILURE,
+        /**
+         * 上游不可用: 连接/IO异常、超时、5xx
+         */
+        UPSTREAM_FAILURE
+    }
+
+    private static final Map<String, Breaker> BREAKERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = false;
+    private static volatile int windowSize = 20;
+    private static volatile int minimumCalls = 10;
+    private static volatile int failureRateThreshold = 50;
+    private static volatile long slowCallDurationMillis = 20000;
+    private static volatile int slowCallRateThreshold = 80;
+    private static volatile long openDurationMillis = 30 * 1000L;
+    private static volatile int halfOpenCalls = 2;
+
+    private PanCircuitBreaker() {}
+
+    /**
+     * 读取 circuitBreaker 配置
+     *
+     * @param config circuitBreaker 配置, 可为空
+     */
+    public static void init(JsonObject config) {
+        enabled = config != null && config.getBoolean("enabled", false);
+        if (config != null) {
+            windowSize = Math.max(1, config.getInteger("windowSize", 20));
+            minimumCalls = Math.max(1, Math.min(windowSize, config.getInteger("minimumCalls", 10)));
+            failureRateThreshold = clampPercent(config.getInteger("failureRateThreshold", 50));
+            slowCallDurationMillis = config.getLong("slowCallDuration", 20000L);
+            slowCallRateThreshold = clampPercent(config.getInteger("slowCallRateThreshold", 80));
+            openDurationMillis = Math.max(1, config.getInteger("openDuration", 30)) * 1000L;
+            halfOpenCalls = Math.max(1, config.getInteger("halfOpenCalls", 2));
+        }
+        BREAKERS.clear();
+        log.info("上游熔断: enabled={}, windowSize={}, minimumCalls={}, failureRate={}%, slowCall={}ms/{}%, " +
+                        "openDuration={}s, halfOpenCalls={}", enabled, windowSize, minimumCalls, failureRateThreshold,
+                slowCallDurationMillis, slowCallRateThreshold, openDurationMillis / 1000, halfOpenCalls);
+    }
+
+    /**
+     * 是否允许发起解析，半开状态下放行的请求计为探测，必须调用 {@link #record} 回报结果
+     *
+     * @param type 网盘类型
+     */
+    public static boolean allowRequest(String type) {
+        if (!enabled || type == null) {
+            return true;
+        }
+        return breaker(type).allowRequest(System.currentTimeMillis());
+    }
+
+    /**
+     * 回报一次解析结果
+     *
+     * @param type           网盘类型
+     * @param durationMillis 耗时
+     * @param outcome        结果分类, 只有 {@link Outcome#UPSTREAM_FAILURE} 计为失败
+     */
+    public static void record(String type, long durationMillis, Outcome outcome) {
+        if (!enabled || type == null) {
+            return;
+        }
+        breaker(type).record(type, durationMillis, outcome == Outcome.UPSTREAM_FAILURE, System.currentTimeMillis());
+    }
+
+    /**
+     * 按失败原因分类
+     *
+     * @param cause 解析失败的异常, 为空表示成功
+     */
+    public static Outcome classify(Throwable cause) {
+        if (cause == null) {
+            return Outcome.SUCCESS;
+        }
+        return UpstreamException.isUpstreamFailure(cause) ? Outcome.UPSTREAM_FAILURE : Outcome.BUSINESS_FAILURE;
+    }
+
+    /**
+     * 放行后未实际发起解析时归还半开探测名额，不计入统计
+     *
+     * @param type 网盘类型
+     */
+    public static void release(String type) {
+        Breaker breaker = type == null ? null : BREAKERS.get(type.toLowerCase());
+        if (breaker != null) {
+            breaker.release();
+        }
+    }
+
+    public static State getState(String type) {
+        Breaker breaker = type == null ? null : BREAKERS.get(type.toLowerCase());
+        return breaker == null ? State.CLOSED : breaker.state;
+    }
+
+    public static void reset() {
+        BREAKERS.clear();
+    }
+
+    private static int clampPercent(int value) {
+        return Math.max(1, Math.min(100, value));
+    }
+
+    private static Breaker breaker(String type) {
+        return BREAKERS.computeIfAbsent(type.toLowerCase(), k -> new Breaker(windowSize));
+    }
+
+    /**
+     * 熔断期间快速失败
+     */
+    public static final class OpenException extends RuntimeException {
+        public OpenException(String type) {
+            super("网盘[" + type + "]上游暂时不可用，请稍后重试");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * 单个网盘类型的熔断状态，基于固定大小的环形窗口
+     */
+    private static final class Breaker {
+        private final boolean[] failed;
+        private final boolean[] slow;
+        private int index;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+
+        private volatile State state = State.CLOSED;
+        private long openedAt;
+        private int probesInFlight;
+        private int probeSuccesses;
+
+        Breaker(int size) {
+            this.failed = new boolean[size];
+            this.slow = new boolean[size];
+        }
+
+        synchronized boolean allowRequest(long now) {
+            if (state == State.OPEN) {
+                if (now - openedAt < openDurationMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= halfOpenCalls) {
+                    return false;
+                }
+                probesInFlight++;
+            }
+            return true;
+        }
+
+        synchronized void release() {
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+            }
+        }
+
+        synchronized void record(String type, long durationMillis, boolean upstreamFailure, long now) {
+            boolean isSlow = slowCallDurationMillis > 0 && durationMillis >= slowCallDurationMillis;
+            if (state == State.HALF_OPEN) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (upstreamFailure || isSlow) {
+                    open(type, now);
+                } else if (++probeSuccesses >= halfOpenCalls) {
+                    state = State.CLOSED;
+                    clearWindow();
+                    log.info("网盘[{}]上游恢复，熔断关闭", type);
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                // 熔断前已发出的请求
+                return;
+            }
+            if (calls == failed.length) {
+                failures -= failed[index] ? 1 : 0;
+                slowCalls -= slow[index] ? 1 : 0;
+            } else {
+                calls++;
+            }
+            failed[index] = upstreamFailure;
+            slow[index] = isSlow;
+            failures += upstreamFailure ? 1 : 0;
+            slowCalls += isSlow ? 1 : 0;
+            index = (index + 1) % failed.length;
+
+            if (calls >= minimumCalls && (failures * 100 >= failureRateThreshold * calls
+                    || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+                open(type, now);
+            }
+        }
+
+        private void open(String type, long now) {
+            state = State.OPEN;
+            openedAt = now;
+            log.warn("网盘[{}]上游异常，熔断 {} 秒: calls={}, failures={}, slowCalls={}",
+                    type, openDurationMillis / 1000, calls, failures, slowCalls);
+            clearWindow();
+        }
+
+        private void clearWindow() {
+            index = 0;
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+            Arrays.fill(failed, false);
+            Arrays.fill(slow, false);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package cn.qaiu.lz.common.util;
+
+import cn.qaiu.parser.customjs.JsParserExecutor;
+import cn.qaiu.vx.core.util.MetricsUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析链路指标
+ * <ul>
+ *   <li>nfd_parse_duration_seconds: 按网盘类型、结果统计的解析耗时</li>
+ *   <li>nfd_parse_cache_requests_total: 按网盘类型统计的直链缓存命中(hit)、未命中(miss)、合并到进行中解析(shared)、
+ *   返回过期直链并后台刷新(stale)</li>
+ *   <li>nfd_js_executor_*: JS解析器执行许可占用、排队和拒绝次数</li>
+ * </ul>
+ * 上游HTTP耗时、工作线程池和数据源连接池等待由 Vert.x 指标自动采集(vertx_http_client_*, vertx_pool_*)。
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+public final class ParseMetrics {
+
+    public static final String CACHE_HIT = "hit";
+    public static final String CACHE_MISS = "miss";
+    public static final String CACHE_SHARED = "shared";
+    public static final String CACHE_STALE = "stale";
+
+    private ParseMetrics() {}
+
+    /**
+     * 注册 JS 解析器执行器指标
+     */
+    public static void registerExecutorGauges() {
+        MeterRegistry registry = MetricsUtil.registry();
+        Gauge.builder("nfd.js.executor.permits.max", JsParserExecutor::getMaxConcurrentExecutions)
+                .description("JS解析最大并发数")
+                .register(registry);
+        Gauge.builder("nfd.js.executor.permits.active", JsParserExecutor::getActiveExecutions)
+                .description("占用中的JS解析执行许可")
+                .register(registry);
+        Gauge.builder("nfd.js.executor.queued", JsParserExecutor::getQueuedExecutions)
+                .description("已获得许可、等待线程开始执行的JS解析")
+                .register(registry);
+        FunctionCounter.builder("nfd.js.executor.rejected", JsParserExecutor.class,
+                        c -> JsParserExecutor.getRejectedExecutions())
+                .description("并发已满被拒绝的JS解析")
+                .register(registry);
+    }
+
+    /**
+     * 记录一次解析耗时
+     *
+     * @param type        网盘类型
+     * @param startNanos  开始时间 {@link System#nanoTime()}
+     * @param success     是否成功
+     */
+    public static void recordParse(String type, long startNanos, boolean success) {
+        Timer.builder("nfd.parse.duration")
+                .description("网盘解析耗时")
+                .tag("type", tagValue(type))
+                .tag("outcome", success ? "success" : "failure")
+                .publishPercentileHistogram()
+                .register(MetricsUtil.registry())
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次直链缓存查询结果
+     *
+     * @param type   网盘类型
+     * @param result {@link #CACHE_HIT} / {@link #CACHE_MISS} / {@link #CACHE_SHARED} / {@link #CACHE_STALE}
+     */
+    public static void recordCache(String type, String result) {
+        Counter.builder("nfd.parse.cache.requests")
+                .description("直链缓存查询")
+                .tag("type", tagValue(type))
+                .tag("result", result)
+                .register(MetricsUtil.registry())
+                .increment();
+    }
+
+    private static String tagValue(String type) {
+        return type == null || type.isBlank() ? "unknown" : type.toLowerCase();
+    }
+}
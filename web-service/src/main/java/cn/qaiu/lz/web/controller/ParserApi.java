@@ -2,8 +2,10 @@ package cn.qaiu.lz.web.controller;
 
 
 import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.FileListPage;
 import cn.qaiu.entity.ShareLinkInfo;
 import cn.qaiu.lz.common.cache.CacheManager;
+import cn.qaiu.lz.common.cache.DirListCache;
 import cn.qaiu.lz.common.util.AuthParamCodec;
 import cn.qaiu.lz.common.util.ParserAuthUtil;
 import cn.qaiu.lz.common.util.URLParamUtil;
@@ -19,6 +21,7 @@ import cn.qaiu.parser.ParserCreate;
 import cn.qaiu.parser.clientlink.ClientLinkGeneratorFactory;
 import cn.qaiu.parser.clientlink.ClientLinkType;
 import cn.qaiu.util.CommonUtils;
+import cn.qaiu.vx.core.annotaions.ResponseCache;
 import cn.qaiu.vx.core.annotaions.RouteHandler;
 import cn.qaiu.vx.core.annotaions.RouteMapping;
 import cn.qaiu.vx.core.enums.RouteMethod;
@@ -29,8 +32,11 @@ import cn.qaiu.vx.core.util.ResponseUtil;
 import cn.qaiu.vx.core.util.SharedDataUtil;
 import io.vertx.core.Future;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.Json;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import lombok.extern.slf4j.Slf4j;
@@ -39,12 +45,19 @@ import org.apache.commons.lang3.StringUtils;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RouteHandler(value = "/v2", order = 10)
 @Slf4j
 public class ParserApi {
 
+    private static final String NDJSON_FORMAT = "ndjson";
+    private static final int FILE_LIST_PAGE_SIZE = 100;
+    private static final int FILE_LIST_MAX_PAGE_SIZE = 1000;
+    private static final int NDJSON_CHUNK_SIZE = 16 * 1024;
+
     private final DbService dbService = AsyncServiceUtil.getAsyncServiceInstance(DbService.class);
 
     /**
@@ -73,6 +86,7 @@ public class ParserApi {
 
 
     @RouteMapping(value = "/statisticsInfo", method = RouteMethod.GET, order = 99)
+    @ResponseCache(ttl = 30)
     public Future<StatisticsInfo> statisticsInfo() {
         return dbService.getStatisticsInfo();
     }
@@ -152,6 +166,7 @@ public class ParserApi {
      * @return list-map: name: 网盘名, type: 网盘标识, url: 网盘域名地址
      */
     @RouteMapping("/getPanList")
+    @ResponseCache(ttl = 600)
     public List<Map<String, String>> getPanList() {
         return Arrays.stream(PanDomainTemplate.values()).map(pan -> new TreeMap<String, String>() {{
             put("name", pan.getDisplayName());
@@ -163,7 +178,136 @@ public class ParserApi {
 
     @RouteMapping("/getFileList")
     public Future<List<FileInfo>> getFileList(HttpServerRequest request, String pwd, String dirId, String uuid,
-                                             String stoken, String zml, String auth) {
+                                             String stoken, String zml, String auth, String format) {
+        if (NDJSON_FORMAT.equalsIgnoreCase(format)) {
+            return streamFileList(request, pwd, dirId, uuid, stoken, zml, auth).map(v -> null);
+        }
+        return withFileListTool(request, pwd, dirId, uuid, stoken, zml, auth, Future::succeededFuture,
+                (tool, ctx) -> ctx.cache(tool.parseFileList()));
+    }
+
+    /**
+     * 分页获取文件列表
+     *
+     * @param cursor 游标, 首页不传, 后续传上一页返回的 nextCursor
+     * @param limit  每页条数, 默认100, 最大1000
+     */
+    @RouteMapping("/getFileListPage")
+    public Future<FileListPage> getFileListPage(HttpServerRequest request, String pwd, String dirId, String uuid,
+                                                String stoken, String zml, String auth, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? FILE_LIST_PAGE_SIZE : Math.min(limit, FILE_LIST_MAX_PAGE_SIZE);
+        return withFileListTool(request, pwd, dirId, uuid, stoken, zml, auth,
+                cached -> Future.succeededFuture(cached).map(list -> FileListPage.slice(list, cursor, pageSize)),
+                (tool, ctx) -> tool.supportsFileListPage()
+                        ? tool.parseFileListPage(cursor, pageSize)
+                        : ctx.cache(tool.parseFileList()).map(list -> FileListPage.slice(list, cursor, pageSize)));
+    }
+
+    /**
+     * 以 NDJSON(每行一个文件JSON) 分块输出文件列表，写队列满时暂停，客户端读完后继续。
+     * 支持上游分页的解析器每取到一页就写出一页，全部取完后写入目录列表缓存；
+     * 其他解析器仍通过 parseFileList() 取得完整列表，只是分块写出，不是流式获取。
+     * 开始写出后再失败时，写出一行 {"error": "..."} 并结束响应。
+     */
+    private Future<Void> streamFileList(HttpServerRequest request, String pwd, String dirId, String uuid,
+                                        String stoken, String zml, String auth) {
+        HttpServerResponse response = request.response();
+        return withFileListTool(request, pwd, dirId, uuid, stoken, zml, auth,
+                cached -> writeNdjson(response, cached),
+                (tool, ctx) -> {
+                    if (!tool.supportsFileListPage()) {
+                        return ctx.cache(tool.parseFileList()).compose(list -> writeNdjson(response, list));
+                    }
+                    List<FileInfo> streamed = new ArrayList<>();
+                    return streamFileListPages(tool, response, null, streamed)
+                            .onSuccess(v -> ctx.cache(Future.succeededFuture(streamed)));
+                })
+                .compose(v -> {
+                    if (!response.headWritten()) {
+                        beginNdjson(response);
+                    }
+                    return response.end();
+                }, e -> {
+                    if (!response.headWritten()) {
+                        return Future.failedFuture(e);
+                    }
+                    String msg = e.getMessage() != null ? e.getMessage() : "服务器内部错误";
+                    return response.end(JsonObject.of("error", msg).encode() + "\n");
+                });
+    }
+
+    /**
+     * 逐页获取并写出, 已写出的文件收集到 streamed, 全部完成后写入目录列表缓存
+     */
+    private Future<Void> streamFileListPages(IPanTool tool, HttpServerResponse response, String cursor,
+                                             List<FileInfo> streamed) {
+        // 流式输出不限制每页条数, 由解析器按上游最大分页请求
+        return tool.parseFileListPage(cursor, FILE_LIST_MAX_PAGE_SIZE)
+                .compose(page -> {
+                    if (page.getItems() != null) {
+                        streamed.addAll(page.getItems());
+                    }
+                    return writeNdjson(response, page.getItems())
+                            .compose(v -> page.getNextCursor() == null
+                                    ? Future.succeededFuture()
+                                    : streamFileListPages(tool, response, page.getNextCursor(), streamed));
+                });
+    }
+
+    private static void beginNdjson(HttpServerResponse response) {
+        response.setChunked(true).putHeader(HttpHeaders.CONTENT_TYPE, "application/x-ndjson; charset=utf-8");
+    }
+
+    /**
+     * 按行写出文件，每满 {@link #NDJSON_CHUNK_SIZE} 字节写出一块。写队列满时暂停，
+     * 等 drainHandler 回调后继续；写完且写队列未满时返回，分页输出时据此再取下一页。
+     */
+    private static Future<Void> writeNdjson(HttpServerResponse response, List<FileInfo> fileList) {
+        if (!response.headWritten()) {
+            beginNdjson(response);
+        }
+        Promise<Void> promise = Promise.promise();
+        writeNdjson(response, fileList == null ? List.of() : fileList, 0, promise);
+        return promise.future();
+    }
+
+    private static void writeNdjson(HttpServerResponse response, List<FileInfo> fileList, int from,
+                                    Promise<Void> promise) {
+        int i = from;
+        while (true) {
+            if (response.closed()) {
+                promise.tryFail("客户端已断开");
+                return;
+            }
+            if (response.writeQueueFull()) {
+                int next = i;
+                response.closeHandler(v -> promise.tryFail("客户端已断开"));
+                response.drainHandler(v -> {
+                    response.drainHandler(null);
+                    writeNdjson(response, fileList, next, promise);
+                });
+                return;
+            }
+            if (i >= fileList.size()) {
+                promise.tryComplete();
+                return;
+            }
+            Buffer chunk = Buffer.buffer();
+            while (i < fileList.size() && chunk.length() < NDJSON_CHUNK_SIZE) {
+                chunk.appendString(Json.encode(fileList.get(i++))).appendByte((byte) '\n');
+            }
+            response.write(chunk);
+        }
+    }
+
+    /**
+     * 文件列表请求的公共流程：构建解析器参数，命中目录列表缓存时交给 onCached，
+     * 否则完成认证参数处理后创建解析器交给 onTool，结束后关闭解析器并记录捐赠账号失败。
+     */
+    private <T> Future<T> withFileListTool(HttpServerRequest request, String pwd, String dirId, String uuid,
+                                           String stoken, String zml, String auth,
+                                           Function<List<FileInfo>, Future<T>> onCached,
+                                           BiFunction<IPanTool, FileListCacheContext, Future<T>> onTool) {
         String url = URLParamUtil.parserParams(request);
         ParserCreate parserCreate;
         try {
@@ -187,17 +331,33 @@ public class ParserApi {
         if (StringUtils.isNotBlank(zml)) {
             parserCreate.getShareLinkInfo().getOtherParam().put("zml", zml);
         }
-        return ParserAuthUtil.applyAuthParamsAndDonatedFallback(parserCreate, otherParam, dbService)
-                .compose(v -> {
-                    URLParamUtil.addParam(parserCreate);
-                    IPanTool tool = parserCreate.createTool();
-                    return IPanTool.closeAfter(tool, tool::parseFileList)
-                            .onFailure(t -> {
-                                ParserAuthUtil.recordDonatedAccountFailureIfNeeded(dbService, otherParam, t);
-                                ParserAuthUtil.recordAutoDonatedFailureIfNeeded(dbService,
-                                        parserCreate.getShareLinkInfo(), t);
-                            });
-                });
+        ShareLinkInfo shareLinkInfo = parserCreate.getShareLinkInfo();
+        String dirListKey = DirListCache.cacheKey(shareLinkInfo, pwd, dirId, uuid, stoken, zml, linkPrefix, auth);
+        FileListCacheContext cacheContext = new FileListCacheContext(shareLinkInfo.getType(), dirListKey);
+        return DirListCache.get(dirListKey).compose(cached -> {
+            if (cached != null) {
+                return onCached.apply(cached);
+            }
+            return ParserAuthUtil.applyAuthParamsAndDonatedFallback(parserCreate, otherParam, dbService)
+                    .compose(v -> {
+                        URLParamUtil.addParam(parserCreate);
+                        IPanTool tool = parserCreate.createTool();
+                        return IPanTool.closeAfter(tool, () -> onTool.apply(tool, cacheContext))
+                                .onFailure(t -> {
+                                    ParserAuthUtil.recordDonatedAccountFailureIfNeeded(dbService, otherParam, t);
+                                    ParserAuthUtil.recordAutoDonatedFailureIfNeeded(dbService, shareLinkInfo, t);
+                                });
+                    });
+        });
+    }
+
+    /**
+     * 完整列表解析成功后写入目录列表缓存
+     */
+    private record FileListCacheContext(String type, String cacheKey) {
+        Future<List<FileInfo>> cache(Future<List<FileInfo>> fileList) {
+            return fileList.onSuccess(list -> DirListCache.put(type, cacheKey, list));
+        }
     }
 
     // 目录解析下载文件
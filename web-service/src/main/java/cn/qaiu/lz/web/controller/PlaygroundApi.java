@@ -47,6 +47,14 @@ public class PlaygroundApi {
 
     private static final int MAX_PARSER_COUNT = 100;
     private static final int MAX_CODE_LENGTH = 128 * 1024; // 128KB 代码长度限制
+    private static final int TYPES_JS_MAX_AGE = 3600;
+
+    /**
+     * types.js 内容及 ETag
+     */
+    private static volatile String typesJs;
+    private static volatile String typesJsEtag;
+
     private final DbService dbService = AsyncServiceUtil.getAsyncServiceInstance(DbService.class);
     
     /**
@@ -379,6 +387,12 @@ public class PlaygroundApi {
             return;
         }
         
+        String content = typesJs;
+        if (content != null) {
+            ResponseUtil.fireCacheableResponse(ctx, "text/javascript; charset=utf-8", content, typesJsEtag,
+                    "private, max-age=" + TYPES_JS_MAX_AGE);
+            return;
+        }
         try (InputStream inputStream = getClass().getClassLoader()
                 .getResourceAsStream("custom-parsers/types.js")) {
 
@@ -387,12 +401,15 @@ public class PlaygroundApi {
                 return;
             }
 
-            String content = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))
+            content = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))
                     .lines()
                     .collect(Collectors.joining("\n"));
+            // 内容随版本发布固定，读取一次后缓存
+            typesJsEtag = ResponseUtil.strongEtag(content);
+            typesJs = content;
 
-            response.putHeader("Content-Type", "text/javascript; charset=utf-8")
-                    .end(content);
+            ResponseUtil.fireCacheableResponse(ctx, "text/javascript; charset=utf-8", content, typesJsEtag,
+                    "private, max-age=" + TYPES_JS_MAX_AGE);
 
         } catch (Exception e) {
             log.error("读取types.js失败", e);
@@ -0,0 +1,50 @@
+package cn.qaiu.lz.web.model;
+
+import cn.qaiu.db.ddl.Length;
+import cn.qaiu.db.ddl.Table;
+import cn.qaiu.lz.common.ToJson;
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 目录列表缓存(持久化)
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@Table(value = "dir_list_cache", keyFields = "cache_key")
+@Data
+@DataObject
+@NoArgsConstructor
+public class DirListCacheInfo implements ToJson {
+
+    /**
+     * 缓存key: type:shareKey#参数摘要
+     */
+    @Length(varcharSize = 512)
+    private String cacheKey;
+
+    /**
+     * 文件列表JSON
+     */
+    @Length(largeText = true)
+    private String fileList;
+
+    /**
+     * 到期时间戳
+     */
+    private Long expiration;
+
+    public DirListCacheInfo(JsonObject json) {
+        if (json.containsKey("cacheKey")) {
+            this.setCacheKey(json.getString("cacheKey"));
+        }
+        if (json.containsKey("fileList")) {
+            this.setFileList(json.getString("fileList"));
+        }
+        if (json.containsKey("expiration")) {
+            this.setExpiration(json.getLong("expiration"));
+        }
+    }
+}
@@ -2,9 +2,13 @@ package cn.qaiu.lz.web.service.impl;
 
 import cn.qaiu.entity.FileInfo;
 import cn.qaiu.entity.ShareLinkInfo;
+import cn.qaiu.lz.common.cache.ApiStatisticsWriter;
 import cn.qaiu.lz.common.cache.CacheConfigLoader;
 import cn.qaiu.lz.common.cache.CacheManager;
 import cn.qaiu.lz.common.cache.CacheTotalField;
+import cn.qaiu.lz.common.cache.LocalLinkCache;
+import cn.qaiu.lz.common.util.PanCircuitBreaker;
+import cn.qaiu.lz.common.util.ParseMetrics;
 import cn.qaiu.lz.common.util.ParserAuthUtil;
 import cn.qaiu.lz.common.util.URLParamUtil;
 import cn.qaiu.lz.web.model.CacheLinkInfo;
@@ -25,6 +29,8 @@ import org.apache.commons.lang3.time.DateFormatUtils;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -35,9 +41,16 @@ public class CacheServiceImpl implements CacheService {
     private final CacheManager cacheManager = new CacheManager();
     private final DbService dbService = AsyncServiceUtil.getAsyncServiceInstance(DbService.class);
 
+    /**
+     * 进行中的解析: 缓存key -> 解析结果，各服务实例共享
+     */
+    private static final Map<String, InFlightParse> IN_FLIGHT_PARSES = new ConcurrentHashMap<>();
+
     static {
         // 服务类加载时注册缓存定时清理任务
         CacheManager.registerPeriodicCleanup();
+        // 统计计数定时批量写入
+        ApiStatisticsWriter.registerPeriodicFlush(CacheConfigLoader.STATISTICS_FLUSH_INTERVAL);
     }
 
     private Future<CacheLinkInfo> getAndSaveCachedShareLink(ParserCreate parserCreate) {
@@ -58,26 +71,41 @@ public class CacheServiceImpl implements CacheService {
 
         // 尝试从缓存中获取
         cacheManager.get(cacheKey).onSuccess(result -> {
-            // 判断是否已过期
-            // 未命中或者过期
-            if (!result.getCacheHit() || result.getExpiration() < System.currentTimeMillis()) {
-                // parse
+            long now = System.currentTimeMillis();
+            boolean expired = result.getCacheHit() && result.getExpiration() < now;
+            if (expired && result.getExpiration()
+                    + CacheConfigLoader.getStaleWindowMillis(shareLinkInfo.getType()) > now) {
+                // 过期直链窗口内: 先返回旧直链，后台发起一次重新解析刷新缓存
+                ParseMetrics.recordCache(shareLinkInfo.getType(), ParseMetrics.CACHE_STALE);
+                completeFromCache(shareLinkInfo, cacheKey, result, promise);
+                revalidate(parserCreate, cacheKey, effectiveCacheDuration);
+            } else if (!result.getCacheHit() || expired) {
+                // 未命中或者过期
+                // 已过期但尚未清理的直链，上游熔断时作为兜底
+                String staleLink = result.getCacheHit() ? result.getDirectLink() : null;
+                Long staleExpiration = result.getExpiration();
+                // parse: 同一缓存key同时只发起一次解析，并发请求共享解析结果(包括失败)
                 result.setCacheHit(false);
                 result.setExpiration(0L);
-                IPanTool tool;
-                try {
-                    tool = parserCreate.createTool();
-                } catch (Exception e) {
-                    Throwable cause = e;
-                    while (cause.getCause() != null) {
-                        cause = cause.getCause();
+                InFlightParse created = new InFlightParse(shareLinkInfo, Promise.promise());
+                InFlightParse existing = IN_FLIGHT_PARSES.putIfAbsent(cacheKey, created);
+                boolean leader = existing == null;
+                InFlightParse inFlight = leader ? created : existing;
+                if (leader) {
+                    ParseMetrics.recordCache(shareLinkInfo.getType(), ParseMetrics.CACHE_MISS);
+                    if (PanCircuitBreaker.allowRequest(shareLinkInfo.getType())) {
+                        startParse(parserCreate, cacheKey, inFlight);
+                    } else {
+                        IN_FLIGHT_PARSES.remove(cacheKey, inFlight);
+                        inFlight.promise().fail(new PanCircuitBreaker.OpenException(shareLinkInfo.getType()));
                     }
-                    promise.fail(cause);
-                    return;
+                } else {
+                    ParseMetrics.recordCache(shareLinkInfo.getType(), ParseMetrics.CACHE_SHARED);
+                    log.debug("[合并解析] 复用进行中的解析: shareKey={}", cacheKey);
                 }
-                IPanTool.closeAfter(tool, tool::parse).onFailure(err -> {
-                    ParserAuthUtil.recordAutoDonatedFailureIfNeeded(dbService, shareLinkInfo, err);
-                }).onSuccess(redirectUrl -> {
+                inFlight.promise().future().onSuccess(redirectUrl -> {
+                    // 解析结果附带的文件信息、下载头等保存在发起解析的 shareLinkInfo 中
+                    ShareLinkInfo parsedInfo = inFlight.shareLinkInfo();
                     // 使用 effectiveCacheDuration
                     long expires = System.currentTimeMillis() + effectiveCacheDuration * 60 * 1000L;
                     result.setDirectLink(redirectUrl);
@@ -88,8 +116,8 @@ public class CacheServiceImpl implements CacheService {
                     // 调试日志：检查解析器返回的otherParam
                     log.debug("[解析完成] shareKey={}, otherParam.keys={}, hasFileInfo={}",
                             cacheKey, 
-                            shareLinkInfo.getOtherParam().keySet(),
-                            shareLinkInfo.getOtherParam().containsKey("fileInfo"));
+                            parsedInfo.getOtherParam().keySet(),
+                            parsedInfo.getOtherParam().containsKey("fileInfo"));
 
                     CacheLinkInfo cacheLinkInfo = new CacheLinkInfo(JsonObject.of(
                             "directLink", redirectUrl,
@@ -97,9 +125,9 @@ public class CacheServiceImpl implements CacheService {
                             "shareKey", cacheKey
                     ));
                     // 提取并设置文件信息
-                    if (shareLinkInfo.getOtherParam().containsKey("fileInfo")) {
+                    if (parsedInfo.getOtherParam().containsKey("fileInfo")) {
                         try {
-                            FileInfo fileInfo = (FileInfo) shareLinkInfo.getOtherParam().get("fileInfo");
+                            FileInfo fileInfo = (FileInfo) parsedInfo.getOtherParam().get("fileInfo");
                             result.setFileInfo(fileInfo);
                             cacheLinkInfo.setFileInfo(fileInfo);
                             log.debug("[设置文件信息] shareKey={}, fileName={}, size={}",
@@ -109,40 +137,130 @@ public class CacheServiceImpl implements CacheService {
                         }
                     } else {
                         log.debug("[文件信息缺失] 解析器未返回fileInfo: shareKey={}, otherParam.keys={}",
-                                cacheKey, shareLinkInfo.getOtherParam().keySet());
+                                cacheKey, parsedInfo.getOtherParam().keySet());
                     }
                     if (shouldGenerateClientLinks(shareLinkInfo)) {
                         // 传递 downloadHeaders 并生成下载命令
-                        processDownloadHeaders(shareLinkInfo, cacheLinkInfo, result);
+                        processDownloadHeaders(parsedInfo, cacheLinkInfo, result);
                     }
                     promise.complete(result);
-                    // 更新缓存
-                    cacheManager.cacheShareLink(cacheLinkInfo);
-                    cacheManager.updateTotalByField(cacheKey, CacheTotalField.API_PARSER_TOTAL).onFailure(e -> log.error("更新API解析计数失败: cacheKey={}", cacheKey, e));
-                }).onFailure(promise::fail);
-            } else {
-                // 缓存命中，生成过期时间并生成下载命令
-                result.setExpires(generateDate(result.getExpiration()));
-                
-                if (shouldGenerateClientLinks(shareLinkInfo)) {
-                    // 初始化 otherParam（如果为空）
-                    if (result.getOtherParam() == null) {
-                        result.setOtherParam(new HashMap<>());
+                    if (leader) {
+                        // 更新缓存
+                        cacheManager.cacheShareLink(cacheLinkInfo);
+                        cacheManager.updateTotalByField(cacheKey, CacheTotalField.API_PARSER_TOTAL);
+                    } else {
+                        cacheManager.updateTotalByField(cacheKey, CacheTotalField.CACHE_HIT_TOTAL);
                     }
-
-                    // 生成下载命令（aria2、curl）
-                    generateDownloadCommands(result);
+                }).onFailure(e -> {
+                    if (e instanceof PanCircuitBreaker.OpenException && staleLink != null && staleExpiration != null) {
+                        log.info("[熔断兜底] 返回已过期的缓存直链: shareKey={}", cacheKey);
+                        result.setDirectLink(staleLink);
+                        result.setExpiration(staleExpiration);
+                        result.setExpires(generateDate(staleExpiration));
+                        promise.complete(result);
+                    } else {
+                        promise.fail(e);
+                    }
+                });
+            } else {
+                ParseMetrics.recordCache(shareLinkInfo.getType(), ParseMetrics.CACHE_HIT);
+                completeFromCache(shareLinkInfo, cacheKey, result, promise);
+                // 热点直链临近过期时提前刷新
+                if (CacheConfigLoader.REFRESH_AHEAD > 0
+                        && result.getExpiration() - now < CacheConfigLoader.REFRESH_AHEAD * 1000L
+                        && LocalLinkCache.hitCount(cacheKey) >= CacheConfigLoader.HOT_HITS) {
+                    revalidate(parserCreate, cacheKey, effectiveCacheDuration);
                 }
-                
-                promise.complete(result);
-                cacheManager.updateTotalByField(cacheKey, CacheTotalField.CACHE_HIT_TOTAL)
-                        .onFailure(e -> log.error("更新缓存命中计数失败: cacheKey={}", cacheKey, e));
             }
         }).onFailure(promise::tryFail);
 
         return promise.future();
     }
 
+    /**
+     * 缓存命中，生成过期时间并生成下载命令
+     */
+    private void completeFromCache(ShareLinkInfo shareLinkInfo, String cacheKey, CacheLinkInfo result,
+                                   Promise<CacheLinkInfo> promise) {
+        result.setExpires(generateDate(result.getExpiration()));
+
+        if (shouldGenerateClientLinks(shareLinkInfo)) {
+            // 初始化 otherParam（如果为空）
+            if (result.getOtherParam() == null) {
+                result.setOtherParam(new HashMap<>());
+            }
+
+            // 生成下载命令（aria2、curl）
+            generateDownloadCommands(result);
+        }
+
+        promise.complete(result);
+        cacheManager.updateTotalByField(cacheKey, CacheTotalField.CACHE_HIT_TOTAL);
+    }
+
+    /**
+     * 后台重新解析并刷新缓存，同一缓存key已有进行中的解析时不再发起
+     */
+    private void revalidate(ParserCreate parserCreate, String cacheKey, int cacheDuration) {
+        ShareLinkInfo shareLinkInfo = parserCreate.getShareLinkInfo();
+        InFlightParse inFlight = new InFlightParse(shareLinkInfo, Promise.promise());
+        if (IN_FLIGHT_PARSES.putIfAbsent(cacheKey, inFlight) != null) {
+            return;
+        }
+        if (!PanCircuitBreaker.allowRequest(shareLinkInfo.getType())) {
+            IN_FLIGHT_PARSES.remove(cacheKey, inFlight);
+            return;
+        }
+        log.debug("[后台刷新] shareKey={}", cacheKey);
+        startParse(parserCreate, cacheKey, inFlight);
+        inFlight.promise().future().onSuccess(redirectUrl -> {
+            long expires = System.currentTimeMillis() + cacheDuration * 60 * 1000L;
+            CacheLinkInfo cacheLinkInfo = new CacheLinkInfo(JsonObject.of(
+                    "directLink", redirectUrl,
+                    "expiration", expires,
+                    "shareKey", cacheKey
+            ));
+            Object fileInfo = shareLinkInfo.getOtherParam().get("fileInfo");
+            if (fileInfo instanceof FileInfo) {
+                cacheLinkInfo.setFileInfo((FileInfo) fileInfo);
+            }
+            cacheManager.cacheShareLink(cacheLinkInfo);
+            cacheManager.updateTotalByField(cacheKey, CacheTotalField.API_PARSER_TOTAL);
+        }).onFailure(e -> log.warn("[后台刷新] 解析失败，继续使用旧直链: shareKey={}, {}", cacheKey, e.getMessage()));
+    }
+
+    /**
+     * 发起解析，完成后移出进行中的解析表
+     */
+    private void startParse(ParserCreate parserCreate, String cacheKey, InFlightParse inFlight) {
+        IPanTool tool;
+        try {
+            tool = parserCreate.createTool();
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            IN_FLIGHT_PARSES.remove(cacheKey, inFlight);
+            // 未发出上游请求，不计入熔断统计
+            PanCircuitBreaker.release(inFlight.shareLinkInfo().getType());
+            inFlight.promise().fail(cause);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        IPanTool.closeAfter(tool, tool::parse).onComplete(ar -> {
+            IN_FLIGHT_PARSES.remove(cacheKey, inFlight);
+            ParseMetrics.recordParse(inFlight.shareLinkInfo().getType(), startNanos, ar.succeeded());
+            PanCircuitBreaker.record(inFlight.shareLinkInfo().getType(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    PanCircuitBreaker.classify(ar.failed() ? ar.cause() : null));
+            if (ar.failed()) {
+                ParserAuthUtil.recordAutoDonatedFailureIfNeeded(dbService, inFlight.shareLinkInfo(), ar.cause());
+            }
+            inFlight.promise().handle(ar);
+        });
+    }
+
     private String generateDate(Long ts) {
         return DateFormatUtils.format(new Date(ts), "yyyy-MM-dd HH:mm:ss");
     }
@@ -306,4 +424,13 @@ public class CacheServiceImpl implements CacheService {
         return ParserAuthUtil.applyAuthParamsAndDonatedFallback(finalParserCreate, otherParam, dbService)
                 .compose(v -> getAndSaveCachedShareLink(finalParserCreate));
     }
+
+    /**
+     * 进行中的解析
+     *
+     * @param shareLinkInfo 发起解析的分享信息，解析器会把文件信息、下载头等写入其 otherParam
+     * @param promise 解析结果
+     */
+    private record InFlightParse(ShareLinkInfo shareLinkInfo, Promise<String> promise) {
+    }
 }
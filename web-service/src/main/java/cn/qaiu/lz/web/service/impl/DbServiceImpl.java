@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * lz-web
@@ -34,7 +35,6 @@ import java.util.List;
 @Slf4j
 @Service
 public class DbServiceImpl implements DbService {
-    private static final int DONATED_ACCOUNT_DISABLE_THRESHOLD = 3;
     private static final long FAILURE_TOKEN_TTL_MILLIS = 10 * 60 * 1000L;
     private static final String HMAC_ALGORITHM = "HmacSHA256";
     private static final String DONATED_ACCOUNT_TOKEN_SIGN_KEY_CONFIG = "donatedAccountFailureTokenSignKey";
@@ -354,7 +354,10 @@ public class DbServiceImpl implements DbService {
                                     account.getString("remark"),
                                     account.getString("ip")
                             ))
-                            .map(res -> JsonResult.success("捐赠成功").toJsonObject())
+                            .map(res -> {
+                                DonatedAccountPool.invalidate(account.getString("panType"));
+                                return JsonResult.success("捐赠成功").toJsonObject();
+                            })
                             .onFailure(e -> log.error("saveDonatedAccount failed", e));
                 }));
     }
@@ -398,54 +401,78 @@ public class DbServiceImpl implements DbService {
 
     @Override
     public Future<JsonObject> getRandomDonatedAccount(String panType) {
+        // 从内存账号池按权重轮询选取，账号池按类型从数据库加载并解密
+        return DonatedAccountPool.next(panType, this::loadDonatedAccounts)
+                .compose(account -> {
+                    if (account == null) {
+                        return Future.succeededFuture(JsonResult.data(new JsonObject()).toJsonObject());
+                    }
+                    return issueDonatedAccountFailureToken(account.id).map(failureToken -> {
+                        JsonObject result = new JsonObject();
+                        result.put("authType", account.authType);
+                        result.put("username", account.username);
+                        result.put("password", account.password);
+                        result.put("token", account.token);
+                        result.put("donatedAccountToken", failureToken);
+                        return JsonResult.data(result).toJsonObject();
+                    });
+                })
+                .onFailure(e -> log.error("getRandomDonatedAccount failed", e));
+    }
+
+    /**
+     * 加载网盘类型下已启用的捐赠账号并解密，没有可用凭证的账号不放入账号池
+     */
+    private Future<List<DonatedAccountPool.Account>> loadDonatedAccounts(String panType) {
         JDBCPool client = JDBCPoolInit.instance().getPool();
 
-        String sql = "SELECT * FROM donated_account WHERE pan_type = ? AND enabled = true ORDER BY RAND() LIMIT 1";
+        String sql = """
+                SELECT id, auth_type, username, password, token, fail_count
+                FROM donated_account WHERE pan_type = ? AND enabled = true
+                """;
 
-        return client.preparedQuery(sql)
-                .execute(Tuple.of(panType))
+        return ensureFailCountColumn(client)
+                .compose(v -> client.preparedQuery(sql).execute(Tuple.of(panType)))
                 .compose(rows -> {
-                    if (rows.size() > 0) {
-                        Row row = rows.iterator().next();
-
-                        Future<String> usernameFuture = decryptOrPlain(row.getString("username"));
-                        Future<String> passwordFuture = decryptOrPlain(row.getString("password"));
-                        Future<String> tokenFuture = decryptOrPlain(row.getString("token"));
-                        Future<String> failureTokenFuture = issueDonatedAccountFailureToken(row.getLong("id"));
-
-                        return Future.all(usernameFuture, passwordFuture, tokenFuture, failureTokenFuture)
-                                .map(compositeFuture -> {
-                                    String username = usernameFuture.result();
-                                    String password = passwordFuture.result();
-                                    String token = tokenFuture.result();
-
-                                    // 历史脏数据兜底：非 password 认证类型的账号不应该带用户名/密码
-                                    // （例如切换认证类型前遗留的表单数据），否则会被解析器误当作真实账号密码去登录。
-                                    boolean isPasswordAuth = "password".equalsIgnoreCase(row.getString("auth_type"));
-                                    if (!isPasswordAuth) {
-                                        username = null;
-                                        password = null;
-                                    }
-
-                                    // 如果解密后没有任何可用凭证，返回空对象，避免把密文当作明文认证参数下发给前端
-                                    if (StringUtils.isBlank(username) && StringUtils.isBlank(password) && StringUtils.isBlank(token)) {
-                                        log.warn("random donated account has no usable credential after decrypt, accountId={}", row.getLong("id"));
-                                        return JsonResult.data(new JsonObject()).toJsonObject();
-                                    }
-
-                                    JsonObject account = new JsonObject();
-                                    account.put("authType", row.getString("auth_type"));
-                                    account.put("username", username);
-                                    account.put("password", password);
-                                    account.put("token", token);
-                                    account.put("donatedAccountToken", failureTokenFuture.result());
-                                    return JsonResult.data(account).toJsonObject();
-                                });
-                    } else {
-                        return Future.succeededFuture(JsonResult.data(new JsonObject()).toJsonObject());
+                    List<Future<DonatedAccountPool.Account>> accounts = new ArrayList<>();
+                    for (Row row : rows) {
+                        accounts.add(decryptDonatedAccount(row));
                     }
-                })
-                .onFailure(e -> log.error("getRandomDonatedAccount failed", e));
+                    return Future.all(accounts).map(compositeFuture -> accounts.stream()
+                            .map(Future::result)
+                            .filter(Objects::nonNull)
+                            .toList());
+                });
+    }
+
+    private Future<DonatedAccountPool.Account> decryptDonatedAccount(Row row) {
+        Future<String> usernameFuture = decryptOrPlain(row.getString("username"));
+        Future<String> passwordFuture = decryptOrPlain(row.getString("password"));
+        Future<String> tokenFuture = decryptOrPlain(row.getString("token"));
+
+        return Future.all(usernameFuture, passwordFuture, tokenFuture).map(compositeFuture -> {
+            String username = usernameFuture.result();
+            String password = passwordFuture.result();
+            String token = tokenFuture.result();
+
+            // 历史脏数据兜底：非 password 认证类型的账号不应该带用户名/密码
+            // （例如切换认证类型前遗留的表单数据），否则会被解析器误当作真实账号密码去登录。
+            boolean isPasswordAuth = "password".equalsIgnoreCase(row.getString("auth_type"));
+            if (!isPasswordAuth) {
+                username = null;
+                password = null;
+            }
+
+            // 如果解密后没有任何可用凭证，不放入账号池，避免把密文当作明文认证参数下发给前端
+            if (StringUtils.isBlank(username) && StringUtils.isBlank(password) && StringUtils.isBlank(token)) {
+                log.warn("donated account has no usable credential after decrypt, accountId={}", row.getLong("id"));
+                return null;
+            }
+
+            Integer failCount = row.getInteger("fail_count");
+            return new DonatedAccountPool.Account(row.getLong("id"), row.getString("auth_type"),
+                    username, password, token, failCount == null ? 0 : failCount);
+        });
     }
 
     @Override
@@ -489,8 +516,11 @@ public class DbServiceImpl implements DbService {
 
         return ensureFailCountColumn(client)
                 .compose(v -> client.preparedQuery(updateSql)
-                        .execute(Tuple.of(DONATED_ACCOUNT_DISABLE_THRESHOLD, accountId)))
-                .map(rows -> (Void) null)
+                        .execute(Tuple.of(DonatedAccountPool.DISABLE_THRESHOLD, accountId)))
+                .map(rows -> {
+                    DonatedAccountPool.recordFailure(accountId);
+                    return (Void) null;
+                })
                 .onFailure(e -> log.error("recordDonatedAccountFailureByToken failed", e));
     }
 
@@ -0,0 +1,191 @@
+package cn.qaiu.lz.web.service.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * 捐赠账号内存池
+ * <p>
+ * 按网盘类型缓存已启用且已解密的捐赠账号，解析时按权重轮询选取，
+ * 不再每次 ORDER BY RAND() 查表并解密三个字段。
+ * 账号权重为 禁用阈值 - 失败次数，失败次数越多被选中越少，达到阈值后移出池子(数据库中同时被禁用)。
+ * 新增账号后对应类型的池子失效并在下次选取时重新加载；池子每5分钟在后台从数据库刷新一次，以同步外部修改。
+ * </p>
+ *
+ * @author <a href="https://qaiu.top">QAIU</a>
+ */
+@Slf4j
+final class DonatedAccountPool {
+
+    /**
+     * 失败次数达到该值时禁用账号
+     */
+    static final int DISABLE_THRESHOLD = 3;
+
+    private static final long REFRESH_INTERVAL_MILLIS = 5 * 60 * 1000L;
+
+    private static final Map<String, TypePool> POOLS = new ConcurrentHashMap<>();
+
+    private DonatedAccountPool() {}
+
+    /**
+     * 选取下一个账号
+     *
+     * @param panType 网盘类型
+     * @param loader  从数据库加载该类型已启用且已解密账号的方法
+     * @return 账号，池子为空时返回null
+     */
+    static Future<Account> next(String panType, Function<String, Future<List<Account>>> loader) {
+        TypePool pool = POOLS.computeIfAbsent(panType, k -> new TypePool());
+        long loadedAt = pool.loadedAt;
+        if (loadedAt == 0) {
+            return reload(panType, pool, loader).map(v -> pool.pick());
+        }
+        if (System.currentTimeMillis() - loadedAt > REFRESH_INTERVAL_MILLIS) {
+            // 后台刷新，本次仍使用当前账号
+            reload(panType, pool, loader);
+        }
+        return Future.succeededFuture(pool.pick());
+    }
+
+    /**
+     * 使网盘类型的池子失效，下次选取时重新加载
+     */
+    static void invalidate(String panType) {
+        if (panType == null) {
+            return;
+        }
+        // 调用方传入的类型大小写不一定一致
+        POOLS.forEach((type, pool) -> {
+            if (type.equalsIgnoreCase(panType)) {
+                pool.loadedAt = 0;
+            }
+        });
+    }
+
+    /**
+     * 记录账号失败，失败次数达到阈值时移出池子
+     */
+    static void recordFailure(long accountId) {
+        for (TypePool pool : POOLS.values()) {
+            pool.recordFailure(accountId);
+        }
+    }
+
+    static void clear() {
+        POOLS.clear();
+    }
+
+    private static Future<Void> reload(String panType, TypePool pool,
+                                       Function<String, Future<List<Account>>> loader) {
+        Promise<Void> promise = Promise.promise();
+        Future<Void> loading = pool.loading.compareAndExchange(null, promise.future());
+        if (loading != null) {
+            return loading;
+        }
+        Future<List<Account>> loaded;
+        try {
+            loaded = loader.apply(panType);
+        } catch (Exception e) {
+            loaded = Future.failedFuture(e);
+        }
+        loaded.onComplete(ar -> {
+            if (ar.succeeded()) {
+                pool.accounts = List.copyOf(ar.result());
+                pool.loadedAt = System.currentTimeMillis();
+                log.debug("捐赠账号池已加载: panType={}, size={}", panType, pool.accounts.size());
+            } else {
+                log.warn("捐赠账号池加载失败: panType={}", panType, ar.cause());
+            }
+            pool.loading.set(null);
+            if (ar.succeeded()) {
+                promise.complete();
+            } else {
+                promise.fail(ar.cause());
+            }
+        });
+        return promise.future();
+    }
+
+    /**
+     * 单个网盘类型的账号池
+     */
+    private static final class TypePool {
+        volatile List<Account> accounts = List.of();
+        volatile long loadedAt;
+        final AtomicLong counter = new AtomicLong();
+        final AtomicReference<Future<Void>> loading = new AtomicReference<>();
+
+        /**
+         * 交错加权轮询：第k轮依次选出权重大于k的账号，各账号的选中次数与权重成正比且不会连续集中在同一账号
+         */
+        Account pick() {
+            List<Account> snapshot = accounts;
+            int[] weights = new int[snapshot.size()];
+            int total = 0;
+            int maxWeight = 0;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = snapshot.get(i).weight();
+                total += weights[i];
+                maxWeight = Math.max(maxWeight, weights[i]);
+            }
+            if (total == 0) {
+                return null;
+            }
+            long n = Math.floorMod(counter.getAndIncrement(), (long) total);
+            for (int round = 0; round < maxWeight; round++) {
+                for (int i = 0; i < weights.length; i++) {
+                    if (weights[i] > round && n-- == 0) {
+                        return snapshot.get(i);
+                    }
+                }
+            }
+            return null;
+        }
+
+        void recordFailure(long accountId) {
+            List<Account> snapshot = accounts;
+            for (Account account : snapshot) {
+                if (account.id == accountId && account.failCount.incrementAndGet() >= DISABLE_THRESHOLD) {
+                    accounts = snapshot.stream().filter(a -> a != account).toList();
+                    log.info("捐赠账号失败次数达到阈值，已移出账号池: accountId={}", accountId);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 已解密的捐赠账号
+     */
+    static final class Account {
+        final long id;
+        final String authType;
+        final String username;
+        final String password;
+        final String token;
+        final AtomicInteger failCount;
+
+        Account(long id, String authType, String username, String password, String token, int failCount) {
+            this.id = id;
+            this.authType = authType;
+            this.username = username;
+            this.password = password;
+            this.token = token;
+            this.failCount = new AtomicInteger(failCount);
+        }
+
+        int weight() {
+            return Math.max(0, DISABLE_THRESHOLD - failCount.get());
+        }
+    }
+}
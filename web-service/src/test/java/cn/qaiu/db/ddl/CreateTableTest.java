@@ -2,6 +2,7 @@ package cn.qaiu.db.ddl;
 
 import cn.qaiu.db.pool.JDBCType;
 import io.vertx.sqlclient.templates.annotations.Column;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class CreateTableTest {
@@ -28,6 +29,25 @@ public class CreateTableTest {
         private java.util.Date createdAt;
     }
 
+    static class LargeTextModel {
+        @Length(varcharSize = 512)
+        private String cacheKey;
+
+        @Length(largeText = true)
+        private String content;
+    }
+
+    @Test
+    public void testLargeTextColumn() {
+        String mysql = String.join("\n", CreateTable.getCreateTableSQL(LargeTextModel.class, JDBCType.MySQL));
+        Assert.assertTrue(mysql, mysql.contains("VARCHAR(512)"));
+        Assert.assertTrue(mysql, mysql.contains("MEDIUMTEXT"));
+        Assert.assertTrue(String.join("\n", CreateTable.getCreateTableSQL(LargeTextModel.class, JDBCType.H2DB))
+                .contains("CLOB"));
+        Assert.assertTrue(String.join("\n", CreateTable.getCreateTableSQL(LargeTextModel.class, JDBCType.PostgreSQL))
+                .contains("TEXT"));
+    }
+
     @Test
     public void getCreateTableSQL() {
         // 测试
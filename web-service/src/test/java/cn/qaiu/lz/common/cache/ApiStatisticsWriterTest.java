@@ -0,0 +1,137 @@
+package cn.qaiu.lz.common.cache;
+
+import cn.qaiu.db.pool.JDBCPoolInit;
+import cn.qaiu.vx.core.util.VertxHolder;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.jdbcclient.JDBCPool;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 统计计数批量写入测试(内嵌H2, MySQL模式)
+ */
+public class ApiStatisticsWriterTest {
+
+    private static final String URL =
+            "jdbc:h2:mem:api_statistics_writer;MODE=MySQL;DATABASE_TO_UPPER=FALSE;DB_CLOSE_DELAY=-1";
+
+    private static Vertx vertx;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        vertx = Vertx.vertx();
+        VertxHolder.init(vertx);
+        JsonObject config = JsonObject.of("jdbcUrl", URL, "username", "sa", "password", "");
+        JDBCPoolInit poolInit = JDBCPoolInit.builder().config(config).build();
+        // 不走 initPool 的全量建表，只建本测试用到的表
+        Field pool = JDBCPoolInit.class.getDeclaredField("pool");
+        pool.setAccessible(true);
+        pool.set(poolInit, JDBCPool.pool(vertx, config));
+        try (Connection conn = connect(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS `api_statistics_info` (`pan_type` VARCHAR(16), "
+                    + "`share_key` VARCHAR(1024) PRIMARY KEY, `cache_hit_total` INT, `api_parser_total` INT, "
+                    + "`update_ts` BIGINT)");
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        JDBCPoolInit.instance().close();
+        vertx.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        try (Connection conn = connect(); Statement st = conn.createStatement()) {
+            st.execute("DELETE FROM `api_statistics_info`");
+        }
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(URL, "sa", "");
+    }
+
+    private static int await(Future<Integer> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return [cache_hit_total, api_parser_total]，记录不存在返回null
+     */
+    private static int[] totals(String shareKey) throws Exception {
+        try (Connection conn = connect(); Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT `cache_hit_total`, `api_parser_total` FROM `api_statistics_info` "
+                     + "WHERE `share_key` = '" + shareKey + "'")) {
+            return rs.next() ? new int[]{rs.getInt(1), rs.getInt(2)} : null;
+        }
+    }
+
+    @Test
+    public void testCountsMergeAcrossFlushes() throws Exception {
+        ApiStatisticsWriter.increment("lz:a", CacheTotalField.CACHE_HIT_TOTAL);
+        ApiStatisticsWriter.increment("lz:a", CacheTotalField.CACHE_HIT_TOTAL);
+        ApiStatisticsWriter.increment("lz:a", CacheTotalField.API_PARSER_TOTAL);
+        ApiStatisticsWriter.increment("fj:b", CacheTotalField.API_PARSER_TOTAL);
+        ApiStatisticsWriter.increment("fj:b", CacheTotalField.FAILED_TOTAL);
+        assertEquals(2, await(ApiStatisticsWriter.flush()));
+        assertEquals(0, ApiStatisticsWriter.pendingSize());
+
+        ApiStatisticsWriter.increment("lz:a", CacheTotalField.CACHE_HIT_TOTAL);
+        ApiStatisticsWriter.increment("lz:a", CacheTotalField.API_PARSER_TOTAL);
+        assertEquals(1, await(ApiStatisticsWriter.flush()));
+        assertEquals(0, await(ApiStatisticsWriter.flush()));
+
+        assertArrayEquals(new int[]{3, 2}, totals("lz:a"));
+        assertArrayEquals(new int[]{0, 1}, totals("fj:b"));
+    }
+
+    @Test
+    public void testShutdownWaitsForInFlightFlush() throws Exception {
+        ApiStatisticsWriter.increment("lz:c", CacheTotalField.API_PARSER_TOTAL);
+        await(ApiStatisticsWriter.flush());
+
+        try (Connection lock = connect()) {
+            // 锁住该行，让下一次写入停在数据库里
+            lock.setAutoCommit(false);
+            try (Statement st = lock.createStatement()) {
+                st.executeUpdate("UPDATE `api_statistics_info` SET `update_ts` = 0 WHERE `share_key` = 'lz:c'");
+            }
+            ApiStatisticsWriter.increment("lz:c", CacheTotalField.API_PARSER_TOTAL);
+            Future<Integer> inFlight = ApiStatisticsWriter.flush();
+            // 进行中的写入取出之后再累加的计数
+            ApiStatisticsWriter.increment("lz:c", CacheTotalField.API_PARSER_TOTAL);
+            assertFalse(inFlight.isComplete());
+
+            Thread release = new Thread(() -> {
+                try {
+                    Thread.sleep(300);
+                    lock.commit();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            long start = System.currentTimeMillis();
+            release.start();
+            ApiStatisticsWriter.cancelPeriodicFlush();
+            release.join();
+
+            assertTrue(System.currentTimeMillis() - start >= 250);
+            assertTrue(inFlight.succeeded());
+        }
+        assertEquals(0, ApiStatisticsWriter.pendingSize());
+        assertArrayEquals(new int[]{0, 3}, totals("lz:c"));
+    }
+}
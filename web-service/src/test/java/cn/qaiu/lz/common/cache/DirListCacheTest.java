@@ -0,0 +1,80 @@
+package cn.qaiu.lz.common.cache;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.entity.ShareLinkInfo;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 目录列表缓存测试
+ */
+public class DirListCacheTest {
+
+    @Before
+    public void setUp() {
+        DirListCache.init(JsonObject.of(
+                "enabled", true,
+                "maxSize", 10,
+                "defaultDuration", 5,
+                "duration", JsonObject.of("lz", 10, "fj", 0)
+        ));
+        DirListCache.clear();
+    }
+
+    private ShareLinkInfo shareLinkInfo(String type, String shareKey) {
+        return ShareLinkInfo.newBuilder().type(type).shareKey(shareKey).build();
+    }
+
+    private List<FileInfo> files(String name) {
+        return List.of(new FileInfo().setFileName(name));
+    }
+
+    @Test
+    public void testKeyIncludesRequestParams() {
+        ShareLinkInfo info = shareLinkInfo("lz", "abc");
+        String root = DirListCache.cacheKey(info, "1234", null, null, null, null, "http://a", null);
+        String sub = DirListCache.cacheKey(info, "1234", "dir1", null, null, null, "http://a", null);
+        String otherPwd = DirListCache.cacheKey(info, "0000", null, null, null, null, "http://a", null);
+
+        assertTrue(root.startsWith("lz:abc#"));
+        assertNotEquals(root, sub);
+        assertNotEquals(root, otherPwd);
+        assertEquals(root, DirListCache.cacheKey(info, "1234", null, null, null, null, "http://a", null));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        String key = DirListCache.cacheKey(shareLinkInfo("lz", "abc"), "1234");
+        assertNull(DirListCache.get(key).result());
+
+        DirListCache.put("lz", key, files("a.zip"));
+        List<FileInfo> hit = DirListCache.get(key).result();
+        assertNotNull(hit);
+        assertEquals("a.zip", hit.get(0).getFileName());
+    }
+
+    @Test
+    public void testDisabledDurationOrEmptyNotCached() {
+        String fjKey = DirListCache.cacheKey(shareLinkInfo("fj", "abc"));
+        String emptyKey = DirListCache.cacheKey(shareLinkInfo("lz", "empty"));
+        DirListCache.put("fj", fjKey, files("a.zip"));
+        DirListCache.put("lz", emptyKey, List.of());
+
+        assertNull(DirListCache.get(fjKey).result());
+        assertNull(DirListCache.get(emptyKey).result());
+        assertEquals(0, DirListCache.size());
+    }
+
+    @Test
+    public void testSizeBounded() {
+        for (int i = 0; i < 20; i++) {
+            DirListCache.put("lz", "lz:k" + i, files("f" + i));
+        }
+        assertTrue(DirListCache.size() <= 10);
+    }
+}
@@ -0,0 +1,117 @@
+package cn.qaiu.lz.common.cache;
+
+import cn.qaiu.entity.FileInfo;
+import cn.qaiu.lz.web.model.CacheLinkInfo;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 本地直链缓存测试
+ */
+public class LocalLinkCacheTest {
+
+    @Before
+    public void setUp() {
+        CacheConfigLoader.init(JsonObject.of(
+                "defaultDuration", 5,
+                "duration", JsonObject.of("lz", 30, "fj", 1),
+                "local", JsonObject.of("enabled", true, "maxSize", 10)
+        ));
+        LocalLinkCache.clear();
+    }
+
+    private CacheLinkInfo link(String cacheKey, long expiration) {
+        return new CacheLinkInfo(JsonObject.of(
+                "shareKey", cacheKey,
+                "directLink", "https://example.com/" + cacheKey,
+                "expiration", expiration
+        ));
+    }
+
+    @Test
+    public void testHitReturnsCopy() {
+        LocalLinkCache.put(link("lz:abc", System.currentTimeMillis() + 60_000));
+
+        CacheLinkInfo hit = LocalLinkCache.get("lz:abc");
+        assertNotNull(hit);
+        assertTrue(hit.getCacheHit());
+        assertEquals("https://example.com/lz:abc", hit.getDirectLink());
+
+        hit.setDirectLink("changed");
+        assertEquals("https://example.com/lz:abc", LocalLinkCache.get("lz:abc").getDirectLink());
+    }
+
+    @Test
+    public void testFileInfoNotShared() {
+        CacheLinkInfo info = link("lz:file", System.currentTimeMillis() + 60_000);
+        info.setFileInfo(new FileInfo().setFileName("a.zip"));
+        LocalLinkCache.put(info);
+
+        // 修改写入方和读取方持有的对象都不影响缓存
+        info.getFileInfo().setFileName("changed-by-writer");
+        LocalLinkCache.get("lz:file").getFileInfo().setFileName("changed-by-reader");
+        assertEquals("a.zip", LocalLinkCache.get("lz:file").getFileInfo().getFileName());
+    }
+
+    @Test
+    public void testExpiredOrUnconfiguredNotCached() {
+        LocalLinkCache.put(link("lz:expired", System.currentTimeMillis() - 1));
+        LocalLinkCache.put(link("unknown:abc", System.currentTimeMillis() + 60_000));
+
+        assertNull(LocalLinkCache.get("lz:expired"));
+        assertNull(LocalLinkCache.get("unknown:abc"));
+        assertEquals(0, LocalLinkCache.size());
+    }
+
+    @Test
+    public void testSizeBounded() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 20; i++) {
+            LocalLinkCache.put(link("lz:k" + i, now + 60_000 + i));
+        }
+        assertTrue(LocalLinkCache.size() <= 10);
+        // 最晚到期的条目保留
+        assertNotNull(LocalLinkCache.get("lz:k19"));
+    }
+
+    @Test
+    public void testStaleWindow() {
+        CacheConfigLoader.init(JsonObject.of(
+                "defaultDuration", 5,
+                "duration", JsonObject.of("lz", 30, "fj", 1),
+                "local", JsonObject.of("enabled", true, "maxSize", 10),
+                "staleWhileRevalidate", JsonObject.of("window", JsonObject.of("lz", 10))
+        ));
+        long now = System.currentTimeMillis();
+        LocalLinkCache.put(link("lz:stale", now - 60_000));
+        LocalLinkCache.put(link("lz:gone", now - 11 * 60_000));
+        LocalLinkCache.put(link("fj:stale", now - 60_000));
+
+        // 窗口内的过期直链仍返回，由调用方判断是否刷新
+        CacheLinkInfo stale = LocalLinkCache.get("lz:stale");
+        assertNotNull(stale);
+        assertTrue(stale.getExpiration() < now);
+        assertNull(LocalLinkCache.get("lz:gone"));
+        assertNull(LocalLinkCache.get("fj:stale"));
+
+        assertEquals(10 * 60_000L, CacheConfigLoader.getStaleWindowMillis("LZ"));
+        assertEquals(0L, CacheConfigLoader.getStaleWindowMillis("unknown"));
+        assertEquals(10 * 60_000L, CacheConfigLoader.getMaxStaleWindowMillis());
+    }
+
+    @Test
+    public void testHitCountResetOnRefresh() {
+        LocalLinkCache.put(link("lz:hot", System.currentTimeMillis() + 60_000));
+        for (int i = 0; i < 3; i++) {
+            LocalLinkCache.get("lz:hot");
+        }
+        assertEquals(3, LocalLinkCache.hitCount("lz:hot"));
+
+        LocalLinkCache.put(link("lz:hot", System.currentTimeMillis() + 120_000));
+        assertEquals(0, LocalLinkCache.hitCount("lz:hot"));
+        assertEquals(0, LocalLinkCache.hitCount("lz:missing"));
+    }
+}
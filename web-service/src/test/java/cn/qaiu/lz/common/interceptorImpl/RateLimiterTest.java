@@ -0,0 +1,58 @@
+package cn.qaiu.lz.common.interceptorImpl;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 令牌桶限流测试
+ */
+public class RateLimiterTest {
+
+    private long now;
+
+    @Before
+    public void setUp() {
+        RateLimiter.init(JsonObject.of(
+                "limit", 3,
+                "timeWindow", 3,
+                "pathReg", "^/v2/.*",
+                "routes", JsonArray.of(JsonObject.of("pathReg", "^/v2/getFileList.*", "limit", 1, "timeWindow", 10))
+        ));
+        now = System.nanoTime();
+    }
+
+    @Test
+    public void testBurstThenRefill() {
+        for (int i = 0; i < 3; i++) {
+            assertNull(RateLimiter.tryAcquire("/v2/linkInfo", "1.1.1.1", now));
+        }
+        String rejected = RateLimiter.tryAcquire("/v2/linkInfo", "1.1.1.1", now);
+        assertNotNull(rejected);
+        assertTrue(rejected.contains("1.00秒"));
+
+        // 其他IP不受影响
+        assertNull(RateLimiter.tryAcquire("/v2/linkInfo", "2.2.2.2", now));
+        // 一个令牌恢复后可再请求一次
+        long later = now + TimeUnit.SECONDS.toNanos(1);
+        assertNull(RateLimiter.tryAcquire("/v2/linkInfo", "1.1.1.1", later));
+        assertNotNull(RateLimiter.tryAcquire("/v2/linkInfo", "1.1.1.1", later));
+    }
+
+    @Test
+    public void testPerRouteRuleAndUnmatchedPath() {
+        assertNull(RateLimiter.tryAcquire("/v2/getFileList", "3.3.3.3", now));
+        assertNotNull(RateLimiter.tryAcquire("/v2/getFileList", "3.3.3.3", now));
+        // 路由规则与默认规则分别计数
+        assertNull(RateLimiter.tryAcquire("/v2/linkInfo", "3.3.3.3", now));
+        // 不匹配任何规则的路径不限流
+        for (int i = 0; i < 10; i++) {
+            assertNull(RateLimiter.tryAcquire("/index.html", "3.3.3.3", now));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package cn.qaiu.lz.common.util;
+
+import cn.qaiu.parser.UpstreamException;
+import io.vertx.core.http.HttpClosedException;
+import io.vertx.core.impl.NoStackTraceThrowable;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ConnectException;
+
+import static cn.qaiu.lz.common.util.PanCircuitBreaker.Outcome.*;
+import static org.junit.Assert.*;
+
+/**
+ * 上游熔断器测试
+ */
+public class PanCircuitBreakerTest {
+
+    @Before
+    public void setUp() {
+        PanCircuitBreaker.init(new JsonObject()
+                .put("enabled", true)
+                .put("windowSize", 4)
+                .put("minimumCalls", 4)
+                .put("failureRateThreshold", 50)
+                .put("slowCallDuration", 1000)
+                .put("slowCallRateThreshold", 100)
+                .put("openDuration", 1)
+                .put("halfOpenCalls", 1));
+    }
+
+    @After
+    public void tearDown() {
+        PanCircuitBreaker.init(new JsonObject());
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(PanCircuitBreaker.allowRequest("lz"));
+            PanCircuitBreaker.record("lz", 10, i % 2 == 0 ? SUCCESS : UPSTREAM_FAILURE);
+        }
+        // 未达到最小调用数
+        assertEquals(PanCircuitBreaker.State.CLOSED, PanCircuitBreaker.getState("lz"));
+        PanCircuitBreaker.record("lz", 10, UPSTREAM_FAILURE);
+        assertEquals(PanCircuitBreaker.State.OPEN, PanCircuitBreaker.getState("lz"));
+        assertFalse(PanCircuitBreaker.allowRequest("LZ"));
+        // 其他网盘不受影响
+        assertTrue(PanCircuitBreaker.allowRequest("iz"));
+    }
+
+    @Test
+    public void testOpensOnSlowCalls() {
+        for (int i = 0; i < 4; i++) {
+            PanCircuitBreaker.record("fj", 1500, SUCCESS);
+        }
+        assertEquals(PanCircuitBreaker.State.OPEN, PanCircuitBreaker.getState("fj"));
+    }
+
+    @Test
+    public void testHalfOpenProbe() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            PanCircuitBreaker.record("lz", 10, UPSTREAM_FAILURE);
+        }
+        assertFalse(PanCircuitBreaker.allowRequest("lz"));
+        Thread.sleep(1100);
+
+        // 半开只放行一次探测
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+        assertEquals(PanCircuitBreaker.State.HALF_OPEN, PanCircuitBreaker.getState("lz"));
+        assertFalse(PanCircuitBreaker.allowRequest("lz"));
+        PanCircuitBreaker.record("lz", 10, UPSTREAM_FAILURE);
+        assertEquals(PanCircuitBreaker.State.OPEN, PanCircuitBreaker.getState("lz"));
+
+        Thread.sleep(1100);
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+        // 归还探测名额后可再次放行
+        PanCircuitBreaker.release("lz");
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+        PanCircuitBreaker.record("lz", 10, SUCCESS);
+        assertEquals(PanCircuitBreaker.State.CLOSED, PanCircuitBreaker.getState("lz"));
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+    }
+
+    @Test
+    public void testDisabled() {
+        PanCircuitBreaker.init(new JsonObject().put("enabled", false));
+        for (int i = 0; i < 20; i++) {
+            PanCircuitBreaker.record("lz", 10, UPSTREAM_FAILURE);
+        }
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+        assertEquals(PanCircuitBreaker.State.CLOSED, PanCircuitBreaker.getState("lz"));
+    }
+
+    @Test
+    public void testBusinessFailuresDoNotOpen() {
+        // 分享失效、密码错误等不计为失败
+        for (int i = 0; i < 8; i++) {
+            PanCircuitBreaker.record("lz", 10, BUSINESS_FAILURE);
+        }
+        assertEquals(PanCircuitBreaker.State.CLOSED, PanCircuitBreaker.getState("lz"));
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+    }
+
+    @Test
+    public void testClassify() {
+        assertEquals(SUCCESS, PanCircuitBreaker.classify(null));
+        assertEquals(BUSINESS_FAILURE, PanCircuitBreaker.classify(new NoStackTraceThrowable("分享已失效")));
+        assertEquals(UPSTREAM_FAILURE, PanCircuitBreaker.classify(new UpstreamException("解析超时")));
+        assertEquals(UPSTREAM_FAILURE, PanCircuitBreaker.classify(new RuntimeException(new ConnectException())));
+        assertEquals(UPSTREAM_FAILURE, PanCircuitBreaker.classify(new HttpClosedException("closed")));
+    }
+
+    @Test
+    public void testDisabledWithoutConfig() {
+        PanCircuitBreaker.init(null);
+        for (int i = 0; i < 20; i++) {
+            PanCircuitBreaker.record("lz", 10, UPSTREAM_FAILURE);
+        }
+        assertTrue(PanCircuitBreaker.allowRequest("lz"));
+        assertEquals(PanCircuitBreaker.State.CLOSED, PanCircuitBreaker.getState("lz"));
+    }
+}
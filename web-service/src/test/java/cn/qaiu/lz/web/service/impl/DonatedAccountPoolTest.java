@@ -0,0 +1,68 @@
+package cn.qaiu.lz.web.service.impl;
+
+import io.vertx.core.Future;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 捐赠账号池测试
+ */
+public class DonatedAccountPoolTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        DonatedAccountPool.clear();
+        loads.set(0);
+    }
+
+    private Future<List<DonatedAccountPool.Account>> load(String panType) {
+        loads.incrementAndGet();
+        return Future.succeededFuture(List.of(
+                new DonatedAccountPool.Account(1, "cookie", null, null, "t1", 0),
+                new DonatedAccountPool.Account(2, "cookie", null, null, "t2", 2)));
+    }
+
+    private Map<Long, Integer> pick(int times) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            DonatedAccountPool.Account account = DonatedAccountPool.next("QK", this::load).result();
+            counts.merge(account == null ? -1L : account.id, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Test
+    public void testWeightedByFailCount() {
+        Map<Long, Integer> counts = pick(40);
+        // 权重 3:1
+        assertEquals(Integer.valueOf(30), counts.get(1L));
+        assertEquals(Integer.valueOf(10), counts.get(2L));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testFailureRemovesAccountAtThreshold() {
+        pick(1);
+        DonatedAccountPool.recordFailure(2);
+        Map<Long, Integer> counts = pick(10);
+        assertEquals(Integer.valueOf(10), counts.get(1L));
+        assertNull(counts.get(2L));
+    }
+
+    @Test
+    public void testInvalidateReloads() {
+        pick(1);
+        DonatedAccountPool.invalidate("qk");
+        pick(1);
+        assertEquals(2, loads.get());
+    }
+}